@@ -0,0 +1,34 @@
+#!/bin/bash
+# Records the JMH baseline of the match and exchange mapping (src/jmh/java) with
+# allocation profiling into benchmark/jmh-baseline.txt, headed by the commit, JDK,
+# CPU and JMH options, so later runs on the same host can be compared against it.
+# The fixture sizes are the (users), (pageSize) and (requests) columns of the table.
+#
+# Usage: ./jmh-baseline.sh [jmh options...]
+#   Options replace the default "-prof gc", e.g. ./jmh-baseline.sh MatchDetails -prof gc
+set -euo pipefail
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+BACKEND="$(cd "$DIR/.." && pwd)"
+OUT="$DIR/jmh-baseline.txt"
+RAW="$(mktemp)"
+trap 'rm -f "$RAW"' EXIT
+
+if [ $# -eq 0 ]; then
+    set -- -prof gc
+fi
+
+cd "$BACKEND"
+./mvnw -q -Pjmh test-compile exec:exec -Djmh.args="$* -rf text -rff $RAW"
+
+{
+    echo "# JMH baseline of src/jmh/java, recorded with benchmark/jmh-baseline.sh $*"
+    echo "# Commit: $(git rev-parse --short HEAD)"
+    echo "# JDK: $(java -version 2>&1 | head -1)"
+    echo "# CPU: $(grep -m1 'model name' /proc/cpuinfo | cut -d: -f2 | xargs) ($(nproc) threads)"
+    echo "# us/op is only comparable on the same host; B/op (gc.alloc.rate.norm) also across hosts."
+    echo
+    cat "$RAW"
+} > "$OUT"
+
+echo "Baseline written to $OUT"
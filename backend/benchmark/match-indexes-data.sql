@@ -0,0 +1,51 @@
+-- Synthetic dataset for the match index benchmark: 50k users with 30 offered
+-- and 30 searched stickers each (out of 636) and ~100k active requests.
+-- Expects a schema migrated by Flyway. DELETES ALL USER DATA.
+SELECT setseed(0.42);
+
+TRUNCATE email_outbox, exchange_requests, card_offer_stock, card_search_stock,
+         card_offers, card_searches, credentials, users RESTART IDENTITY CASCADE;
+
+INSERT INTO users (id, firstname, lastname, mail)
+SELECT u, 'Bench', 'User ' || u, 'bench-' || u || '@example.com'
+FROM generate_series(1, 50000) AS u;
+SELECT setval(pg_get_serial_sequence('users', 'id'), 50000);
+
+INSERT INTO card_offers (user_id, sticker_id, offer_freebie, offer_payed, offer_exchange, is_reserved)
+SELECT u, 1 + floor(random() * 636)::int,
+       random() < 0.3, random() < 0.4, random() < 0.7, random() < 0.05
+FROM generate_series(1, 50000) AS u, generate_series(1, 30);
+
+INSERT INTO card_searches (user_id, sticker_id, is_reserved)
+SELECT u, 1 + floor(random() * 636)::int, random() < 0.05
+FROM generate_series(1, 50000) AS u, generate_series(1, 30);
+
+INSERT INTO exchange_requests (requester_id, offerer_id, requested_sticker_id, offered_sticker_id,
+                               exchange_type, status)
+SELECT 1 + floor(random() * 50000)::int, 1 + floor(random() * 50000)::int,
+       1 + floor(random() * 636)::int, 1 + floor(random() * 636)::int,
+       'EXCHANGE',
+       (ARRAY['INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST', 'EXCHANGE_COMPLETED', 'EXCHANGE_CANCELED'])
+           [1 + floor(random() * 5)::int]
+FROM generate_series(1, 150000);
+
+-- Same derivation as V17
+INSERT INTO card_offer_stock (user_id, sticker_id, quantity, reserved_quantity,
+                              freebie_available, payed_available, exchange_available)
+SELECT user_id, sticker_id,
+       COUNT(*),
+       SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_freebie = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_payed = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_exchange = TRUE THEN 1 ELSE 0 END)
+FROM card_offers
+GROUP BY user_id, sticker_id;
+
+INSERT INTO card_search_stock (user_id, sticker_id, quantity, reserved_quantity)
+SELECT user_id, sticker_id,
+       COUNT(*),
+       SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END)
+FROM card_searches
+GROUP BY user_id, sticker_id;
+
+VACUUM ANALYZE;
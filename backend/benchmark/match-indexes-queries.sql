@@ -0,0 +1,120 @@
+-- The access paths covered by V18, as issued by the repositories. Run with
+-- psql -v user_id=<id> -v partners=<comma separated ids>.
+\timing on
+
+\echo '--- findFreebieMatches'
+EXPLAIN (ANALYZE, BUFFERS)
+WITH Scored AS (
+    SELECT user_id AS userId, SUM(cnt) AS matchCount FROM (
+        SELECT ss.user_id, COUNT(*) AS cnt
+        FROM card_search_stock ss
+        JOIN card_offer_stock os ON ss.sticker_id = os.sticker_id
+        WHERE os.user_id = :user_id
+          AND os.freebie_available > 0
+          AND ss.user_id != :user_id
+          AND ss.quantity > ss.reserved_quantity
+          AND NOT EXISTS (
+              SELECT 1 FROM exchange_requests er
+              WHERE er.requester_id = :user_id
+                AND er.offerer_id = ss.user_id
+                AND er.offered_sticker_id = ss.sticker_id
+                AND er.exchange_type = 'EXCHANGE'
+                AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST'))
+        GROUP BY ss.user_id
+        UNION ALL
+        SELECT os.user_id, COUNT(*) AS cnt
+        FROM card_offer_stock os
+        JOIN card_search_stock ss ON os.sticker_id = ss.sticker_id
+        WHERE ss.user_id = :user_id
+          AND os.freebie_available > 0
+          AND os.user_id != :user_id
+          AND ss.quantity > ss.reserved_quantity
+          AND NOT EXISTS (
+              SELECT 1 FROM exchange_requests er
+              WHERE er.requester_id = :user_id
+                AND er.offerer_id = os.user_id
+                AND er.requested_sticker_id = os.sticker_id
+                AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST'))
+        GROUP BY os.user_id
+    ) combined
+    GROUP BY user_id
+)
+SELECT userId, matchCount FROM Scored ORDER BY matchCount DESC, userId LIMIT 20;
+
+\echo '--- findExchangeMatches'
+EXPLAIN (ANALYZE, BUFFERS)
+WITH MyNeeds AS (
+    SELECT sticker_id FROM card_search_stock WHERE user_id = :user_id AND quantity > reserved_quantity
+),
+MyOffers AS (
+    SELECT sticker_id FROM card_offer_stock WHERE user_id = :user_id AND exchange_available > 0
+),
+PartnerOffers AS (
+    SELECT os.user_id, os.sticker_id
+    FROM card_offer_stock os
+    WHERE os.exchange_available > 0
+      AND os.user_id != :user_id
+      AND os.sticker_id IN (SELECT sticker_id FROM MyNeeds)
+      AND NOT EXISTS (
+          SELECT 1 FROM exchange_requests er
+          WHERE er.requester_id = :user_id
+            AND er.offerer_id = os.user_id
+            AND er.requested_sticker_id = os.sticker_id
+            AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST'))
+),
+PartnerNeeds AS (
+    SELECT ss.user_id, ss.sticker_id
+    FROM card_search_stock ss
+    WHERE ss.user_id != :user_id
+      AND ss.quantity > ss.reserved_quantity
+      AND ss.sticker_id IN (SELECT sticker_id FROM MyOffers)
+      AND NOT EXISTS (
+          SELECT 1 FROM exchange_requests er
+          WHERE er.requester_id = :user_id
+            AND er.offerer_id = ss.user_id
+            AND er.offered_sticker_id = ss.sticker_id
+            AND er.exchange_type = 'EXCHANGE'
+            AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST'))
+),
+Matches AS (
+    SELECT po.user_id,
+           COUNT(DISTINCT po.sticker_id) AS i_get,
+           COUNT(DISTINCT pn.sticker_id) AS i_give
+    FROM PartnerOffers po
+    JOIN PartnerNeeds pn ON po.user_id = pn.user_id
+    GROUP BY po.user_id
+),
+Scored AS (
+    SELECT user_id AS userId,
+           CASE WHEN i_get < i_give THEN i_get ELSE i_give END AS matchCount
+    FROM Matches
+)
+SELECT userId, matchCount FROM Scored ORDER BY matchCount DESC, userId LIMIT 20;
+
+\echo '--- findMatchingOffers'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT co.id, co.user_id, co.sticker_id, co.offer_freebie, co.offer_payed, co.offer_exchange
+FROM card_offers co
+WHERE co.user_id IN (:partners)
+  AND co.sticker_id IN (SELECT cs.sticker_id FROM card_searches cs
+                        WHERE cs.user_id = :user_id AND cs.is_reserved = FALSE)
+  AND co.is_reserved = FALSE
+  AND (co.offer_freebie = TRUE OR co.offer_payed = TRUE OR co.offer_exchange = TRUE);
+
+\echo '--- findMatchingSearches'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT cs.id, cs.user_id, cs.sticker_id
+FROM card_searches cs
+WHERE cs.user_id IN (:partners)
+  AND cs.sticker_id IN (SELECT co.sticker_id FROM card_offers co
+                        WHERE co.user_id = :user_id AND co.is_reserved = FALSE
+                          AND co.offer_exchange = TRUE)
+  AND cs.is_reserved = FALSE;
+
+\echo '--- findByUserIdAndStickerIdIn'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT co.id FROM card_offers co
+WHERE co.user_id = :user_id AND co.sticker_id IN (1, 2, 3, 5, 8, 13, 21, 34, 55, 89);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT cs.id FROM card_searches cs
+WHERE cs.user_id = :user_id AND cs.sticker_id IN (1, 2, 3, 5, 8, 13, 21, 34, 55, 89);
@@ -0,0 +1,74 @@
+#!/bin/bash
+# Compares the query plans and latencies of the match and reservation queries
+# with and without the V18 indexes (as trimmed by V26) on a generated 50k user dataset.
+#
+# Usage: ./match-indexes.sh [--no-data] [user_id]
+#   Runs against the docker-compose database (container sammelalbum-postgres),
+#   which must already be migrated by starting the backend once.
+#   The dataset load REPLACES ALL USER DATA in that database.
+#
+# The "without" run drops the V18 indexes (and restores the replaced
+# idx_card_offers_user_id) inside a transaction that is rolled back afterwards.
+set -euo pipefail
+
+DB_CONTAINER="${DB_CONTAINER:-sammelalbum-postgres}"
+DIR="$(cd "$(dirname "$0")" && pwd)"
+OUT="${OUT:-$DIR/results}"
+
+LOAD_DATA=true
+if [ "${1:-}" = "--no-data" ]; then
+    LOAD_DATA=false
+    shift
+fi
+USER_ID="${1:-4242}"
+
+psql_run() {
+    docker exec -i "$DB_CONTAINER" psql -U user -d sammelalbum -v ON_ERROR_STOP=1 "$@"
+}
+
+if [ ! "$(docker ps -q -f name=$DB_CONTAINER)" ]; then
+    echo "Error: Container $DB_CONTAINER is not running."
+    exit 1
+fi
+
+if $LOAD_DATA; then
+    echo "Generating dataset..."
+    psql_run -q < "$DIR/match-indexes-data.sql"
+fi
+
+# The partners the match list would show for this user
+PARTNERS=$(psql_run -At -c "
+    SELECT string_agg(user_id::text, ',') FROM (
+        SELECT os.user_id FROM card_offer_stock os
+        JOIN card_search_stock ss ON ss.sticker_id = os.sticker_id AND ss.user_id = $USER_ID
+        WHERE os.user_id != $USER_ID
+        GROUP BY os.user_id ORDER BY COUNT(*) DESC, os.user_id LIMIT 20) p")
+
+mkdir -p "$OUT"
+QUERY_ARGS=(-v user_id="$USER_ID" -v partners="$PARTNERS")
+
+echo "Running with V18 indexes -> $OUT/with-indexes.txt"
+# Warm-up run so both variants read from a hot cache
+psql_run "${QUERY_ARGS[@]}" < "$DIR/match-indexes-queries.sql" > /dev/null
+psql_run "${QUERY_ARGS[@]}" < "$DIR/match-indexes-queries.sql" > "$OUT/with-indexes.txt"
+
+echo "Running without V18 indexes -> $OUT/without-indexes.txt"
+{
+    cat <<'SQL'
+BEGIN;
+DROP INDEX IF EXISTS idx_card_offers_user_sticker, idx_card_searches_user_sticker,
+    idx_card_searches_sticker_id, idx_card_offers_unreserved, idx_card_searches_unreserved,
+    idx_card_offer_stock_freebie, idx_card_offer_stock_payed, idx_card_offer_stock_exchange,
+    idx_card_search_stock_open, idx_exchange_requests_pair_requested, idx_exchange_requests_pair_offered;
+CREATE INDEX idx_card_offers_user_id ON card_offers(user_id);
+ANALYZE card_offers;
+SQL
+    cat "$DIR/match-indexes-queries.sql"
+    echo "ROLLBACK;"
+} | psql_run "${QUERY_ARGS[@]}" > "$OUT/without-indexes.txt"
+
+grep -E "^---|Execution Time" "$OUT/without-indexes.txt" > "$OUT/without-summary.txt"
+grep -E "^---|Execution Time" "$OUT/with-indexes.txt" > "$OUT/with-summary.txt"
+echo
+echo "Execution time (without | with V18 indexes):"
+paste "$OUT/without-summary.txt" "$OUT/with-summary.txt" | sed 's/Execution Time: //g'
@@ -0,0 +1,95 @@
+#!/bin/bash
+# Compares the backend on platform threads and on virtual threads: replays
+# /api/matches and /api/card-offers/bulk traffic (LoadDriver, --mix matches=50,bulk=50)
+# at several client concurrencies and records p50/p99 per endpoint together with
+# how long requests waited for one of Hikari's connections.
+#
+# Usage: ./virtual-threads.sh [--embedded] [concurrency...]
+#   Without --embedded the backend runs against the docker-compose database, which
+#   must hold the load test users (exec@generate). With --embedded it runs on the H2
+#   file written by the generator with --embedded. Concurrencies default to 16 64 256
+#   (the pool has 10 connections). USERS, WARMUP and DURATION override the driver options.
+#
+# Bulk offers add cards, so regenerate the data before comparing separate runs.
+set -euo pipefail
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+BACKEND="$(cd "$DIR/.." && pwd)"
+OUT="${OUT:-$DIR/results}"
+USERS="${USERS:-10000}"
+WARMUP="${WARMUP:-10}"
+DURATION="${DURATION:-60}"
+ACTUATOR="http://localhost:8081/api/actuator"
+
+EMBEDDED=false
+if [ "${1:-}" = "--embedded" ]; then
+    EMBEDDED=true
+    shift
+fi
+if [ $# -eq 0 ]; then
+    set -- 16 64 256
+fi
+
+cd "$BACKEND"
+mkdir -p "$OUT"
+./mvnw -q test-compile -Ploadtest
+
+{
+    echo "commit: $(git rev-parse --short HEAD)"
+    java -version 2>&1 | head -1
+    echo "cpu: $(grep -m1 'model name' /proc/cpuinfo | cut -d: -f2 | xargs) ($(nproc) threads)"
+    echo "database: $($EMBEDDED && echo 'H2 file' || echo 'PostgreSQL (docker compose)'), $USERS users"
+    echo "driver: --mix matches=50,bulk=50 --warmup $WARMUP --duration $DURATION"
+} > "$OUT/virtual-threads-env.txt"
+
+start_backend() {
+    local log="$OUT/virtual-threads-$1-backend.log"
+    # Own process group, so stopping it also stops the forked application JVM
+    if $EMBEDDED; then
+        setsid ./mvnw -q exec:exec@server -Ploadtest \
+            -Dloadtest.args="--spring.threads.virtual.enabled=$1" > "$log" 2>&1 &
+    else
+        setsid ./mvnw -q spring-boot:run \
+            -Dspring-boot.run.arguments="--spring.threads.virtual.enabled=$1" > "$log" 2>&1 &
+    fi
+    BACKEND_PID=$!
+    for _ in $(seq 1 120); do
+        if curl -sf "$ACTUATOR/health" > /dev/null; then
+            return
+        fi
+        sleep 1
+    done
+    echo "Error: Backend did not start, see $log"
+    stop_backend
+    exit 1
+}
+
+stop_backend() {
+    kill -- -"$BACKEND_PID" 2> /dev/null || true
+    wait "$BACKEND_PID" 2> /dev/null || true
+}
+
+for VIRTUAL in false true; do
+    echo "Starting backend with spring.threads.virtual.enabled=$VIRTUAL"
+    start_backend "$VIRTUAL"
+    for CONCURRENCY in "$@"; do
+        RESULT="$OUT/virtual-threads-$VIRTUAL-c$CONCURRENCY.txt"
+        echo "Running $CONCURRENCY workers -> $RESULT"
+        ./mvnw -q exec:exec@load -Ploadtest -Dloadtest.args="--users $USERS --concurrency $CONCURRENCY \
+            --warmup $WARMUP --duration $DURATION --mix matches=50,bulk=50" > "$RESULT"
+        # Timeouts are counted since startup; the acquire maximum covers the last minutes
+        curl -s "$ACTUATOR/prometheus" \
+            | grep -E '^hikaricp_connections_(timeout_total|acquire_seconds_max)' >> "$RESULT"
+    done
+    stop_backend
+done
+
+echo
+echo "virtual concurrency endpoint p50_ms p99_ms errors" | tee "$OUT/virtual-threads-summary.txt"
+for VIRTUAL in false true; do
+    for CONCURRENCY in "$@"; do
+        awk -v v="$VIRTUAL" -v c="$CONCURRENCY" \
+            '$2 ~ /^\/api\/(matches|card-offers)/ { print v, c, $1 " " $2, $6, $8, $4 }' \
+            "$OUT/virtual-threads-$VIRTUAL-c$CONCURRENCY.txt"
+    done
+done | tee -a "$OUT/virtual-threads-summary.txt"
@@ -0,0 +1,78 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.model.Sticker;
+import com.daspawnw.sammelalbum.repository.StickerRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Synthetic data sized like a real album: 700 stickers and user IDs in the
+ * 10k-100k range. Everything is derived from fixed seeds, so every fork and
+ * every run works on the same data.
+ */
+final class BenchmarkFixtures {
+
+    static final int STICKERS = 700;
+    static final long USER_ID = 1L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static StickerCatalog stickerCatalog() {
+        List<Sticker> stickers = new ArrayList<>(STICKERS);
+        for (long id = 1; id <= STICKERS; id++) {
+            stickers.add(Sticker.builder().id(id).name("Sticker " + id).build());
+        }
+        AppProperties appProperties = new AppProperties();
+        appProperties.getStickerCatalog().setEnabled(true);
+        StickerCatalog catalog = new StickerCatalog(
+                stub(StickerRepository.class, Map.of("findAll", args -> stickers)), appProperties);
+        catalog.reload();
+        return catalog;
+    }
+
+    /**
+     * Random distinct sticker IDs, e.g. the duplicates or the missing stickers
+     * of one user.
+     */
+    static BitSet randomStickers(Random random, int count) {
+        BitSet stickers = new BitSet(STICKERS + 1);
+        while (stickers.cardinality() < count) {
+            stickers.set(1 + random.nextInt(STICKERS));
+        }
+        return stickers;
+    }
+
+    /**
+     * Partner IDs other than {@link #USER_ID}, drawn uniformly from the user
+     * population.
+     */
+    static long randomPartner(Random random, int users) {
+        return 2 + random.nextInt(users - 1);
+    }
+
+    /**
+     * Repository stand-in answering by method name. The repositories are only
+     * called a few times per operation, so the proxy keeps them out of the
+     * measurement without pulling Mockito's invocation recording into the
+     * allocation profile.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+                });
+    }
+}
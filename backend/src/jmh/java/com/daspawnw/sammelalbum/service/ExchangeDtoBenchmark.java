@@ -0,0 +1,123 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.dto.ExchangeRequestDto;
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.model.User;
+import com.daspawnw.sammelalbum.repository.ExchangeRequestRepository;
+import com.daspawnw.sammelalbum.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExchangeService.fetchStickerNames and mapToDto for the received offers of
+ * one user, separately and through getReceivedOffers. The request and user
+ * repositories return the precomputed fixture.
+ * <p>
+ * Requesters are drawn from the whole user population; about a third of the
+ * requests are past the interest step and carry the partner's contact data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExchangeDtoBenchmark {
+
+    private static final ExchangeStatus[] STATUSES = ExchangeStatus.values();
+    private static final ExchangeType[] TYPES = ExchangeType.values();
+
+    @Param({ "10000", "100000" })
+    private int users;
+
+    @Param({ "50", "500" })
+    private int requests;
+
+    private ExchangeService exchangeService;
+    private List<ExchangeRequest> received;
+    private Map<Long, User> partners;
+    private Map<Long, String> stickerNames;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        received = new ArrayList<>(requests);
+        partners = new HashMap<>();
+        for (int i = 0; i < requests; i++) {
+            long requesterId = BenchmarkFixtures.randomPartner(random, users);
+            ExchangeType type = TYPES[random.nextInt(TYPES.length)];
+            ExchangeStatus status = STATUSES[random.nextInt(STATUSES.length)];
+            received.add(ExchangeRequest.builder()
+                    .id((long) i + 1)
+                    .requesterId(requesterId)
+                    .offererId(BenchmarkFixtures.USER_ID)
+                    .requestedStickerId(1L + random.nextInt(BenchmarkFixtures.STICKERS))
+                    .offeredStickerId(type == ExchangeType.EXCHANGE
+                            ? 1L + random.nextInt(BenchmarkFixtures.STICKERS)
+                            : null)
+                    .exchangeType(type)
+                    .status(status)
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now.minusMinutes(i))
+                    .build());
+            if (status == ExchangeStatus.EXCHANGE_INTERREST || status == ExchangeStatus.EXCHANGE_COMPLETED) {
+                partners.put(requesterId, User.builder()
+                        .id(requesterId)
+                        .firstname("First " + requesterId)
+                        .lastname("Last " + requesterId)
+                        .mail("user" + requesterId + "@example.com")
+                        .contact("+49 170 " + requesterId)
+                        .build());
+            }
+        }
+
+        List<User> partnerList = List.copyOf(partners.values());
+        ExchangeRequestRepository exchangeRequestRepository = BenchmarkFixtures.stub(
+                ExchangeRequestRepository.class, Map.of("findByOffererId", args -> received));
+        UserRepository userRepository = BenchmarkFixtures.stub(UserRepository.class,
+                Map.of("findAllById", args -> partnerList));
+        exchangeService = new ExchangeService(exchangeRequestRepository, null, null,
+                BenchmarkFixtures.stickerCatalog(), null, userRepository, null, new SimpleMeterRegistry());
+        stickerNames = exchangeService.fetchStickerNames(received);
+    }
+
+    @Benchmark
+    public Map<Long, String> fetchStickerNames() {
+        return exchangeService.fetchStickerNames(received);
+    }
+
+    @Benchmark
+    public List<ExchangeRequestDto> mapToDto() {
+        List<ExchangeRequestDto> dtos = new ArrayList<>(received.size());
+        for (ExchangeRequest request : received) {
+            dtos.add(exchangeService.mapToDto(request, partners.get(request.getRequesterId()), stickerNames));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<ExchangeRequestDto> getReceivedOffers() {
+        return exchangeService.getReceivedOffers(BenchmarkFixtures.USER_ID);
+    }
+}
@@ -0,0 +1,216 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.dto.MatchDtos.MatchResponse;
+import com.daspawnw.sammelalbum.dto.MatchDtos.MatchStickerDto;
+import com.daspawnw.sammelalbum.model.CardOffer;
+import com.daspawnw.sammelalbum.model.CardSearch;
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.CardSearchRepository;
+import com.daspawnw.sammelalbum.repository.MatchProjection;
+import com.daspawnw.sammelalbum.service.match.MatchExclusions;
+import com.daspawnw.sammelalbum.service.match.MatchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * MatchService.populateMatchDetails for one page of match partners, and the
+ * groupingBy into MatchStickerDto on its own. The repositories return the
+ * precomputed cards of the current page; the benchmarks cycle through
+ * {@link #PAGES} pages so they do not keep hitting the same objects.
+ * <p>
+ * Every user offers 40 and searches 80 random stickers; the current user
+ * misses 300 and has 60 duplicates. Cards are only generated for the
+ * partners on the pages, the user count sets the ID range they are drawn
+ * from.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchDetailsBenchmark {
+
+    private static final int PAGES = 64;
+    private static final int OFFERS_PER_USER = 40;
+    private static final int SEARCHES_PER_USER = 80;
+    private static final int ACTIVE_REQUESTS = 100;
+
+    @Param({ "10000", "100000" })
+    private int users;
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private MatchService matchService;
+    private MatchExclusions exclusions;
+    private Map<Long, String> stickerNames;
+    private MatchPage[] pages;
+    private MatchPage current;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        BitSet missing = BenchmarkFixtures.randomStickers(random, 300);
+        BitSet duplicates = BenchmarkFixtures.randomStickers(random, 60);
+
+        pages = new MatchPage[PAGES];
+        for (int i = 0; i < PAGES; i++) {
+            pages[i] = page(random, missing, duplicates);
+        }
+        current = pages[0];
+        exclusions = activeRequests(random);
+
+        StickerCatalog stickerCatalog = BenchmarkFixtures.stickerCatalog();
+        stickerNames = stickerCatalog.getNames(LongStream.rangeClosed(1, BenchmarkFixtures.STICKERS)
+                .boxed().toList());
+
+        // The stubs answer for whatever page the benchmark method selected
+        CardOfferRepository cardOfferRepository = BenchmarkFixtures.stub(CardOfferRepository.class,
+                Map.of("findMatchingOffers",
+                        args -> (Boolean) args[2] ? current.freebieOffers : current.exchangeOffers));
+        CardSearchRepository cardSearchRepository = BenchmarkFixtures.stub(CardSearchRepository.class,
+                Map.of("findMatchingSearches", args -> current.searches));
+        matchService = new MatchService(cardOfferRepository, cardSearchRepository, null, new MatchIndex(),
+                stickerCatalog, null, new AppProperties(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Page<MatchResponse> freebieDetails() {
+        current = pages[next++ & (PAGES - 1)];
+        return matchService.populateMatchDetails(BenchmarkFixtures.USER_ID, current.matches, exclusions,
+                true, false, false);
+    }
+
+    @Benchmark
+    public Page<MatchResponse> exchangeDetails() {
+        current = pages[next++ & (PAGES - 1)];
+        return matchService.populateMatchDetails(BenchmarkFixtures.USER_ID, current.matches, exclusions,
+                false, false, true);
+    }
+
+    @Benchmark
+    public Map<Long, List<MatchStickerDto>> groupOffersByUser() {
+        current = pages[next++ & (PAGES - 1)];
+        return MatchService.groupStickersByUser(current.exchangeOffers, CardOffer::getUserId,
+                CardOffer::getStickerId, stickerNames);
+    }
+
+    /**
+     * What the repositories return for one page: the partners' offers of
+     * stickers the current user misses and their searches for the current
+     * user's duplicates.
+     */
+    private MatchPage page(Random random, BitSet missing, BitSet duplicates) {
+        List<MatchProjection> matches = new ArrayList<>(pageSize);
+        List<CardOffer> freebieOffers = new ArrayList<>();
+        List<CardOffer> exchangeOffers = new ArrayList<>();
+        List<CardSearch> searches = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            long partnerId = BenchmarkFixtures.randomPartner(random, users);
+            Random cards = new Random(partnerId);
+            int matchCount = 0;
+            BitSet offered = BenchmarkFixtures.randomStickers(cards, OFFERS_PER_USER);
+            for (int sticker = offered.nextSetBit(0); sticker >= 0; sticker = offered.nextSetBit(sticker + 1)) {
+                if (!missing.get(sticker)) {
+                    continue;
+                }
+                CardOffer offer = CardOffer.builder()
+                        .id(partnerId * 1000 + sticker)
+                        .userId(partnerId)
+                        .stickerId((long) sticker)
+                        .offerFreebie(cards.nextInt(3) == 0)
+                        .offerPayed(cards.nextInt(2) == 0)
+                        .offerExchange(cards.nextInt(10) < 7)
+                        .build();
+                if (offer.getOfferFreebie()) {
+                    freebieOffers.add(offer);
+                    matchCount++;
+                }
+                if (offer.getOfferExchange()) {
+                    exchangeOffers.add(offer);
+                }
+            }
+            BitSet searched = BenchmarkFixtures.randomStickers(cards, SEARCHES_PER_USER);
+            for (int sticker = searched.nextSetBit(0); sticker >= 0; sticker = searched.nextSetBit(sticker + 1)) {
+                if (duplicates.get(sticker)) {
+                    searches.add(CardSearch.builder()
+                            .id(partnerId * 1000 + sticker)
+                            .userId(partnerId)
+                            .stickerId((long) sticker)
+                            .build());
+                }
+            }
+            matches.add(new Match(partnerId, (long) Math.max(matchCount, 1)));
+        }
+        return new MatchPage(new PageImpl<>(matches, PageRequest.of(0, pageSize), users - 1),
+                freebieOffers, exchangeOffers, searches);
+    }
+
+    /**
+     * Active requests of the current user, aimed at partners that show up on
+     * the pages so the exclusion filter actually removes stickers.
+     */
+    private MatchExclusions activeRequests(Random random) {
+        List<ExchangeRequest> requests = new ArrayList<>(ACTIVE_REQUESTS);
+        for (int i = 0; i < ACTIVE_REQUESTS; i++) {
+            List<CardOffer> offers = pages[random.nextInt(PAGES)].exchangeOffers;
+            if (offers.isEmpty()) {
+                continue;
+            }
+            CardOffer offer = offers.get(random.nextInt(offers.size()));
+            requests.add(ExchangeRequest.builder()
+                    .requesterId(BenchmarkFixtures.USER_ID)
+                    .offererId(offer.getUserId())
+                    .requestedStickerId(offer.getStickerId())
+                    .offeredStickerId(1L + random.nextInt(BenchmarkFixtures.STICKERS))
+                    .exchangeType(ExchangeType.EXCHANGE)
+                    .status(ExchangeStatus.INITIAL)
+                    .build());
+        }
+        return MatchExclusions.of(requests);
+    }
+
+    private record Match(Long userId, Long matchCount) implements MatchProjection {
+
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public Long getMatchCount() {
+            return matchCount;
+        }
+    }
+
+    private record MatchPage(Page<MatchProjection> matches, List<CardOffer> freebieOffers,
+            List<CardOffer> exchangeOffers, List<CardSearch> searches) {
+    }
+}
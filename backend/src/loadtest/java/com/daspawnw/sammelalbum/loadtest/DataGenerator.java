@@ -0,0 +1,308 @@
+package com.daspawnw.sammelalbum.loadtest;
+
+import com.daspawnw.sammelalbum.model.CancellationReason;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.repository.UserPairMatchRepository;
+import org.flywaydb.core.Flyway;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills an empty database (or one reset with {@code --reset}) with a large
+ * synthetic album community. Users are called loaduser-&lt;id&gt; with the
+ * password {@value #PASSWORD}, ids are 1..users.
+ * <p>
+ * Every user opens a Zipf-distributed number of packs (most open a few, some
+ * open hundreds) and pulls stickers with Zipf-distributed popularity, so rare
+ * stickers are scarce in offers and common in searches. Duplicates become
+ * card offers (one row per copy), missing stickers become searches. Each user
+ * also gets a Zipf-distributed exchange history: mostly completed and
+ * canceled requests plus a few active ones.
+ * <p>
+ * Rows are written with COPY on PostgreSQL and batched inserts on H2; the
+ * stock tables are derived afterwards like in V17.
+ */
+public class DataGenerator {
+
+    static final String PASSWORD = "loadtest";
+
+    private static final int STICKERS_PER_PACK = 5;
+
+    private final CliOptions options;
+    private final int users;
+    private final Random seeds;
+    private final ZipfSampler packs;
+    private final ZipfSampler requestCounts;
+    private final int maxSearches;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    private long[] stickerIds;
+    private long offerId;
+    private long searchId;
+    private long requestId;
+
+    private DataGenerator(CliOptions options) {
+        this.options = options;
+        this.users = options.getInt("users", 10_000);
+        this.seeds = new Random(options.getLong("seed", 42));
+        this.packs = new ZipfSampler(options.getInt("max-packs", 300), options.getDouble("pack-skew", 1.0));
+        this.requestCounts = new ZipfSampler(options.getInt("max-requests", 50) + 1,
+                options.getDouble("request-skew", 1.2));
+        this.maxSearches = options.getInt("max-searches", 150);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new DataGenerator(CliOptions.parse(args)).run();
+    }
+
+    private void run() throws SQLException {
+        boolean embedded = options.has("embedded");
+        String url = embedded ? EmbeddedServer.H2_URL
+                : options.get("jdbc-url", "jdbc:postgresql://localhost:5432/sammelalbum");
+        String user = embedded ? EmbeddedServer.H2_USER : options.get("db-user", "user");
+        String password = embedded ? "" : options.get("db-password", "password");
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, user, password)
+                .locations("classpath:db/migration")
+                .cleanDisabled(!options.has("reset"))
+                .load();
+        if (options.has("reset")) {
+            flyway.clean();
+        }
+        flyway.migrate();
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            if (count(connection, "users") > 0) {
+                throw new IllegalStateException("The database already contains users, run with --reset");
+            }
+            stickerIds = loadStickerIds(connection);
+            ZipfSampler popularity = new ZipfSampler(stickerIds.length, options.getDouble("sticker-skew", 0.6));
+
+            long started = System.nanoTime();
+            writeUsers(connection);
+            writeCardsAndRequests(connection, popularity);
+            connection.commit();
+            log("Wrote data", started);
+
+            started = System.nanoTime();
+            deriveTables(connection);
+            restartIds(connection);
+            connection.commit();
+            log("Derived stock tables and restarted id sequences", started);
+
+            if (connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ANALYZE");
+                }
+            }
+        }
+    }
+
+    private void writeUsers(Connection connection) throws SQLException {
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        try (TableWriter userRows = TableWriter.open(connection, "users",
+                "id", "firstname", "lastname", "mail", "contact");
+                TableWriter credentialRows = TableWriter.open(connection, "credentials",
+                        "id", "username", "password_hash", "user_id")) {
+            for (long id = 1; id <= users; id++) {
+                userRows.row(id, "Load", "User " + id, "loaduser-" + id + "@example.com", "loaduser-" + id);
+            }
+            // All users have to exist before the credentials reference them
+            userRows.flush();
+            for (long id = 1; id <= users; id++) {
+                credentialRows.row(id, "loaduser-" + id, passwordHash, id);
+            }
+        }
+    }
+
+    private void writeCardsAndRequests(Connection connection, ZipfSampler popularity) throws SQLException {
+        // Sticker ids in popularity order: rank 1 is the most common sticker
+        List<Long> byPopularity = new ArrayList<>();
+        for (long stickerId : stickerIds) {
+            byPopularity.add(stickerId);
+        }
+        Collections.shuffle(byPopularity, seeds);
+
+        try (TableWriter offers = TableWriter.open(connection, "card_offers",
+                "id", "user_id", "sticker_id", "offer_payed", "offer_freebie", "offer_exchange", "is_reserved");
+                TableWriter searches = TableWriter.open(connection, "card_searches",
+                        "id", "user_id", "sticker_id", "is_reserved");
+                TableWriter requests = TableWriter.open(connection, "exchange_requests",
+                        "id", "requester_id", "offerer_id", "requested_sticker_id", "offered_sticker_id",
+                        "exchange_type", "status", "requester_closed", "offerer_closed", "cancellation_reason",
+                        "created_at", "updated_at")) {
+            for (long userId = 1; userId <= users; userId++) {
+                Random random = new Random(seeds.nextLong());
+                int[] copies = new int[stickerIds.length];
+                int draws = packs.sample(random) * STICKERS_PER_PACK;
+                for (int i = 0; i < draws; i++) {
+                    copies[stickerIndex(byPopularity.get(popularity.sample(random) - 1))]++;
+                }
+
+                List<Long> missing = new ArrayList<>();
+                List<Long> duplicates = new ArrayList<>();
+                for (int i = 0; i < copies.length; i++) {
+                    if (copies[i] == 0) {
+                        missing.add(stickerIds[i]);
+                    }
+                    for (int copy = 1; copy < copies[i]; copy++) {
+                        duplicates.add(stickerIds[i]);
+                        boolean exchange = random.nextDouble() < 0.8;
+                        boolean payed = random.nextDouble() < 0.3;
+                        boolean freebie = random.nextDouble() < 0.15;
+                        offers.row(++offerId, userId, stickerIds[i], payed, freebie,
+                                exchange || !(payed || freebie), false);
+                    }
+                }
+
+                // Not everybody lists every missing sticker
+                Collections.shuffle(missing, random);
+                for (Long stickerId : missing.subList(0, Math.min(maxSearches, missing.size()))) {
+                    searches.row(++searchId, userId, stickerId, false);
+                }
+
+                int history = requestCounts.sample(random) - 1;
+                for (int i = 0; i < history; i++) {
+                    writeRequest(requests, random, userId, missing, duplicates);
+                }
+            }
+            log("card_offers: " + offers.rows() + ", card_searches: " + searches.rows()
+                    + ", exchange_requests: " + requests.rows());
+        }
+    }
+
+    private void writeRequest(TableWriter requests, Random random, long requesterId, List<Long> missing,
+            List<Long> duplicates) throws SQLException {
+        long offererId = 1 + random.nextInt(users);
+        if (offererId == requesterId) {
+            offererId = offererId % users + 1;
+        }
+        double typeRoll = random.nextDouble();
+        ExchangeType type = typeRoll < 0.6 ? ExchangeType.EXCHANGE
+                : typeRoll < 0.8 ? ExchangeType.PAYED : ExchangeType.FREEBIE;
+        Long requested = pick(random, missing);
+        Long offered = type == ExchangeType.EXCHANGE ? pick(random, duplicates) : null;
+
+        double statusRoll = random.nextDouble();
+        ExchangeStatus status;
+        CancellationReason reason = null;
+        if (statusRoll < 0.6) {
+            status = ExchangeStatus.EXCHANGE_COMPLETED;
+        } else if (statusRoll < 0.9) {
+            status = ExchangeStatus.EXCHANGE_CANCELED;
+            reason = random.nextBoolean() ? CancellationReason.REQUESTER_CANCELED
+                    : CancellationReason.OFFERER_CANCELED;
+        } else {
+            // Active, but already notified so the scheduler does not mail thousands of offerers
+            status = ExchangeStatus.MAIL_SEND;
+        }
+        boolean closed = status == ExchangeStatus.EXCHANGE_COMPLETED;
+        LocalDateTime createdAt = now.minusMinutes(random.nextInt(120 * 24 * 60));
+        LocalDateTime updatedAt = createdAt.plusMinutes(random.nextInt(3 * 24 * 60));
+
+        requests.row(++requestId, requesterId, offererId, requested, offered, type.name(), status.name(),
+                closed, closed, reason != null ? reason.name() : null, createdAt, updatedAt);
+    }
+
+    private Long pick(Random random, List<Long> stickers) {
+        return stickers.isEmpty()
+                ? stickerIds[random.nextInt(stickerIds.length)]
+                : stickers.get(random.nextInt(stickers.size()));
+    }
+
+    private int stickerIndex(long stickerId) {
+        return Arrays.binarySearch(stickerIds, stickerId);
+    }
+
+    /**
+     * The stock tables as V17 derives them; user_pair_matches only on request,
+     * it grows with the square of the user count.
+     */
+    private void deriveTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO card_offer_stock (user_id, sticker_id, quantity, reserved_quantity,
+                                                  freebie_available, payed_available, exchange_available)
+                    SELECT user_id, sticker_id,
+                           COUNT(*),
+                           SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END),
+                           SUM(CASE WHEN is_reserved = FALSE AND offer_freebie = TRUE THEN 1 ELSE 0 END),
+                           SUM(CASE WHEN is_reserved = FALSE AND offer_payed = TRUE THEN 1 ELSE 0 END),
+                           SUM(CASE WHEN is_reserved = FALSE AND offer_exchange = TRUE THEN 1 ELSE 0 END)
+                    FROM card_offers
+                    GROUP BY user_id, sticker_id
+                    """);
+            statement.execute("""
+                    INSERT INTO card_search_stock (user_id, sticker_id, quantity, reserved_quantity)
+                    SELECT user_id, sticker_id,
+                           COUNT(*),
+                           SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END)
+                    FROM card_searches
+                    GROUP BY user_id, sticker_id
+                    """);
+            if (options.has("pair-table")) {
+                statement.execute(UserPairMatchRepository.INSERT_PAIRS + UserPairMatchRepository.ALL_PAIRS);
+            }
+        }
+    }
+
+    /**
+     * Moves the id generators past the explicitly written ids. The pooled
+     * sequences need a full allocation of headroom (see V16).
+     */
+    private void restartIds(Connection connection) throws SQLException {
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        try (Statement statement = connection.createStatement()) {
+            for (String table : List.of("users", "credentials")) {
+                statement.execute(postgres
+                        ? "ALTER SEQUENCE " + table + "_id_seq RESTART WITH " + (users + 1)
+                        : "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (users + 1));
+            }
+            statement.execute("ALTER SEQUENCE card_offers_seq RESTART WITH " + (offerId + 50));
+            statement.execute("ALTER SEQUENCE card_searches_seq RESTART WITH " + (searchId + 50));
+            statement.execute("ALTER SEQUENCE exchange_requests_seq RESTART WITH " + (requestId + 50));
+        }
+    }
+
+    private static long[] loadStickerIds(Connection connection) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT id FROM stickers ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void log(String message, long startedNanos) {
+        log(message + " in " + (System.nanoTime() - startedNanos) / 1_000_000 + " ms");
+    }
+
+    private static void log(String message) {
+        System.out.println(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.daspawnw.sammelalbum.loadtest;
+
+import com.daspawnw.sammelalbum.SammelalbumApplication;
+import org.springframework.boot.SpringApplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the application with the production configuration on a file-based H2
+ * database instead of PostgreSQL, for load tests without a database server.
+ * AUTO_SERVER lets the data generator and the application open the file at
+ * the same time. Further arguments are passed on to Spring Boot.
+ */
+public class EmbeddedServer {
+
+    static final String H2_URL = "jdbc:h2:file:./target/loadtest/sammelalbum;AUTO_SERVER=TRUE";
+    static final String H2_USER = "sa";
+
+    public static void main(String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                // The test classpath shadows the main application.yaml with the test one
+                "--spring.config.location=file:src/main/resources/application.yaml",
+                "--spring.datasource.url=" + H2_URL,
+                "--spring.datasource.username=" + H2_USER,
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.database=h2",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                // No local mail server needed for the health endpoint
+                "--management.health.mail.enabled=false"));
+        arguments.addAll(Arrays.asList(args));
+        SpringApplication.run(SammelalbumApplication.class, arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,184 @@
+package com.daspawnw.sammelalbum.loadtest;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.security.CustomUserDetails;
+import com.daspawnw.sammelalbum.service.JwtService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * Replays a weighted mix of match, exchange list and bulk offer requests
+ * against a running backend as the users written by {@link DataGenerator}.
+ * Each of the {@code --concurrency} workers sends its next request as soon
+ * as the previous one is answered. Requests during the warmup are not
+ * recorded; at the end p50/p90/p99 per endpoint are printed.
+ * <p>
+ * Tokens are signed locally with the configured JWT secret, so no login
+ * (and no BCrypt) is part of the measurement. Bulk offers add cards, so the
+ * data slowly grows over repeated runs.
+ */
+public class LoadDriver {
+
+    // Default secret of application.yaml
+    private static final String DEFAULT_SECRET = "K7gNU3kef8297wnsJvbdw/Ba49bmGW76NFh70fE0ZeM=";
+
+    private final CliOptions options;
+    private final String baseUrl;
+    private final int users;
+    private final int stickers;
+    private final ZipfSampler activeUsers;
+    private final JwtService jwtService;
+    private final Map<Long, String> tokens = new ConcurrentHashMap<>();
+    private final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final List<Operation> mix = new ArrayList<>();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private LoadDriver(CliOptions options) {
+        this.options = options;
+        this.baseUrl = options.get("base-url", "http://localhost:8080");
+        this.users = options.getInt("users", 10_000);
+        this.stickers = options.getInt("stickers", 636);
+        this.activeUsers = new ZipfSampler(users, options.getDouble("user-skew", 0.8));
+
+        AppProperties.JwtProperties jwt = new AppProperties.JwtProperties();
+        jwt.setSecret(options.get("jwt-secret", DEFAULT_SECRET));
+        jwt.setExpiration(24 * 60 * 60 * 1000L);
+        AppProperties appProperties = new AppProperties();
+        appProperties.setJwt(jwt);
+        // Only issues tokens, so it needs no users table
+        this.jwtService = new JwtService(appProperties, null);
+
+        for (String entry : options.get("mix", "matches=60,exchanges=30,bulk=10").split(",")) {
+            String[] parts = entry.split("=");
+            BiFunction<Long, Random, Request> request = switch (parts[0]) {
+                case "matches" -> this::matches;
+                case "exchanges" -> this::exchanges;
+                case "bulk" -> this::bulkOffer;
+                default -> throw new IllegalArgumentException("Unknown mix entry: " + parts[0]);
+            };
+            mix.add(new Operation(request, Integer.parseInt(parts[1])));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadDriver(CliOptions.parse(args)).run();
+    }
+
+    private void run() throws InterruptedException {
+        int concurrency = options.getInt("concurrency", 16);
+        long warmupNanos = options.getLong("warmup", 10) * 1_000_000_000L;
+        long durationNanos = options.getLong("duration", 60) * 1_000_000_000L;
+        long recordFrom = System.nanoTime() + warmupNanos;
+        long end = recordFrom + durationNanos;
+
+        System.out.printf("%d workers against %s, %d s warmup, %d s measurement%n", concurrency, baseUrl,
+                warmupNanos / 1_000_000_000L, durationNanos / 1_000_000_000L);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> work(recordFrom, end));
+            }
+        }
+        report(durationNanos);
+    }
+
+    private void work(long recordFrom, long end) {
+        Random random = ThreadLocalRandom.current();
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+        while (System.nanoTime() < end) {
+            int roll = random.nextInt(totalWeight);
+            Operation operation = mix.get(0);
+            for (Operation candidate : mix) {
+                operation = candidate;
+                roll -= candidate.weight();
+                if (roll < 0) {
+                    break;
+                }
+            }
+            long userId = activeUsers.sample(random);
+            Request request = operation.request().apply(userId, random);
+
+            long started = System.nanoTime();
+            boolean error;
+            try {
+                HttpResponse<Void> response = client.send(request.http(), HttpResponse.BodyHandlers.discarding());
+                error = response.statusCode() >= 400;
+            } catch (Exception e) {
+                error = true;
+            }
+            if (started >= recordFrom) {
+                recorders.computeIfAbsent(request.endpoint(), endpoint -> new LatencyRecorder())
+                        .record(System.nanoTime() - started, error);
+            }
+        }
+    }
+
+    private Request matches(long userId, Random random) {
+        String type = List.of("freebie", "payed", "exchange").get(random.nextInt(3));
+        return get(userId, "/api/matches/" + type, "?page=0&size=20");
+    }
+
+    private Request exchanges(long userId, Random random) {
+        return get(userId, random.nextBoolean() ? "/api/exchanges/sent" : "/api/exchanges/received", "");
+    }
+
+    private Request bulkOffer(long userId, Random random) {
+        List<String> stickerIds = new ArrayList<>();
+        for (int i = 1 + random.nextInt(5); i > 0; i--) {
+            stickerIds.add(String.valueOf(1 + random.nextInt(stickers)));
+        }
+        String body = "{\"stickerIds\":[" + String.join(",", stickerIds) + "],"
+                + "\"offerPayed\":false,\"offerFreebie\":false,\"offerExchange\":true}";
+        return new Request("POST /api/card-offers/bulk", authorized(userId, "/api/card-offers/bulk")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private Request get(long userId, String path, String query) {
+        return new Request("GET " + path, authorized(userId, path + query).GET().build());
+    }
+
+    private HttpRequest.Builder authorized(long userId, String pathAndQuery) {
+        String token = tokens.computeIfAbsent(userId, id -> jwtService.generateToken(
+                new CustomUserDetails("loaduser-" + id, "", List.of(), id), id));
+        return HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private void report(long durationNanos) {
+        double seconds = durationNanos / 1_000_000_000.0;
+        System.out.printf("%n%-34s %8s %7s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        new TreeMap<>(recorders).forEach((endpoint, recorder) -> {
+            LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+            System.out.printf("%-34s %8d %7d %8.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, snapshot.count(), snapshot.errors(), snapshot.count() / seconds,
+                    snapshot.percentileMillis(50), snapshot.percentileMillis(90),
+                    snapshot.percentileMillis(99), snapshot.percentileMillis(100));
+        });
+    }
+
+    private record Operation(BiFunction<Long, Random, Request> request, int weight) {
+    }
+
+    private record Request(String endpoint, HttpRequest http) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.daspawnw.sammelalbum.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Buffers rows of one table and writes them in chunks: with COPY on
+ * PostgreSQL, with batched inserts everywhere else. Each chunk is a complete
+ * statement, so writers of several tables can be used side by side on the
+ * same connection.
+ */
+abstract class TableWriter implements AutoCloseable {
+
+    private static final int CHUNK_ROWS = 10_000;
+
+    protected final Connection connection;
+    protected final String table;
+    protected final List<String> columns;
+    private long rows;
+    private int buffered;
+
+    private TableWriter(Connection connection, String table, List<String> columns) {
+        this.connection = connection;
+        this.table = table;
+        this.columns = columns;
+    }
+
+    static TableWriter open(Connection connection, String table, String... columns) throws SQLException {
+        List<String> columnList = List.of(columns);
+        if (connection.isWrapperFor(PGConnection.class)) {
+            return new CopyWriter(connection, table, columnList);
+        }
+        return new BatchWriter(connection, table, columnList);
+    }
+
+    /**
+     * Adds one row; values are given in column order, {@code null} for SQL NULL.
+     */
+    void row(Object... values) throws SQLException {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException(table + " expects " + columns.size() + " values");
+        }
+        buffer(values);
+        rows++;
+        if (++buffered >= CHUNK_ROWS) {
+            flush();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    void flush() throws SQLException {
+        if (buffered > 0) {
+            write();
+            buffered = 0;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+    }
+
+    protected abstract void buffer(Object[] values);
+
+    protected abstract void write() throws SQLException;
+
+    private static final class CopyWriter extends TableWriter {
+
+        private final StringBuilder data = new StringBuilder();
+
+        private CopyWriter(Connection connection, String table, List<String> columns) {
+            super(connection, table, columns);
+        }
+
+        @Override
+        protected void buffer(Object[] values) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    data.append('\t');
+                }
+                if (values[i] == null) {
+                    data.append("\\N");
+                } else {
+                    // COPY text format: only the separators and the escape character need escaping
+                    String value = values[i].toString();
+                    for (int c = 0; c < value.length(); c++) {
+                        char ch = value.charAt(c);
+                        switch (ch) {
+                            case '\\' -> data.append("\\\\");
+                            case '\t' -> data.append("\\t");
+                            case '\n' -> data.append("\\n");
+                            case '\r' -> data.append("\\r");
+                            default -> data.append(ch);
+                        }
+                    }
+                }
+            }
+            data.append('\n');
+        }
+
+        @Override
+        protected void write() throws SQLException {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN",
+                        new StringReader(data.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into " + table + " failed", e);
+            }
+            data.setLength(0);
+        }
+    }
+
+    private static final class BatchWriter extends TableWriter {
+
+        private final List<Object[]> batch = new ArrayList<>();
+
+        private BatchWriter(Connection connection, String table, List<String> columns) {
+            super(connection, table, columns);
+        }
+
+        @Override
+        protected void buffer(Object[] values) {
+            batch.add(values);
+        }
+
+        @Override
+        protected void write() throws SQLException {
+            String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Object[] values : batch) {
+                    for (int i = 0; i < values.length; i++) {
+                        statement.setObject(i + 1, values[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            batch.clear();
+        }
+    }
+}
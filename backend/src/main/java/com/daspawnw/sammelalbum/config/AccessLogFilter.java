@@ -10,7 +10,9 @@ import java.io.IOException;
 
 /**
  * HTTP Access Log Filter - Logs requests in nginx-style format:
- * METHOD /path?query HTTP/1.1 STATUS
+ * METHOD /path?query HTTP/1.1 STATUS DURATION
+ * With SQL statistics enabled, the statements, fetched rows and database
+ * time of the request are appended.
  */
 @Slf4j
 @Component
@@ -30,12 +32,25 @@ public class AccessLogFilter implements Filter {
                 String queryString = httpRequest.getQueryString();
                 String uri = httpRequest.getRequestURI() + (queryString != null ? "?" + queryString : "");
 
-                log.info("{} {} {} {} {}ms",
-                        httpRequest.getMethod(),
-                        uri,
-                        httpRequest.getProtocol(),
-                        httpResponse.getStatus(),
-                        duration);
+                SqlStatistics statistics = SqlStatistics.current();
+                if (statistics == null) {
+                    log.info("{} {} {} {} {}ms",
+                            httpRequest.getMethod(),
+                            uri,
+                            httpRequest.getProtocol(),
+                            httpResponse.getStatus(),
+                            duration);
+                } else {
+                    log.info("{} {} {} {} {}ms sql={} rows={} db={}ms",
+                            httpRequest.getMethod(),
+                            uri,
+                            httpRequest.getProtocol(),
+                            httpResponse.getStatus(),
+                            duration,
+                            statistics.getStatements(),
+                            statistics.getRows(),
+                            statistics.getElapsedMillis());
+                }
             }
         } else {
             chain.doFilter(request, response);
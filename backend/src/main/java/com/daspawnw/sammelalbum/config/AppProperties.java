@@ -12,8 +12,14 @@ import java.util.List;
 public class AppProperties {
     private List<String> validationCodes;
     private JwtProperties jwt;
-    private MailProperties mail;
+    private MailProperties mail = new MailProperties();
     private String baseUrl;
+    private MatchingProperties matching = new MatchingProperties();
+    private StickerCatalogProperties stickerCatalog = new StickerCatalogProperties();
+    private SqlStatisticsProperties sqlStatistics = new SqlStatisticsProperties();
+    private PasswordHashingProperties passwordHashing = new PasswordHashingProperties();
+    private ExchangeProperties exchange = new ExchangeProperties();
+    private ExchangeNotificationProperties exchangeNotification = new ExchangeNotificationProperties();
 
     @Data
     public static class JwtProperties {
@@ -21,10 +27,122 @@ public class AppProperties {
         private Long expiration;
         private String passwordResetSecret;
         private Long passwordResetExpiration;
+        // Verified tokens kept in memory until they expire (0 = verify every request)
+        private int principalCacheSize = 10000;
+        // Longest time a cached token skips the check that its user still exists
+        private long principalCacheTtlSeconds = 300;
     }
 
     @Data
     public static class MailProperties {
         private String sender;
+        // Emails claimed per batch, sent concurrently by the dispatch workers
+        private int batchSize = 50;
+        private int dispatchWorkers = 4;
+        // Claimed emails are hidden from other instances this long; after a crash they are sent again
+        private long leaseSeconds = 300;
+        // Exchange notifications wait this long for further ones to the same recipient,
+        // which are appended to the same email (0 = one email per notification)
+        private long digestWindowSeconds = 0;
+        private RetentionProperties retention = new RetentionProperties();
+    }
+
+    @Data
+    public static class RetentionProperties {
+        // SENT emails are removed from the outbox this long after sending, FAILED ones after creation
+        private int sentDays = 30;
+        private int failedDays = 90;
+        // Copy removed rows to email_outbox_archive first; when disabled they are deleted
+        private boolean archive = true;
+        // Rows moved per transaction
+        private int batchSize = 500;
+        private String cron = "0 15 3 * * *";
+    }
+
+    @Data
+    public static class MatchingProperties {
+        private IndexProperties index = new IndexProperties();
+        private RingProperties ring = new RingProperties();
+        private PairTableProperties pairTable = new PairTableProperties();
+    }
+
+    @Data
+    public static class IndexProperties {
+        // When disabled, matches are always computed by the native SQL queries
+        private boolean enabled = false;
+        private String rebuildCron = "0 0 4 * * *";
+        // Card changes of all instances are read from match_index_changes this often
+        private long pollIntervalMs = 1000;
+        // Ids skipped by a poll are re-read this long in case their transaction commits late
+        private long pollOverlapSeconds = 60;
+        // Change log rows older than this are removed (ShedLock guarded)
+        private int changeRetentionHours = 24;
+        private String changeCleanupCron = "0 10 * * * *";
+    }
+
+    @Data
+    public static class RingProperties {
+        // Longest cycle (number of users) that is searched
+        private int maxHops = 4;
+        // Neighbours followed per user, best sticker overlap first
+        private int maxFanOut = 20;
+        private long timeBudgetMs = 50;
+    }
+
+    @Data
+    public static class PairTableProperties {
+        // When enabled, user_pair_matches is maintained on every card and request
+        // change and replaces the native SQL queries (the in-memory index still wins)
+        private boolean enabled = false;
+        private String checkCron = "0 30 4 * * *";
+    }
+
+    @Data
+    public static class StickerCatalogProperties {
+        // When disabled, sticker names and existence checks are read from the database
+        private boolean enabled = false;
+        private long reloadIntervalMs = 600000;
+    }
+
+    @Data
+    public static class SqlStatisticsProperties {
+        // Counts statements, fetched rows and database time per HTTP request
+        // (access log and metrics); the DataSource is only proxied when enabled
+        private boolean enabled = false;
+        // Statements per request before it is reported (0 = no budget)
+        private int statementBudget = 0;
+        // Reject the first statement over the budget instead of logging a warning (integration tests)
+        private boolean failOnBudgetExceeded = false;
+        // The same SQL executed this often in one request is reported as a likely N+1 query
+        private int repeatedStatementThreshold = 10;
+    }
+
+    @Data
+    public static class PasswordHashingProperties {
+        // BCrypt worker threads (0 = number of CPUs)
+        private int threads = 0;
+        // Calls waiting for a worker before further calls are answered with 503
+        private int queueCapacity = 64;
+        private int retryAfterSeconds = 5;
+    }
+
+    @Data
+    public static class ExchangeProperties {
+        // Attempts of accept / decline / close when a concurrent change of the
+        // same request or cards wins the version check
+        private int conflictAttempts = 3;
+    }
+
+    @Data
+    public static class ExchangeNotificationProperties {
+        // When disabled, offerers are only notified by the 15-minute sweep
+        private boolean enabled = true;
+        // Offerers are notified once no new request arrived for this long
+        private long quietPeriodMs = 60000;
+        // ... but no later than this after their first pending request
+        private long maxDelayMs = 300000;
+        private long flushIntervalMs = 5000;
+        // INITIAL requests the sweeper claims and commits at a time
+        private int sweepChunkSize = 200;
     }
 }
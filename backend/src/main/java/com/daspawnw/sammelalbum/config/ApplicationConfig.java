@@ -15,7 +15,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
+import com.daspawnw.sammelalbum.security.BoundedPasswordEncoder;
 import com.daspawnw.sammelalbum.security.CustomUserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.util.Collections;
 
@@ -25,6 +27,7 @@ import java.util.Collections;
 public class ApplicationConfig {
 
     private final CredentialsRepository credentialsRepository;
+    private final AppProperties appProperties;
 
     @Bean
     public UserDetailsService userDetailsService() {
@@ -38,10 +41,10 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -51,7 +54,12 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        AppProperties.PasswordHashingProperties properties = appProperties.getPasswordHashing();
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, properties.getQueueCapacity(),
+                meterRegistry);
     }
 }
@@ -1,8 +1,11 @@
 package com.daspawnw.sammelalbum.config;
 
+import com.daspawnw.sammelalbum.security.CustomUserDetails;
 import com.daspawnw.sammelalbum.service.JwtService;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +30,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -35,7 +39,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -45,27 +48,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            username = jwtService.extractUsername(jwt);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                Timer.Sample verify = Timer.start(meterRegistry);
+                CustomUserDetails principal = jwtService.verifyToken(jwt);
+                verify.stop(stepTimer("verify"));
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                UserDetails userDetails = principal;
+                if (principal.getUserId() == null) {
+                    // Tokens without the userId claim still need the user lookup
+                    Timer.Sample loadUser = Timer.start(meterRegistry);
+                    userDetails = this.userDetailsService.loadUserByUsername(principal.getUsername());
+                    loadUser.stop(stepTimer("load-user"));
                 }
+
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities());
+                authToken.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (ExpiredJwtException e) {
+            meterRegistry.counter("sammelalbum.auth.jwt.rejected", "reason", "expired").increment();
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         } catch (JwtException e) {
+            meterRegistry.counter("sammelalbum.auth.jwt.rejected", "reason", "invalid").increment();
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Time per authentication step: token verification (cached) and the user
+     * lookup for tokens without a userId claim.
+     */
+    private Timer stepTimer(String step) {
+        return Timer.builder("sammelalbum.auth.jwt")
+                .tag("step", step)
+                .register(meterRegistry);
+    }
 }
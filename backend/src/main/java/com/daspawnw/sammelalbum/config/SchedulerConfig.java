@@ -10,6 +10,8 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.sql.DataSource;
 
+// With spring.threads.virtual.enabled, Spring Boot runs every scheduled task on its own virtual thread
+// instead of the single platform scheduler thread, so a long index rebuild does not delay the mails
 @Configuration
 @EnableScheduling
 @EnableSchedulerLock(defaultLockAtMostFor = "PT30S")
@@ -0,0 +1,145 @@
+package com.daspawnw.sammelalbum.config;
+
+import lombok.Getter;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statements, fetched rows and database time of the current HTTP request.
+ * Opened by {@link SqlStatisticsFilter} and filled by the {@link Listener} of
+ * the proxied DataSource on the request thread; statements of other threads
+ * (schedulers, async listeners) are not counted.
+ * <p>
+ * With a statement limit the listener rejects the first statement over it
+ * with a {@link BudgetExceededException} before it is executed, so the
+ * request fails while its response is still uncommitted.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    // A JDBC batch is one statement
+    @Getter
+    private int statements;
+    @Getter
+    private long rows;
+    @Getter
+    private long elapsedMillis;
+    private final Map<String, Integer> executions = new HashMap<>();
+    private final String request;
+    private final int statementLimit;
+    @Getter
+    private boolean limitExceeded;
+
+    private SqlStatistics(String request, int statementLimit) {
+        this.request = request;
+        this.statementLimit = statementLimit;
+    }
+
+    /**
+     * @param request        method and URI, for the exception message
+     * @param statementLimit statements allowed before further ones are
+     *                       rejected, 0 for no limit
+     */
+    static SqlStatistics start(String request, int statementLimit) {
+        SqlStatistics statistics = new SqlStatistics(request, statementLimit);
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Statistics of the request on this thread, or null outside of a request.
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    void checkLimit() {
+        if (statementLimit > 0 && statements >= statementLimit) {
+            limitExceeded = true;
+            throw new BudgetExceededException(String.format(
+                    "%s exceeded the budget of %d statements", request, statementLimit));
+        }
+    }
+
+    void recordStatement(String sql, long elapsedMillis) {
+        statements++;
+        this.elapsedMillis += elapsedMillis;
+        executions.merge(sql, 1, Integer::sum);
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    /**
+     * The SQL executed most often in this request, or null without statements.
+     */
+    Map.Entry<String, Integer> mostRepeated() {
+        return executions.isEmpty() ? null : Collections.max(executions.entrySet(), Map.Entry.comparingByValue());
+    }
+
+    /**
+     * Thrown for the first statement of a request over the statement budget
+     * when {@code fail-on-budget-exceeded} is set.
+     */
+    public static class BudgetExceededException extends RuntimeException {
+
+        BudgetExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Listener of the proxied DataSource. Rows are counted on ResultSet.next,
+     * which needs the result sets to be proxied as well.
+     */
+    static class Listener implements QueryExecutionListener, MethodExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            SqlStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.checkLimit();
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            SqlStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+                statistics.recordStatement(sql, execInfo.getElapsedTime());
+            }
+        }
+
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            if (executionContext.getTarget() instanceof ResultSet
+                    && Boolean.TRUE.equals(executionContext.getResult())
+                    && "next".equals(executionContext.getMethod().getName())) {
+                SqlStatistics statistics = CURRENT.get();
+                if (statistics != null) {
+                    statistics.recordRow();
+                }
+            }
+        }
+    }
+}
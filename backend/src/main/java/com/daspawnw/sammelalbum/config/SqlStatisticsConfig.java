@@ -0,0 +1,37 @@
+package com.daspawnw.sammelalbum.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the DataSource in a datasource-proxy that feeds {@link SqlStatistics}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-statistics.enabled", havingValue = "true")
+public class SqlStatisticsConfig {
+
+    // Static, so the post processor does not initialize this configuration early
+    @Bean
+    static BeanPostProcessor sqlStatisticsDataSourceProxy() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    SqlStatistics.Listener listener = new SqlStatistics.Listener();
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(listener)
+                            .methodListener(listener)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.daspawnw.sammelalbum.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Collects {@link SqlStatistics} for every HTTP request and records them as
+ * metrics per endpoint. Runs before the security filters, so the user lookup
+ * of the JWT authentication is counted as well.
+ * <p>
+ * Requests that execute the same SQL at least
+ * {@code repeated-statement-threshold} times are logged as likely N+1 queries.
+ * Requests over the {@code statement-budget} are logged. With
+ * {@code fail-on-budget-exceeded} the statement over the budget is rejected
+ * before it runs (see {@link SqlStatistics}), so the request fails with a
+ * {@link SqlStatistics.BudgetExceededException} instead of after its response
+ * has already been written.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.sql-statistics.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        AppProperties.SqlStatisticsProperties properties = appProperties.getSqlStatistics();
+        SqlStatistics statistics = SqlStatistics.start(request.getMethod() + " " + request.getRequestURI(),
+                properties.isFailOnBudgetExceeded() ? properties.getStatementBudget() : 0);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.stop();
+
+            String endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                    ? pattern
+                    : "UNKNOWN";
+            record(request.getMethod(), endpoint, statistics);
+            checkRepeatedStatements(request.getMethod(), endpoint, statistics);
+            checkBudget(request.getMethod(), endpoint, statistics);
+        }
+    }
+
+    private void record(String method, String endpoint, SqlStatistics statistics) {
+        DistributionSummary.builder("sammelalbum.db.statements")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("sammelalbum.db.rows")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(meterRegistry)
+                .record(statistics.getRows());
+        Timer.builder("sammelalbum.db.time")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(statistics.getElapsedMillis()));
+    }
+
+    private void checkRepeatedStatements(String method, String endpoint, SqlStatistics statistics) {
+        Map.Entry<String, Integer> mostRepeated = statistics.mostRepeated();
+        int threshold = appProperties.getSqlStatistics().getRepeatedStatementThreshold();
+        if (mostRepeated != null && threshold > 0 && mostRepeated.getValue() >= threshold) {
+            meterRegistry.counter("sammelalbum.db.repeated", "method", method, "uri", endpoint).increment();
+            log.warn("Likely N+1 query in {} {}: {} executions of {}",
+                    method, endpoint, mostRepeated.getValue(), mostRepeated.getKey());
+        }
+    }
+
+    private void checkBudget(String method, String endpoint, SqlStatistics statistics) {
+        int budget = appProperties.getSqlStatistics().getStatementBudget();
+        if (statistics.isLimitExceeded()) {
+            meterRegistry.counter("sammelalbum.db.budget.exceeded", "method", method, "uri", endpoint).increment();
+            log.warn("{} {} was stopped after {} statements, the budget is {}",
+                    method, endpoint, statistics.getStatements(), budget);
+        } else if (budget > 0 && statistics.getStatements() > budget) {
+            meterRegistry.counter("sammelalbum.db.budget.exceeded", "method", method, "uri", endpoint).increment();
+            log.warn("{} {} executed {} statements, the budget is {}",
+                    method, endpoint, statistics.getStatements(), budget);
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class AuthController {
     @Operation(summary = "Login user", description = "Authenticates a user and returns a JWT token")
     @ApiResponse(responseCode = "200", description = "User logged in successfully")
     @ApiResponse(responseCode = "403", description = "Invalid credentials")
+    @ApiResponse(responseCode = "503", description = "Password hashing is saturated, retry after the Retry-After header")
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
         return ResponseEntity.ok(authService.login(request));
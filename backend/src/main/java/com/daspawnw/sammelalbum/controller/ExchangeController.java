@@ -56,6 +56,7 @@ public class ExchangeController {
     @ApiResponse(responseCode = "200", description = "Exchange request accepted successfully")
     @ApiResponse(responseCode = "400", description = "Invalid request or exchange already accepted/declined")
     @ApiResponse(responseCode = "403", description = "User not authorized to accept this exchange")
+    @ApiResponse(responseCode = "409", description = "Exchange kept changing concurrently, retry later")
     @PutMapping("/{id}/accept")
     public ResponseEntity<Void> acceptExchangeRequest(
             @PathVariable Long id,
@@ -74,6 +75,7 @@ public class ExchangeController {
     @ApiResponse(responseCode = "200", description = "Exchange request declined successfully")
     @ApiResponse(responseCode = "400", description = "Invalid request or exchange not in correct state")
     @ApiResponse(responseCode = "403", description = "User not authorized to decline this exchange")
+    @ApiResponse(responseCode = "409", description = "Exchange kept changing concurrently, retry later")
     @PutMapping("/{id}/decline")
     public ResponseEntity<Void> declineExchangeRequest(
             @PathVariable Long id,
@@ -92,6 +94,7 @@ public class ExchangeController {
     @ApiResponse(responseCode = "200", description = "Exchange request closed successfully")
     @ApiResponse(responseCode = "400", description = "Invalid request or exchange not in accepted state")
     @ApiResponse(responseCode = "403", description = "User not authorized to close this exchange")
+    @ApiResponse(responseCode = "409", description = "Exchange kept changing concurrently, retry later")
     @PutMapping("/{id}/close")
     public ResponseEntity<Void> closeExchangeRequest(
             @PathVariable Long id,
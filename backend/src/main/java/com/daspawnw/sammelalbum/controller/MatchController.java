@@ -1,8 +1,11 @@
 package com.daspawnw.sammelalbum.controller;
 
 import com.daspawnw.sammelalbum.dto.MatchDtos.MatchResponse;
+import com.daspawnw.sammelalbum.dto.MatchDtos.MatchSliceResponse;
+import com.daspawnw.sammelalbum.dto.MatchDtos.RingMatchResponse;
 import com.daspawnw.sammelalbum.security.CustomUserDetails;
 import com.daspawnw.sammelalbum.service.MatchService;
+import com.daspawnw.sammelalbum.service.RingTradeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,7 +14,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,6 +30,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class MatchController {
 
     private final MatchService matchService;
+    private final RingTradeService ringTradeService;
 
     @Operation(summary = "Get freebie matches", description = "Retrieves paginated list of users offering cards for free that match the authenticated user's searches")
     @GetMapping("/freebie")
@@ -48,4 +55,42 @@ public class MatchController {
             @PageableDefault(size = 20) Pageable pageable) {
         return ResponseEntity.ok(matchService.getExchangeMatches(userDetails.getUserId(), pageable));
     }
+
+    @Operation(summary = "Scroll freebie matches", description = "Retrieves freebie matches using an opaque cursor instead of page numbers. Pass the returned nextCursor to get the following slice; the total is only computed when withTotal=true")
+    @GetMapping("/freebie/scroll")
+    public ResponseEntity<MatchSliceResponse> scrollFreebieMatches(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(matchService.scrollFreebieMatches(userDetails.getUserId(), cursor, size, withTotal));
+    }
+
+    @Operation(summary = "Scroll paid matches", description = "Retrieves paid matches using an opaque cursor instead of page numbers. Pass the returned nextCursor to get the following slice; the total is only computed when withTotal=true")
+    @GetMapping("/payed/scroll")
+    public ResponseEntity<MatchSliceResponse> scrollPayedMatches(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(matchService.scrollPayedMatches(userDetails.getUserId(), cursor, size, withTotal));
+    }
+
+    @Operation(summary = "Scroll exchange matches", description = "Retrieves exchange matches using an opaque cursor instead of page numbers. Pass the returned nextCursor to get the following slice; the total is only computed when withTotal=true")
+    @GetMapping("/exchange/scroll")
+    public ResponseEntity<MatchSliceResponse> scrollExchangeMatches(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(matchService.scrollExchangeMatches(userDetails.getUserId(), cursor, size, withTotal));
+    }
+
+    @Operation(summary = "Get ring trade matches", description = "Retrieves exchange cycles of 3-4 users that include the authenticated user, where everyone receives at least one searched sticker. Ranked by stickers satisfied")
+    @GetMapping("/ring")
+    public ResponseEntity<List<RingMatchResponse>> getRingMatches(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ringTradeService.getRingMatches(userDetails.getUserId(), limit));
+    }
 }
@@ -28,4 +28,38 @@ public class MatchDtos {
         private Long id;
         private String name;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MatchSliceResponse {
+        private List<MatchResponse> content;
+        // Opaque continuation token, null on the last slice
+        private String nextCursor;
+        private boolean hasNext;
+        // Only set when requested with withTotal=true
+        private Long totalElements;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RingMatchResponse {
+        // Minimum stickers per hop multiplied by the number of hops
+        private Long stickersSatisfied;
+        // Starts with the authenticated user; the last hop leads back to them
+        private List<RingHopDto> hops;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RingHopDto {
+        private Long fromUserId;
+        private Long toUserId;
+        private List<MatchStickerDto> stickers;
+    }
 }
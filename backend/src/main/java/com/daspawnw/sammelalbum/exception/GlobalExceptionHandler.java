@@ -1,13 +1,22 @@
 package com.daspawnw.sammelalbum.exception;
 
+import com.daspawnw.sammelalbum.config.AppProperties;
 import com.daspawnw.sammelalbum.dto.AuthDtos.AuthResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final AppProperties appProperties;
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<AuthResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         return ResponseEntity.badRequest().body(AuthResponse.builder()
@@ -21,4 +30,34 @@ public class GlobalExceptionHandler {
                 .message(ex.getMessage())
                 .build());
     }
+
+    // A version conflict that was not retried away (or not retried at all) is the client's to repeat
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<AuthResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(AuthResponse.builder()
+                .message("The data was changed concurrently, please retry")
+                .build());
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<AuthResponse> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(appProperties.getPasswordHashing().getRetryAfterSeconds()))
+                .body(AuthResponse.builder()
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    // The authentication provider wraps what fails around the user lookup, including a busy encoder;
+    // anything else is left to the security filters as before
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<AuthResponse> handleInternalAuthenticationServiceException(
+            InternalAuthenticationServiceException ex) {
+        if (ex.getCause() instanceof PasswordHashingBusyException busy) {
+            return handlePasswordHashingBusyException(busy);
+        }
+        throw ex;
+    }
 }
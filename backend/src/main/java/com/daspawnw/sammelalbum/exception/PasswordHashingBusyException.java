@@ -0,0 +1,12 @@
+package com.daspawnw.sammelalbum.exception;
+
+/**
+ * Thrown when all password hashing workers are busy and the wait queue is
+ * full. Answered with 503 and a Retry-After header.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Server is busy, please try again shortly");
+    }
+}
@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class CardOffer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_offers_seq")
+    @SequenceGenerator(name = "card_offers_seq", sequenceName = "card_offers_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -43,4 +44,7 @@ public class CardOffer {
     @Column(name = "is_reserved", nullable = false)
     @Builder.Default
     private Boolean isReserved = false;
+
+    @Version
+    private Long version;
 }
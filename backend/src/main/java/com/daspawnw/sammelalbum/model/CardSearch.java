@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class CardSearch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_searches_seq")
+    @SequenceGenerator(name = "card_searches_seq", sequenceName = "card_searches_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -31,4 +32,7 @@ public class CardSearch {
     @Column(name = "is_reserved", nullable = false)
     @Builder.Default
     private Boolean isReserved = false;
+
+    @Version
+    private Long version;
 }
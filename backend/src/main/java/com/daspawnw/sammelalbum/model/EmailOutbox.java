@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class EmailOutbox {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "recipient_email", nullable = false)
@@ -50,4 +51,11 @@ public class EmailOutbox {
 
     @Column(name = "next_retry_at")
     private LocalDateTime nextRetryAt;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    // Emails with the same recipient and key are merged while pending (null = never merged)
+    @Column(name = "digest_key")
+    private String digestKey;
 }
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class ExchangeRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_requests_seq")
+    @SequenceGenerator(name = "exchange_requests_seq", sequenceName = "exchange_requests_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "requester_id", nullable = false)
@@ -67,6 +68,9 @@ public class ExchangeRequest {
     @Column(name = "cancellation_reason")
     private CancellationReason cancellationReason;
 
+    @Version
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
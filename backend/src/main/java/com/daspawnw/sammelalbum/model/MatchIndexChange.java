@@ -0,0 +1,43 @@
+package com.daspawnw.sammelalbum.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One changed (user, sticker, kind) the match index of every instance has to
+ * re-read. Rows are inserted with native SQL, see MatchIndexChangeRepository.
+ */
+@Entity
+@Table(name = "match_index_changes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchIndexChange {
+
+    public enum CardKind {
+        OFFER, SEARCH
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "sticker_id", nullable = false)
+    private Long stickerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "card_kind", nullable = false)
+    private CardKind cardKind;
+
+    @Column(name = "changed_at", insertable = false, updatable = false)
+    private LocalDateTime changedAt;
+}
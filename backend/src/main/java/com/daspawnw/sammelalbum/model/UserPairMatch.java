@@ -0,0 +1,60 @@
+package com.daspawnw.sammelalbum.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Read model of the user_pair_matches table. Rows are only written by the
+ * native statements in UserPairMatchRepository.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_pair_matches")
+@IdClass(UserPairMatch.Key.class)
+public class UserPairMatch {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "partner_id", nullable = false)
+    private Long partnerId;
+
+    @Column(name = "freebie_in", nullable = false)
+    private Integer freebieIn;
+
+    @Column(name = "freebie_out", nullable = false)
+    private Integer freebieOut;
+
+    @Column(name = "payed_in", nullable = false)
+    private Integer payedIn;
+
+    @Column(name = "exchange_get", nullable = false)
+    private Integer exchangeGet;
+
+    @Column(name = "exchange_give", nullable = false)
+    private Integer exchangeGive;
+
+    @Column(name = "freebie_count", nullable = false)
+    private Integer freebieCount;
+
+    @Column(name = "exchange_count", nullable = false)
+    private Integer exchangeCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long partnerId;
+    }
+}
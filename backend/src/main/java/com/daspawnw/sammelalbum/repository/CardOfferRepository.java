@@ -6,84 +6,111 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 public interface CardOfferRepository extends JpaRepository<CardOffer, Long> {
-  @org.springframework.data.jpa.repository.Query("""
-      SELECT co
-      FROM CardOffer co
-      JOIN FETCH co.sticker s
-      WHERE co.userId = :userId
-      """)
-  List<CardOffer> findAllByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
 
-  List<CardOffer> findByUserIdAndStickerIdIn(Long userId, List<Long> stickerIds);
+  // Match scoring: each of these defines a "Scored" CTE with one row per
+  // partner (userId, matchCount) that the queries below select from. Scores
+  // are computed on the compact stock tables (one row per user and sticker),
+  // so duplicates count once. Stickers the user already has an active request
+  // for with a partner are not counted.
+  String FREEBIE_MATCHES = """
+      WITH Scored AS (
+          SELECT user_id AS userId, SUM(cnt) AS matchCount FROM (
+              -- Outgoing: They want my freebies
+              SELECT ss.user_id, COUNT(*) as cnt
+              FROM card_search_stock ss
+              JOIN card_offer_stock os ON ss.sticker_id = os.sticker_id
+              WHERE os.user_id = :userId
+                AND os.freebie_available > 0
+                AND ss.user_id != :userId
+                AND ss.quantity > ss.reserved_quantity
+                AND NOT EXISTS (
+                    SELECT 1 FROM exchange_requests er
+                    WHERE er.requester_id = :userId
+                      AND er.offerer_id = ss.user_id
+                      AND er.offered_sticker_id = ss.sticker_id
+                      AND er.exchange_type = 'EXCHANGE'
+                      AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')
+                )
+              GROUP BY ss.user_id
 
-  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = """
-      SELECT user_id AS userId, SUM(cnt) AS matchCount FROM (
-          -- Outgoing: They want my freebies
-          SELECT cs.user_id, COUNT(cs.sticker_id) as cnt
-          FROM card_searches cs
-          JOIN card_offers co ON cs.sticker_id = co.sticker_id
-          WHERE co.user_id = :userId
-            AND co.offer_freebie = TRUE
-            AND cs.user_id != :userId
-            AND co.is_reserved = FALSE
-            AND cs.is_reserved = FALSE
-          GROUP BY cs.user_id
-
-          UNION ALL
-
-          -- Incoming: They offer freebies I want
-          SELECT co.user_id, COUNT(co.sticker_id) as cnt
-          FROM card_offers co
-          JOIN card_searches cs ON co.sticker_id = cs.sticker_id
-          WHERE cs.user_id = :userId
-            AND co.offer_freebie = TRUE
-            AND co.user_id != :userId
-            AND co.is_reserved = FALSE
-            AND cs.is_reserved = FALSE
-          GROUP BY co.user_id
-      ) combined
-      GROUP BY user_id
-      ORDER BY matchCount DESC
-      """)
-  org.springframework.data.domain.Page<MatchProjection> findFreebieMatches(Long userId,
-      org.springframework.data.domain.Pageable pageable);
+              UNION ALL
 
-  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = """
-      SELECT co.user_id AS userId, COUNT(co.sticker_id) AS matchCount
-      FROM card_offers co
-      JOIN card_searches cs ON co.sticker_id = cs.sticker_id
-      WHERE cs.user_id = :userId
-        AND co.offer_payed = TRUE
-        AND co.user_id != :userId
-        AND co.is_reserved = FALSE
-        AND cs.is_reserved = FALSE
-      GROUP BY co.user_id
-      ORDER BY matchCount DESC
-      """)
-  org.springframework.data.domain.Page<MatchProjection> findPayedMatches(Long userId,
-      org.springframework.data.domain.Pageable pageable);
+              -- Incoming: They offer freebies I want
+              SELECT os.user_id, COUNT(*) as cnt
+              FROM card_offer_stock os
+              JOIN card_search_stock ss ON os.sticker_id = ss.sticker_id
+              WHERE ss.user_id = :userId
+                AND os.freebie_available > 0
+                AND os.user_id != :userId
+                AND ss.quantity > ss.reserved_quantity
+                AND NOT EXISTS (
+                    SELECT 1 FROM exchange_requests er
+                    WHERE er.requester_id = :userId
+                      AND er.offerer_id = os.user_id
+                      AND er.requested_sticker_id = os.sticker_id
+                      AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')
+                )
+              GROUP BY os.user_id
+          ) combined
+          GROUP BY user_id
+      )
+      """;
+
+  String PAYED_MATCHES = """
+      WITH Scored AS (
+          SELECT os.user_id AS userId, COUNT(*) AS matchCount
+          FROM card_offer_stock os
+          JOIN card_search_stock ss ON os.sticker_id = ss.sticker_id
+          WHERE ss.user_id = :userId
+            AND os.payed_available > 0
+            AND os.user_id != :userId
+            AND ss.quantity > ss.reserved_quantity
+            AND NOT EXISTS (
+                SELECT 1 FROM exchange_requests er
+                WHERE er.requester_id = :userId
+                  AND er.offerer_id = os.user_id
+                  AND er.requested_sticker_id = os.sticker_id
+                  AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')
+            )
+          GROUP BY os.user_id
+      )
+      """;
 
-  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = """
+  String EXCHANGE_MATCHES = """
       WITH MyNeeds AS (
-          SELECT sticker_id FROM card_searches WHERE user_id = :userId AND is_reserved = FALSE
+          SELECT sticker_id FROM card_search_stock WHERE user_id = :userId AND quantity > reserved_quantity
       ),
       MyOffers AS (
-          SELECT sticker_id FROM card_offers WHERE user_id = :userId AND offer_exchange = TRUE AND is_reserved = FALSE
+          SELECT sticker_id FROM card_offer_stock WHERE user_id = :userId AND exchange_available > 0
       ),
       PartnerOffers AS (
-          SELECT co.user_id, co.sticker_id
-          FROM card_offers co
-          WHERE co.offer_exchange = TRUE
-            AND co.user_id != :userId
-            AND co.is_reserved = FALSE
-            AND co.sticker_id IN (SELECT sticker_id FROM MyNeeds)
+          SELECT os.user_id, os.sticker_id
+          FROM card_offer_stock os
+          WHERE os.exchange_available > 0
+            AND os.user_id != :userId
+            AND os.sticker_id IN (SELECT sticker_id FROM MyNeeds)
+            AND NOT EXISTS (
+                SELECT 1 FROM exchange_requests er
+                WHERE er.requester_id = :userId
+                  AND er.offerer_id = os.user_id
+                  AND er.requested_sticker_id = os.sticker_id
+                  AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')
+            )
       ),
       PartnerNeeds AS (
-          SELECT cs.user_id, cs.sticker_id
-          FROM card_searches cs
-          WHERE cs.user_id != :userId
-            AND cs.is_reserved = FALSE
-            AND cs.sticker_id IN (SELECT sticker_id FROM MyOffers)
+          SELECT ss.user_id, ss.sticker_id
+          FROM card_search_stock ss
+          WHERE ss.user_id != :userId
+            AND ss.quantity > ss.reserved_quantity
+            AND ss.sticker_id IN (SELECT sticker_id FROM MyOffers)
+            AND NOT EXISTS (
+                SELECT 1 FROM exchange_requests er
+                WHERE er.requester_id = :userId
+                  AND er.offerer_id = ss.user_id
+                  AND er.offered_sticker_id = ss.sticker_id
+                  AND er.exchange_type = 'EXCHANGE'
+                  AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')
+            )
       ),
       Matches AS (
           SELECT
@@ -93,20 +120,72 @@ public interface CardOfferRepository extends JpaRepository<CardOffer, Long> {
           FROM PartnerOffers po
           JOIN PartnerNeeds pn ON po.user_id = pn.user_id
           GROUP BY po.user_id
+      ),
+      Scored AS (
+          SELECT
+              user_id AS userId,
+              CASE WHEN i_get < i_give THEN i_get ELSE i_give END AS matchCount
+          FROM Matches
       )
-      SELECT
-          user_id AS userId,
-          CASE WHEN i_get < i_give THEN i_get ELSE i_give END AS matchCount
-      FROM Matches
-      ORDER BY matchCount DESC
-      """)
+      """;
+
+  // Keyset continuation on (matchCount DESC, userId ASC)
+  String KEYSET_PAGE = """
+
+      WHERE matchCount < :afterCount OR (matchCount = :afterCount AND userId > :afterUserId)
+      ORDER BY matchCount DESC, userId
+      LIMIT :limit
+      """;
+
+  List<CardOffer> findAllByUserId(Long userId);
+
+  List<CardOffer> findByUserIdAndStickerIdIn(Long userId, List<Long> stickerIds);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = FREEBIE_MATCHES + "SELECT userId, matchCount FROM Scored ORDER BY matchCount DESC, userId",
+      countQuery = FREEBIE_MATCHES + "SELECT COUNT(*) FROM Scored")
+  org.springframework.data.domain.Page<MatchProjection> findFreebieMatches(Long userId,
+      org.springframework.data.domain.Pageable pageable);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = FREEBIE_MATCHES + "SELECT userId, matchCount FROM Scored" + KEYSET_PAGE)
+  List<MatchProjection> findFreebieMatchesAfter(Long userId, long afterCount, long afterUserId, int limit);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = FREEBIE_MATCHES + "SELECT COUNT(*) FROM Scored")
+  long countFreebieMatches(Long userId);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = PAYED_MATCHES + "SELECT userId, matchCount FROM Scored ORDER BY matchCount DESC, userId",
+      countQuery = PAYED_MATCHES + "SELECT COUNT(*) FROM Scored")
+  org.springframework.data.domain.Page<MatchProjection> findPayedMatches(Long userId,
+      org.springframework.data.domain.Pageable pageable);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = PAYED_MATCHES + "SELECT userId, matchCount FROM Scored" + KEYSET_PAGE)
+  List<MatchProjection> findPayedMatchesAfter(Long userId, long afterCount, long afterUserId, int limit);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = PAYED_MATCHES + "SELECT COUNT(*) FROM Scored")
+  long countPayedMatches(Long userId);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = EXCHANGE_MATCHES + "SELECT userId, matchCount FROM Scored ORDER BY matchCount DESC, userId",
+      countQuery = EXCHANGE_MATCHES + "SELECT COUNT(*) FROM Scored")
   org.springframework.data.domain.Page<MatchProjection> findExchangeMatches(Long userId,
       org.springframework.data.domain.Pageable pageable);
 
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = EXCHANGE_MATCHES + "SELECT userId, matchCount FROM Scored" + KEYSET_PAGE)
+  List<MatchProjection> findExchangeMatchesAfter(Long userId, long afterCount, long afterUserId, int limit);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = EXCHANGE_MATCHES + "SELECT COUNT(*) FROM Scored")
+  long countExchangeMatches(Long userId);
+
   @org.springframework.data.jpa.repository.Query("""
       SELECT co
       FROM CardOffer co
-      JOIN FETCH co.sticker s
       WHERE co.userId IN :userIds
         AND co.stickerId IN (SELECT cs.stickerId FROM CardSearch cs WHERE cs.userId = :currentUserId AND cs.isReserved = FALSE)
         AND co.isReserved = FALSE
@@ -119,6 +198,24 @@ public interface CardOfferRepository extends JpaRepository<CardOffer, Long> {
   List<CardOffer> findMatchingOffers(Long currentUserId, List<Long> userIds, boolean isFreebie, boolean isPayed,
       boolean isExchange);
 
+  @org.springframework.data.jpa.repository.Query("""
+      SELECT co.userId AS userId, co.stickerId AS stickerId, co.offerFreebie AS offerFreebie,
+             co.offerPayed AS offerPayed, co.offerExchange AS offerExchange
+      FROM CardOffer co
+      WHERE co.isReserved = FALSE
+      """)
+  java.util.stream.Stream<OfferedStickerProjection> streamUnreservedOffers();
+
+  @org.springframework.data.jpa.repository.Query("""
+      SELECT co.userId AS userId, co.stickerId AS stickerId, co.offerFreebie AS offerFreebie,
+             co.offerPayed AS offerPayed, co.offerExchange AS offerExchange
+      FROM CardOffer co
+      WHERE co.userId = :userId
+        AND co.stickerId IN :stickerIds
+        AND co.isReserved = FALSE
+      """)
+  List<OfferedStickerProjection> findUnreservedOffers(Long userId, java.util.Collection<Long> stickerIds);
+
   // Statistics methods
   long countByOfferFreebie(boolean offerFreebie);
 
@@ -0,0 +1,80 @@
+package com.daspawnw.sammelalbum.repository;
+
+import com.daspawnw.sammelalbum.model.CardOffer;
+import com.daspawnw.sammelalbum.model.CardSearch;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reserves single card offers / searches by id instead of loading all rows
+ * of a user and sticker and saving the first free one. The free row is
+ * picked with FOR UPDATE SKIP LOCKED, as in the exchange request sweep, so
+ * two concurrent accepts never pick the same row: the second one moves on to
+ * the next free copy instead of waiting for the first to commit. The version
+ * is bumped like a JPA update, so a concurrent change to the same row through
+ * its entity fails its version check.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardReservationRepository {
+
+  private final EntityManager entityManager;
+
+  /**
+   * Reserves one unreserved card offer of the user for the sticker.
+   *
+   * @return the id of the reserved offer, empty if the user has no free copy
+   */
+  public Optional<Long> reserveOffer(Long userId, Long stickerId) {
+    return reserve(CardOffer.class, "card_offers", userId, stickerId);
+  }
+
+  /**
+   * Reserves one unreserved card search of the user for the sticker.
+   *
+   * @return the id of the reserved search, empty if the user has no free one
+   */
+  public Optional<Long> reserveSearch(Long userId, Long stickerId) {
+    return reserve(CardSearch.class, "card_searches", userId, stickerId);
+  }
+
+  private Optional<Long> reserve(Class<?> type, String table, Long userId, Long stickerId) {
+    List<?> ids = entityManager.createNativeQuery("""
+        SELECT id FROM %s
+        WHERE user_id = :userId AND sticker_id = :stickerId AND is_reserved = FALSE
+        ORDER BY id
+        LIMIT 1
+        FOR UPDATE SKIP LOCKED
+        """.formatted(table))
+        .setParameter("userId", userId)
+        .setParameter("stickerId", stickerId)
+        .getResultList();
+    if (ids.isEmpty()) {
+      return Optional.empty();
+    }
+    Long id = ((Number) ids.get(0)).longValue();
+    // The row stays locked until commit, so it is still unreserved
+    entityManager.createNativeQuery("""
+        UPDATE %s SET is_reserved = TRUE, version = version + 1
+        WHERE id = :id
+        """.formatted(table))
+        .setParameter("id", id)
+        .executeUpdate();
+    refreshIfLoaded(type, id);
+    return Optional.of(id);
+  }
+
+  // The UPDATE bypasses the persistence context; an entity of the row that
+  // was already loaded in this transaction would still read as unreserved
+  private void refreshIfLoaded(Class<?> type, Long id) {
+    Object reference = entityManager.getReference(type, id);
+    if (Hibernate.isInitialized(reference)) {
+      entityManager.refresh(reference);
+    }
+  }
+}
@@ -8,20 +8,13 @@ import java.util.List;
 
 @Repository
 public interface CardSearchRepository extends JpaRepository<CardSearch, Long> {
-  @org.springframework.data.jpa.repository.Query("""
-      SELECT cs
-      FROM CardSearch cs
-      JOIN FETCH cs.sticker s
-      WHERE cs.userId = :userId
-      """)
-  List<CardSearch> findAllByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
+  List<CardSearch> findAllByUserId(Long userId);
 
   List<CardSearch> findByUserIdAndStickerIdIn(Long userId, List<Long> stickerIds);
 
   @org.springframework.data.jpa.repository.Query("""
       SELECT cs
       FROM CardSearch cs
-      JOIN FETCH cs.sticker s
       WHERE cs.userId IN :userIds
         AND cs.stickerId IN (
             SELECT co.stickerId FROM CardOffer co
@@ -41,4 +34,22 @@ public interface CardSearchRepository extends JpaRepository<CardSearch, Long> {
       @org.springframework.data.repository.query.Param("isFreebie") boolean isFreebie,
       @org.springframework.data.repository.query.Param("isPayed") boolean isPayed,
       @org.springframework.data.repository.query.Param("isExchange") boolean isExchange);
+
+  @org.springframework.data.jpa.repository.Query("""
+      SELECT cs.userId AS userId, cs.stickerId AS stickerId
+      FROM CardSearch cs
+      WHERE cs.isReserved = FALSE
+      """)
+  java.util.stream.Stream<SearchedStickerProjection> streamUnreservedSearches();
+
+  @org.springframework.data.jpa.repository.Query("""
+      SELECT cs.userId AS userId, cs.stickerId AS stickerId
+      FROM CardSearch cs
+      WHERE cs.userId = :userId
+        AND cs.stickerId IN :stickerIds
+        AND cs.isReserved = FALSE
+      """)
+  List<SearchedStickerProjection> findUnreservedSearches(
+      @org.springframework.data.repository.query.Param("userId") Long userId,
+      @org.springframework.data.repository.query.Param("stickerIds") java.util.Collection<Long> stickerIds);
 }
@@ -0,0 +1,112 @@
+package com.daspawnw.sammelalbum.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Recomputes card_offer_stock / card_search_stock rows of a user from the
+ * card rows. Runs in the caller's transaction after pending card changes have
+ * been flushed.
+ *
+ * <p>The affected (user_id, sticker_id) rows are upserted first, which locks
+ * them until commit; a missing row is inserted with zero counts. Only then
+ * are the counts recomputed, in a new statement that sees every change
+ * committed by a transaction that held the lock before. Two transactions
+ * changing the same stock row therefore queue on the row instead of both
+ * deleting and re-inserting it (duplicate key) or writing counts read before
+ * the other one committed. Rows whose quantity dropped to zero are deleted.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardStockRepository {
+
+  private static final String OFFER_STOCK_COLUMNS = """
+      user_id, sticker_id, quantity, reserved_quantity, freebie_available, payed_available, exchange_available""";
+
+  private static final String SEARCH_STOCK_COLUMNS = "user_id, sticker_id, quantity, reserved_quantity";
+
+  private static final String UPDATE_OFFER_STOCK = """
+      UPDATE card_offer_stock
+      SET (quantity, reserved_quantity, freebie_available, payed_available, exchange_available) = (
+          SELECT COUNT(*),
+                 COALESCE(SUM(CASE WHEN co.is_reserved = TRUE THEN 1 ELSE 0 END), 0),
+                 COALESCE(SUM(CASE WHEN co.is_reserved = FALSE AND co.offer_freebie = TRUE THEN 1 ELSE 0 END), 0),
+                 COALESCE(SUM(CASE WHEN co.is_reserved = FALSE AND co.offer_payed = TRUE THEN 1 ELSE 0 END), 0),
+                 COALESCE(SUM(CASE WHEN co.is_reserved = FALSE AND co.offer_exchange = TRUE THEN 1 ELSE 0 END), 0)
+          FROM card_offers co
+          WHERE co.user_id = card_offer_stock.user_id
+            AND co.sticker_id = card_offer_stock.sticker_id)
+      WHERE user_id = :userId
+        AND sticker_id IN (:stickerIds)
+      """;
+
+  private static final String UPDATE_SEARCH_STOCK = """
+      UPDATE card_search_stock
+      SET (quantity, reserved_quantity) = (
+          SELECT COUNT(*),
+                 COALESCE(SUM(CASE WHEN cs.is_reserved = TRUE THEN 1 ELSE 0 END), 0)
+          FROM card_searches cs
+          WHERE cs.user_id = card_search_stock.user_id
+            AND cs.sticker_id = card_search_stock.sticker_id)
+      WHERE user_id = :userId
+        AND sticker_id IN (:stickerIds)
+      """;
+
+  private final EntityManager entityManager;
+  private final SqlDialect sqlDialect;
+
+  public void refreshOfferStock(Long userId, Collection<Long> stickerIds) {
+    refresh("card_offer_stock", "card_offers", OFFER_STOCK_COLUMNS, "0, 0, 0, 0, 0", UPDATE_OFFER_STOCK,
+        userId, stickerIds);
+  }
+
+  public void refreshSearchStock(Long userId, Collection<Long> stickerIds) {
+    refresh("card_search_stock", "card_searches", SEARCH_STOCK_COLUMNS, "0, 0", UPDATE_SEARCH_STOCK,
+        userId, stickerIds);
+  }
+
+  private void refresh(String stockTable, String cardTable, String columns, String zeroCounts, String update,
+      Long userId, Collection<Long> stickerIds) {
+    entityManager.flush();
+    execute(lockSql(stockTable, cardTable, columns, zeroCounts), userId, stickerIds);
+    execute(update, userId, stickerIds);
+    execute("DELETE FROM " + stockTable
+        + " WHERE user_id = :userId AND sticker_id IN (:stickerIds) AND quantity = 0", userId, stickerIds);
+  }
+
+  private String lockSql(String stockTable, String cardTable, String columns, String zeroCounts) {
+    // Keys that have cards now or had a stock row before, in sticker order so
+    // concurrent refreshes of several stickers lock them in the same order
+    String keys = """
+        SELECT user_id, sticker_id, %4$s FROM (
+            SELECT user_id, sticker_id FROM %2$s WHERE user_id = :userId AND sticker_id IN (:stickerIds)
+            UNION
+            SELECT user_id, sticker_id FROM %1$s WHERE user_id = :userId AND sticker_id IN (:stickerIds)
+        ) stock_keys
+        ORDER BY sticker_id
+        """.formatted(stockTable, cardTable, columns, zeroCounts);
+    if (sqlDialect.isPostgres()) {
+      // The no-op update only takes the row lock
+      return """
+          INSERT INTO %1$s (%2$s)
+          %3$s
+          ON CONFLICT (user_id, sticker_id) DO UPDATE SET quantity = %1$s.quantity
+          """.formatted(stockTable, columns, keys);
+    }
+    // H2 resets the counts of existing rows here; they are recomputed next
+    return """
+        MERGE INTO %1$s (%2$s) KEY (user_id, sticker_id)
+        %3$s
+        """.formatted(stockTable, columns, keys);
+  }
+
+  private void execute(String sql, Long userId, Collection<Long> stickerIds) {
+    entityManager.createNativeQuery(sql)
+        .setParameter("userId", userId)
+        .setParameter("stickerIds", stickerIds)
+        .executeUpdate();
+  }
+}
@@ -2,7 +2,10 @@ package com.daspawnw.sammelalbum.repository;
 
 import com.daspawnw.sammelalbum.model.EmailOutbox;
 import com.daspawnw.sammelalbum.model.EmailStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.jpa.repository.Query;
@@ -15,6 +18,71 @@ import java.util.List;
 public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
     List<EmailOutbox> findByStatus(EmailStatus status);
 
-    @Query("SELECT e FROM EmailOutbox e WHERE e.status = :status AND (e.nextRetryAt IS NULL OR e.nextRetryAt <= :now)")
-    List<EmailOutbox> findBatchToProcess(@Param("status") EmailStatus status, @Param("now") LocalDateTime now);
+    /**
+     * Locks up to limit due PENDING emails whose lease is free, skipping rows
+     * another dispatcher is claiming right now.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM email_outbox"
+            + " WHERE status = 'PENDING' AND (next_retry_at IS NULL OR next_retry_at <= :now)"
+            + " AND (lease_until IS NULL OR lease_until <= :now)"
+            + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    List<EmailOutbox> claimBatchToProcess(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Marks the sent emails as SENT, as long as this dispatcher still holds
+     * their lease. Emails another dispatcher has claimed in the meantime are
+     * left to it.
+     *
+     * @return the number of emails updated
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.daspawnw.sammelalbum.model.EmailStatus.SENT,"
+            + " e.sentAt = :sentAt, e.leaseUntil = NULL"
+            + " WHERE e.id IN :ids AND e.leaseUntil = :leaseUntil")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Records a failed attempt, as long as this dispatcher still holds the
+     * lease.
+     *
+     * @return 1, or 0 when the lease was lost
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.retryCount = :retryCount,"
+            + " e.nextRetryAt = :nextRetryAt, e.errorMessage = :errorMessage, e.leaseUntil = NULL"
+            + " WHERE e.id = :id AND e.leaseUntil = :leaseUntil")
+    int markFailedAttempt(@Param("id") Long id, @Param("status") EmailStatus status,
+            @Param("retryCount") int retryCount, @Param("nextRetryAt") LocalDateTime nextRetryAt,
+            @Param("errorMessage") String errorMessage, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Pending digest of the recipient that no dispatcher has claimed yet,
+     * locked so concurrent notifications append one after another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EmailOutbox e WHERE e.recipientEmail = :recipientEmail AND e.digestKey = :digestKey"
+            + " AND e.status = com.daspawnw.sammelalbum.model.EmailStatus.PENDING AND e.retryCount = 0"
+            + " AND e.leaseUntil IS NULL ORDER BY e.id")
+    List<EmailOutbox> findOpenDigests(@Param("recipientEmail") String recipientEmail,
+            @Param("digestKey") String digestKey);
+
+    @Query(nativeQuery = true, value = "SELECT id FROM email_outbox"
+            + " WHERE status = 'SENT' AND sent_at < :cutoff ORDER BY id LIMIT :limit")
+    List<Long> findSentBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query(nativeQuery = true, value = "SELECT id FROM email_outbox"
+            + " WHERE status = 'FAILED' AND created_at < :cutoff ORDER BY id LIMIT :limit")
+    List<Long> findFailedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO email_outbox_archive"
+            + " (id, recipient_email, subject, body, status, created_at, sent_at, error_message, retry_count)"
+            + " SELECT id, recipient_email, subject, body, status, created_at, sent_at, error_message, retry_count"
+            + " FROM email_outbox WHERE id IN (:ids)")
+    int archiveByIdIn(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
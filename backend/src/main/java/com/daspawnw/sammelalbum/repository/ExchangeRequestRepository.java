@@ -2,15 +2,41 @@ package com.daspawnw.sammelalbum.repository;
 
 import com.daspawnw.sammelalbum.model.ExchangeRequest;
 import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ExchangeRequestRepository extends JpaRepository<ExchangeRequest, Long> {
     List<ExchangeRequest> findByStatus(ExchangeStatus status);
 
+    /**
+     * Locks up to limit INITIAL requests created up to the given time,
+     * skipping rows another transaction holds. Ordered by offerer, so only the
+     * last offerer of a chunk may have further requests in the next one.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM exchange_requests"
+            + " WHERE status = 'INITIAL' AND created_at <= :createdBefore"
+            + " ORDER BY offerer_id, id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    List<ExchangeRequest> claimInitialRequests(@Param("createdBefore") LocalDateTime createdBefore,
+            @Param("limit") int limit);
+
+    /**
+     * Locks the offerer's requests in the given status, skipping rows a
+     * concurrent sweep already holds (lock timeout -2 is SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<ExchangeRequest> findForUpdateByOffererIdAndStatus(Long offererId, ExchangeStatus status);
+
     List<ExchangeRequest> findByRequesterId(Long requesterId);
 
     List<ExchangeRequest> findByOffererId(Long offererId);
@@ -28,5 +54,5 @@ public interface ExchangeRequestRepository extends JpaRepository<ExchangeRequest
             Long requesterId, Long offererId, Long requestedStickerId, Long offeredStickerId,
             com.daspawnw.sammelalbum.model.ExchangeType exchangeType, List<ExchangeStatus> statuses);
 
-    List<ExchangeRequest> findByRequesterIdAndOffererIdIn(Long requesterId, List<Long> offererIds);
+    List<ExchangeRequest> findByRequesterIdAndStatusIn(Long requesterId, List<ExchangeStatus> statuses);
 }
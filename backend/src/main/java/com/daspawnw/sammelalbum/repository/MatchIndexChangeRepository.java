@@ -0,0 +1,63 @@
+package com.daspawnw.sammelalbum.repository;
+
+import com.daspawnw.sammelalbum.model.MatchIndexChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MatchIndexChangeRepository extends JpaRepository<MatchIndexChange, Long> {
+
+  /**
+   * Records the changed stickers of one user and kind in a single statement.
+   * changed_at is the database time, so all instances compare it against the
+   * same clock.
+   */
+  @Modifying
+  @Query(nativeQuery = true, value = """
+      INSERT INTO match_index_changes (user_id, sticker_id, card_kind)
+      SELECT :userId, s.id, :cardKind FROM stickers s WHERE s.id IN (:stickerIds)
+      """)
+  int record(@Param("userId") Long userId, @Param("stickerIds") Collection<Long> stickerIds,
+      @Param("cardKind") String cardKind);
+
+  /**
+   * What a poll needs of a change, without loading the entity.
+   */
+  interface ChangeRow {
+    Long getId();
+
+    Long getUserId();
+
+    Long getStickerId();
+
+    MatchIndexChange.CardKind getCardKind();
+  }
+
+  @Query("SELECT c.id AS id, c.userId AS userId, c.stickerId AS stickerId, c.cardKind AS cardKind"
+      + " FROM MatchIndexChange c WHERE c.id > :afterId ORDER BY c.id")
+  List<ChangeRow> findAfterId(@Param("afterId") long afterId);
+
+  @Query("SELECT c.id AS id, c.userId AS userId, c.stickerId AS stickerId, c.cardKind AS cardKind"
+      + " FROM MatchIndexChange c WHERE c.id IN :ids ORDER BY c.id")
+  List<ChangeRow> findByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Highest id of the changes made up to the given time, 0 if there are none.
+   */
+  @Query("SELECT COALESCE(MAX(c.id), 0) FROM MatchIndexChange c WHERE c.changedAt <= :until")
+  long findMaxIdChangedUntil(@Param("until") LocalDateTime until);
+
+  @Query(nativeQuery = true, value = "SELECT LOCALTIMESTAMP")
+  LocalDateTime currentTimestamp();
+
+  @Modifying
+  @Query("DELETE FROM MatchIndexChange c WHERE c.changedAt < :cutoff")
+  int deleteChangedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
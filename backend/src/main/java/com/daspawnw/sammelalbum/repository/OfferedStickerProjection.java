@@ -0,0 +1,13 @@
+package com.daspawnw.sammelalbum.repository;
+
+public interface OfferedStickerProjection {
+    Long getUserId();
+
+    Long getStickerId();
+
+    Boolean getOfferFreebie();
+
+    Boolean getOfferPayed();
+
+    Boolean getOfferExchange();
+}
@@ -0,0 +1,7 @@
+package com.daspawnw.sammelalbum.repository;
+
+public interface SearchedStickerProjection {
+    Long getUserId();
+
+    Long getStickerId();
+}
@@ -0,0 +1,27 @@
+package com.daspawnw.sammelalbum.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+/**
+ * The database the native statements run against, as resolved by Hibernate.
+ * Production runs on PostgreSQL, the tests on H2; the few statements without
+ * a common syntax (upserts, SKIP LOCKED, RETURNING) branch on it.
+ */
+@Component
+public class SqlDialect {
+
+  private final boolean postgres;
+
+  public SqlDialect(EntityManagerFactory entityManagerFactory) {
+    this.postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices()
+        .getDialect() instanceof PostgreSQLDialect;
+  }
+
+  public boolean isPostgres() {
+    return postgres;
+  }
+}
@@ -0,0 +1,198 @@
+package com.daspawnw.sammelalbum.repository;
+
+import com.daspawnw.sammelalbum.model.UserPairMatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Materialized match counts per ordered user pair (see V19). The rows are
+ * derived from the stock tables and the active exchange requests with the
+ * same rules as the match queries in CardOfferRepository; the match lists
+ * read them through the (user_id, count DESC, partner_id) indexes. Single
+ * changes are applied by UserPairRefreshRepository.
+ */
+public interface UserPairMatchRepository extends JpaRepository<UserPairMatch, UserPairMatch.Key> {
+
+  String INSERT_PAIRS = """
+      INSERT INTO user_pair_matches (user_id, partner_id, freebie_in, freebie_out, payed_in,
+                                     exchange_get, exchange_give, freebie_count, exchange_count)
+      """;
+
+  // Wraps INCOMING and OUTGOING (UNION ALL), closed by PAIR_GROUPS
+  String PAIR_TOTALS = """
+      SELECT user_id, partner_id,
+             SUM(freebie_in) AS freebie_in, SUM(freebie_out) AS freebie_out, SUM(payed_in) AS payed_in,
+             SUM(exchange_get) AS exchange_get, SUM(exchange_give) AS exchange_give,
+             SUM(freebie_in) + SUM(freebie_out) AS freebie_count,
+             LEAST(SUM(exchange_get), SUM(exchange_give)) AS exchange_count
+      FROM (
+      """;
+
+  String PAIR_GROUPS = """
+      ) pairs
+      GROUP BY user_id, partner_id
+      """;
+
+  // Pairs without anything to match are not stored
+  String MATCHING_PAIRS = """
+      HAVING SUM(freebie_in) + SUM(freebie_out) + SUM(payed_in) + LEAST(SUM(exchange_get), SUM(exchange_give)) > 0
+      """;
+
+  // Stickers ss.user_id searches and os.user_id offers, without the ones
+  // already requested from os.user_id. Continues with a filter on ss/os.
+  String INCOMING = """
+      SELECT ss.user_id AS user_id, os.user_id AS partner_id,
+             SUM(CASE WHEN os.freebie_available > 0 THEN 1 ELSE 0 END) AS freebie_in,
+             0 AS freebie_out,
+             SUM(CASE WHEN os.payed_available > 0 THEN 1 ELSE 0 END) AS payed_in,
+             SUM(CASE WHEN os.exchange_available > 0 THEN 1 ELSE 0 END) AS exchange_get,
+             0 AS exchange_give
+      FROM card_search_stock ss
+      JOIN card_offer_stock os ON os.sticker_id = ss.sticker_id AND os.user_id != ss.user_id
+      WHERE ss.quantity > ss.reserved_quantity
+        AND NOT EXISTS (
+            SELECT 1 FROM exchange_requests er
+            WHERE er.requester_id = ss.user_id
+              AND er.offerer_id = os.user_id
+              AND er.requested_sticker_id = os.sticker_id
+              AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')
+        )
+      """;
+
+  String INCOMING_GROUPS = """
+      GROUP BY ss.user_id, os.user_id
+      UNION ALL
+      """;
+
+  // Stickers os.user_id offers and ss.user_id searches, without the ones
+  // already offered to ss.user_id in an exchange. Continues with a filter.
+  String OUTGOING = """
+      SELECT os.user_id AS user_id, ss.user_id AS partner_id,
+             0 AS freebie_in,
+             SUM(CASE WHEN os.freebie_available > 0 THEN 1 ELSE 0 END) AS freebie_out,
+             0 AS payed_in,
+             0 AS exchange_get,
+             SUM(CASE WHEN os.exchange_available > 0 THEN 1 ELSE 0 END) AS exchange_give
+      FROM card_offer_stock os
+      JOIN card_search_stock ss ON ss.sticker_id = os.sticker_id AND ss.user_id != os.user_id
+      WHERE ss.quantity > ss.reserved_quantity
+        AND NOT EXISTS (
+            SELECT 1 FROM exchange_requests er
+            WHERE er.requester_id = os.user_id
+              AND er.offerer_id = ss.user_id
+              AND er.offered_sticker_id = ss.sticker_id
+              AND er.exchange_type = 'EXCHANGE'
+              AND er.status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')
+        )
+      """;
+
+  String OUTGOING_GROUPS = """
+      GROUP BY os.user_id, ss.user_id
+      """;
+
+  String ALL_PAIRS = PAIR_TOTALS + INCOMING + INCOMING_GROUPS + OUTGOING + OUTGOING_GROUPS + PAIR_GROUPS
+      + MATCHING_PAIRS;
+
+  String STORED_PAIRS = """
+      SELECT user_id, partner_id, freebie_in, freebie_out, payed_in, exchange_get, exchange_give,
+             freebie_count, exchange_count
+      FROM user_pair_matches
+      """;
+
+  // Keyset continuation on (count DESC, partner_id ASC), count being the sort column
+  String FREEBIE_AFTER = """
+        AND (freebie_count < :afterCount OR (freebie_count = :afterCount AND partner_id > :afterUserId))
+      ORDER BY freebie_count DESC, partner_id
+      LIMIT :limit
+      """;
+
+  String PAYED_AFTER = """
+        AND (payed_in < :afterCount OR (payed_in = :afterCount AND partner_id > :afterUserId))
+      ORDER BY payed_in DESC, partner_id
+      LIMIT :limit
+      """;
+
+  String EXCHANGE_AFTER = """
+        AND (exchange_count < :afterCount OR (exchange_count = :afterCount AND partner_id > :afterUserId))
+      ORDER BY exchange_count DESC, partner_id
+      LIMIT :limit
+      """;
+
+  String FREEBIE_MATCHES = """
+      SELECT partner_id AS userId, CAST(freebie_count AS BIGINT) AS matchCount
+      FROM user_pair_matches
+      WHERE user_id = :userId AND freebie_count > 0
+      """;
+
+  String PAYED_MATCHES = """
+      SELECT partner_id AS userId, CAST(payed_in AS BIGINT) AS matchCount
+      FROM user_pair_matches
+      WHERE user_id = :userId AND payed_in > 0
+      """;
+
+  String EXCHANGE_MATCHES = """
+      SELECT partner_id AS userId, CAST(exchange_count AS BIGINT) AS matchCount
+      FROM user_pair_matches
+      WHERE user_id = :userId AND exchange_count > 0
+      """;
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = FREEBIE_MATCHES + "ORDER BY freebie_count DESC, partner_id",
+      countQuery = "SELECT COUNT(*) FROM user_pair_matches WHERE user_id = :userId AND freebie_count > 0")
+  org.springframework.data.domain.Page<MatchProjection> findFreebieMatches(Long userId,
+      org.springframework.data.domain.Pageable pageable);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = FREEBIE_MATCHES + FREEBIE_AFTER)
+  List<MatchProjection> findFreebieMatchesAfter(Long userId, long afterCount, long afterUserId, int limit);
+
+  long countByUserIdAndFreebieCountGreaterThan(Long userId, int count);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = PAYED_MATCHES + "ORDER BY payed_in DESC, partner_id",
+      countQuery = "SELECT COUNT(*) FROM user_pair_matches WHERE user_id = :userId AND payed_in > 0")
+  org.springframework.data.domain.Page<MatchProjection> findPayedMatches(Long userId,
+      org.springframework.data.domain.Pageable pageable);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = PAYED_MATCHES + PAYED_AFTER)
+  List<MatchProjection> findPayedMatchesAfter(Long userId, long afterCount, long afterUserId, int limit);
+
+  long countByUserIdAndPayedInGreaterThan(Long userId, int count);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true,
+      value = EXCHANGE_MATCHES + "ORDER BY exchange_count DESC, partner_id",
+      countQuery = "SELECT COUNT(*) FROM user_pair_matches WHERE user_id = :userId AND exchange_count > 0")
+  org.springframework.data.domain.Page<MatchProjection> findExchangeMatches(Long userId,
+      org.springframework.data.domain.Pageable pageable);
+
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = EXCHANGE_MATCHES + EXCHANGE_AFTER)
+  List<MatchProjection> findExchangeMatchesAfter(Long userId, long afterCount, long afterUserId, int limit);
+
+  long countByUserIdAndExchangeCountGreaterThan(Long userId, int count);
+
+  /**
+   * Replaces the whole table with freshly computed pairs.
+   */
+  default void rebuildAll() {
+    deleteAllPairs();
+    insertAllPairs();
+  }
+
+  @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true)
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = "DELETE FROM user_pair_matches")
+  void deleteAllPairs();
+
+  @org.springframework.data.jpa.repository.Modifying
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = INSERT_PAIRS + ALL_PAIRS)
+  void insertAllPairs();
+
+  /**
+   * Number of rows that differ between the table and a fresh computation:
+   * stale rows plus missing ones, so a wrong row counts twice. 0 when the
+   * table is consistent.
+   */
+  @org.springframework.data.jpa.repository.Query(nativeQuery = true, value = "SELECT"
+      + " (SELECT COUNT(*) FROM (" + STORED_PAIRS + " EXCEPT " + ALL_PAIRS + ") stale)"
+      + " + (SELECT COUNT(*) FROM (" + ALL_PAIRS + " EXCEPT " + STORED_PAIRS + ") missing)")
+  long countDrift();
+}
@@ -0,0 +1,171 @@
+package com.daspawnw.sammelalbum.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.daspawnw.sammelalbum.repository.UserPairMatchRepository.INCOMING;
+import static com.daspawnw.sammelalbum.repository.UserPairMatchRepository.INCOMING_GROUPS;
+import static com.daspawnw.sammelalbum.repository.UserPairMatchRepository.OUTGOING;
+import static com.daspawnw.sammelalbum.repository.UserPairMatchRepository.OUTGOING_GROUPS;
+import static com.daspawnw.sammelalbum.repository.UserPairMatchRepository.PAIR_GROUPS;
+import static com.daspawnw.sammelalbum.repository.UserPairMatchRepository.PAIR_TOTALS;
+
+/**
+ * Applies card and request changes to user_pair_matches. Only the pairs a
+ * change can affect are recomputed: for changed stickers the pairs of the
+ * user with everyone holding stock of them on the other side, for a changed
+ * request the pair of its requester and offerer. All changes of a
+ * transaction are applied together, with the same SQL as the full rebuild
+ * restricted to those pairs.
+ *
+ * <p>Like CardStockRepository the affected rows are upserted (and thereby
+ * locked) first, in (user_id, partner_id) order, and only then recomputed
+ * in a new statement. Concurrent transactions touching the same pair queue
+ * on its row instead of failing with a duplicate key, and the later one
+ * counts the stock the earlier one committed. Pairs left with nothing to
+ * match are deleted.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserPairRefreshRepository {
+
+  private static final String COUNT_COLUMNS =
+      "freebie_in, freebie_out, payed_in, exchange_get, exchange_give, freebie_count, exchange_count";
+
+  private final EntityManager entityManager;
+  private final SqlDialect sqlDialect;
+
+  /**
+   * Offers / searches of a user changed for the given stickers.
+   */
+  public record ChangedCards(Long userId, Set<Long> offerStickerIds, Set<Long> searchStickerIds) {
+  }
+
+  /**
+   * The active requests of userId towards partnerId changed.
+   */
+  public record ChangedPair(Long userId, Long partnerId) {
+  }
+
+  public void refresh(Collection<ChangedCards> changedCards, Collection<ChangedPair> changedPairs) {
+    Map<String, Object> parameters = new HashMap<>();
+    String keys = keys(changedCards, changedPairs, parameters);
+    if (keys == null) {
+      return;
+    }
+    entityManager.flush();
+    execute(lockSql(keys), parameters);
+    execute(updateSql(keys), parameters);
+    execute("""
+        DELETE FROM user_pair_matches
+        WHERE (user_id, partner_id) IN (SELECT user_id, partner_id FROM (%s) k)
+          AND freebie_count = 0 AND payed_in = 0 AND exchange_count = 0
+        """.formatted(keys), parameters);
+  }
+
+  // Ordered (user_id, partner_id) pairs to recompute, null if there are none
+  private String keys(Collection<ChangedCards> changedCards, Collection<ChangedPair> changedPairs,
+      Map<String, Object> parameters) {
+    List<String> parts = new ArrayList<>();
+    int i = 0;
+    for (ChangedCards cards : changedCards) {
+      List<String> partners = new ArrayList<>();
+      String user = "u" + i;
+      if (!cards.offerStickerIds().isEmpty()) {
+        // Who searches what the user offers
+        partners.add("SELECT user_id FROM card_search_stock WHERE sticker_id IN (:o%d) AND user_id <> :%s"
+            .formatted(i, user));
+        parameters.put("o" + i, cards.offerStickerIds());
+      }
+      if (!cards.searchStickerIds().isEmpty()) {
+        // Who offers what the user searches
+        partners.add("SELECT user_id FROM card_offer_stock WHERE sticker_id IN (:s%d) AND user_id <> :%s"
+            .formatted(i, user));
+        parameters.put("s" + i, cards.searchStickerIds());
+      }
+      if (partners.isEmpty()) {
+        continue;
+      }
+      parameters.put(user, cards.userId());
+      String partnerIds = String.join(" UNION ", partners);
+      parts.add("SELECT CAST(:%s AS BIGINT) AS user_id, p.user_id AS partner_id FROM (%s) p"
+          .formatted(user, partnerIds));
+      parts.add("SELECT p.user_id AS user_id, CAST(:%s AS BIGINT) AS partner_id FROM (%s) p"
+          .formatted(user, partnerIds));
+      i++;
+    }
+    int j = 0;
+    for (ChangedPair pair : changedPairs) {
+      parts.add("SELECT CAST(:pu%d AS BIGINT) AS user_id, CAST(:pp%d AS BIGINT) AS partner_id".formatted(j, j));
+      parameters.put("pu" + j, pair.userId());
+      parameters.put("pp" + j, pair.partnerId());
+      j++;
+    }
+    return parts.isEmpty() ? null : String.join("\nUNION\n", parts);
+  }
+
+  private String lockSql(String keys) {
+    String zeroRows = """
+        SELECT user_id, partner_id, 0, 0, 0, 0, 0, 0, 0 FROM (%s) k
+        ORDER BY user_id, partner_id
+        """.formatted(keys);
+    if (sqlDialect.isPostgres()) {
+      // The no-op update only takes the row lock
+      return """
+          INSERT INTO user_pair_matches (user_id, partner_id, %s)
+          %s
+          ON CONFLICT (user_id, partner_id) DO UPDATE SET freebie_count = user_pair_matches.freebie_count
+          """.formatted(COUNT_COLUMNS, zeroRows);
+    }
+    // H2 resets the counts of existing rows here; they are recomputed next
+    return """
+        MERGE INTO user_pair_matches (user_id, partner_id, %s) KEY (user_id, partner_id)
+        %s
+        """.formatted(COUNT_COLUMNS, zeroRows);
+  }
+
+  // The pair totals of the full rebuild, restricted to the keys and without
+  // dropping empty pairs, so pairs that lost their last sticker become zero
+  private String updateSql(String keys) {
+    String inKeys = "(SELECT user_id, partner_id FROM (%s) k)".formatted(keys);
+    String totals = PAIR_TOTALS
+        + INCOMING + "  AND (ss.user_id, os.user_id) IN " + inKeys + "\n" + INCOMING_GROUPS
+        + OUTGOING + "  AND (os.user_id, ss.user_id) IN " + inKeys + "\n" + OUTGOING_GROUPS
+        + PAIR_GROUPS;
+    return """
+        MERGE INTO user_pair_matches upm
+        USING (
+            SELECT k.user_id, k.partner_id,
+                   COALESCE(t.freebie_in, 0) AS freebie_in,
+                   COALESCE(t.freebie_out, 0) AS freebie_out,
+                   COALESCE(t.payed_in, 0) AS payed_in,
+                   COALESCE(t.exchange_get, 0) AS exchange_get,
+                   COALESCE(t.exchange_give, 0) AS exchange_give,
+                   COALESCE(t.freebie_count, 0) AS freebie_count,
+                   COALESCE(t.exchange_count, 0) AS exchange_count
+            FROM (%s) k
+            LEFT JOIN (%s) t ON t.user_id = k.user_id AND t.partner_id = k.partner_id
+        ) c
+        ON upm.user_id = c.user_id AND upm.partner_id = c.partner_id
+        WHEN MATCHED THEN UPDATE SET
+            freebie_in = c.freebie_in, freebie_out = c.freebie_out, payed_in = c.payed_in,
+            exchange_get = c.exchange_get, exchange_give = c.exchange_give,
+            freebie_count = c.freebie_count, exchange_count = c.exchange_count
+        """.formatted(keys, totals);
+  }
+
+  private void execute(String sql, Map<String, Object> parameters) {
+    Query query = entityManager.createNativeQuery(sql);
+    parameters.forEach(query::setParameter);
+    query.executeUpdate();
+  }
+}
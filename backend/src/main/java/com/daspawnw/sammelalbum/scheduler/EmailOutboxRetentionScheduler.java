@@ -0,0 +1,71 @@
+package com.daspawnw.sammelalbum.scheduler;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Moves old SENT and FAILED emails out of email_outbox, into
+ * email_outbox_archive or into nothing. Works in small batches, each in its
+ * own transaction, so the outbox is never locked for long.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EmailOutboxRetentionScheduler {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Scheduled(cron = "${app.mail.retention.cron:0 15 3 * * *}")
+    @SchedulerLock(name = "EmailOutboxRetentionScheduler_applyRetention", lockAtLeastFor = "PT1M", lockAtMostFor = "PT30M")
+    public void applyRetention() {
+        AppProperties.RetentionProperties retention = appProperties.getMail().getRetention();
+        LocalDateTime now = LocalDateTime.now();
+        int sent = retention.getSentDays() > 0
+                ? removeAll(emailOutboxRepository::findSentBefore, now.minusDays(retention.getSentDays()))
+                : 0;
+        int failed = retention.getFailedDays() > 0
+                ? removeAll(emailOutboxRepository::findFailedBefore, now.minusDays(retention.getFailedDays()))
+                : 0;
+        log.info("Email outbox retention finished, {} sent and {} failed emails {}.", sent, failed,
+                retention.isArchive() ? "archived" : "deleted");
+    }
+
+    private int removeAll(BiFunction<LocalDateTime, Integer, List<Long>> findBefore, LocalDateTime cutoff) {
+        AppProperties.RetentionProperties retention = appProperties.getMail().getRetention();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int removed;
+        do {
+            removed = transactionTemplate.execute(status -> {
+                List<Long> ids = findBefore.apply(cutoff, retention.getBatchSize());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                if (retention.isArchive()) {
+                    emailOutboxRepository.archiveByIdIn(ids);
+                }
+                return emailOutboxRepository.deleteByIdIn(ids);
+            });
+            total += removed;
+        } while (removed > 0 && removed == retention.getBatchSize());
+
+        meterRegistry.counter("sammelalbum.email.retention", "action", retention.isArchive() ? "archived" : "deleted")
+                .increment(total);
+        return total;
+    }
+}
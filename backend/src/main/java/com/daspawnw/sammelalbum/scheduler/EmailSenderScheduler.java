@@ -1,19 +1,49 @@
 package com.daspawnw.sammelalbum.scheduler;
 
+import com.daspawnw.sammelalbum.config.AppProperties;
 import com.daspawnw.sammelalbum.model.EmailOutbox;
 import com.daspawnw.sammelalbum.model.EmailStatus;
 import com.daspawnw.sammelalbum.repository.EmailOutboxRepository;
 import com.daspawnw.sammelalbum.service.email.EmailSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Dispatches the email outbox. Due emails are claimed in bounded batches
+ * with FOR UPDATE SKIP LOCKED and a lease, so every instance can dispatch
+ * without sending the same email twice while the lease holds. The batch is sent concurrently by a
+ * fixed pool of workers outside of any transaction; the results are written
+ * back in one short transaction per batch. An email whose instance dies
+ * mid-batch is claimed again when its lease has run out.
+ * <p>
+ * The lease is also the limit for a batch: sends still running shortly
+ * before it ends are abandoned (the SMTP timeouts keep them from hanging)
+ * and left to the next claim, and results are only written while the row
+ * still carries this dispatcher's lease. A result that arrives after another
+ * dispatcher took the email over is dropped and counted as
+ * sammelalbum.email.lease.lost instead of overwriting the other one.
+ */
 @Component
 @Slf4j
 @RequiredArgsConstructor
@@ -21,39 +51,134 @@ public class EmailSenderScheduler {
 
     private final EmailOutboxRepository emailOutboxRepository;
     private final EmailSender emailSender;
+    private final MeterRegistry meterRegistry;
+    private final AppProperties appProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Platform threads: each keeps its SMTP connection in a thread local
+        workers = Executors.newFixedThreadPool(appProperties.getMail().getDispatchWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        workers.shutdown();
+    }
 
     @Scheduled(cron = "0 * * * * *") // Every minute
-    @SchedulerLock(name = "EmailSenderScheduler_processPendingEmails", lockAtLeastFor = "PT30S", lockAtMostFor = "PT5M")
     public void processPendingEmails() {
         processPendingEmailsInternal();
     }
 
-    @Transactional
     public void processPendingEmailsInternal() {
         log.debug("Checking for pending emails...");
-        List<EmailOutbox> pendingEmails = emailOutboxRepository.findBatchToProcess(EmailStatus.PENDING,
-                LocalDateTime.now());
+        int batchSize = appProperties.getMail().getBatchSize();
+        long leaseSeconds = appProperties.getMail().getLeaseSeconds();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
 
-        if (pendingEmails.isEmpty()) {
-            log.debug("No pending emails found.");
-            return;
-        }
+        int claimed;
+        do {
+            // Millisecond precision, so the lease compares equal after the round trip through the database
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+            List<EmailOutbox> batch = transactionTemplate.execute(status -> claimBatch(now, leaseUntil, batchSize));
+            claimed = batch.size();
+            if (claimed == 0) {
+                break;
+            }
+
+            log.info("Claimed {} pending emails. Sending...", claimed);
+            meterRegistry.summary("sammelalbum.email.batch.size").record(claimed);
 
-        log.info("Found {} pending emails. Processing...", pendingEmails.size());
-
-        for (EmailOutbox email : pendingEmails) {
-            try {
-                emailSender.send(email);
-                email.setStatus(EmailStatus.SENT);
-                email.setSentAt(LocalDateTime.now());
-                log.info("Email {} sent successfully to {}", email.getId(), email.getRecipientEmail());
-            } catch (Exception e) {
-                log.error("Failed to send email {}", email.getId(), e);
-                handleFailure(email, e);
+            List<Future<?>> sends = new ArrayList<>(claimed);
+            for (EmailOutbox email : batch) {
+                sends.add(workers.submit(() -> send(email)));
+            }
+            // Leaves a tenth of the lease to write the results back
+            LocalDateTime deadline = leaseUntil.minusSeconds(leaseSeconds / 10);
+            List<EmailOutbox> completed = new ArrayList<>(claimed);
+            for (int i = 0; i < claimed; i++) {
+                if (awaitSend(sends.get(i), batch.get(i), deadline)) {
+                    completed.add(batch.get(i));
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status -> writeResults(completed, leaseUntil));
+        } while (claimed == batchSize);
+    }
+
+    private List<EmailOutbox> claimBatch(LocalDateTime now, LocalDateTime leaseUntil, int batchSize) {
+        List<EmailOutbox> batch = emailOutboxRepository.claimBatchToProcess(now, batchSize);
+        batch.forEach(email -> email.setLeaseUntil(leaseUntil));
+        return emailOutboxRepository.saveAll(batch);
+    }
+
+    // Conditional updates instead of saving the detached entities: no SELECT
+    // per row, and nothing is written for emails whose lease was taken over
+    private void writeResults(List<EmailOutbox> emails, LocalDateTime leaseUntil) {
+        List<Long> sentIds = emails.stream()
+                .filter(email -> email.getStatus() == EmailStatus.SENT)
+                .map(EmailOutbox::getId)
+                .toList();
+        int written = sentIds.isEmpty() ? 0 : emailOutboxRepository.markSent(sentIds, LocalDateTime.now(), leaseUntil);
+        for (EmailOutbox email : emails) {
+            if (email.getStatus() != EmailStatus.SENT) {
+                written += emailOutboxRepository.markFailedAttempt(email.getId(), email.getStatus(),
+                        email.getRetryCount(), email.getNextRetryAt(), email.getErrorMessage(), leaseUntil);
             }
         }
+        int lost = emails.size() - written;
+        if (lost > 0) {
+            meterRegistry.counter("sammelalbum.email.lease.lost").increment(lost);
+            log.warn("Lease of {} emails ran out before their results were written, they are left to the new claim",
+                    lost);
+        }
+    }
 
-        emailOutboxRepository.saveAll(pendingEmails);
+    private void send(EmailOutbox email) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            emailSender.send(email);
+            sample.stop(sendTimer("success"));
+            email.setStatus(EmailStatus.SENT);
+            log.info("Email {} sent successfully to {}", email.getId(), email.getRecipientEmail());
+        } catch (Exception e) {
+            sample.stop(sendTimer("failure"));
+            log.error("Failed to send email {}", email.getId(), e);
+            handleFailure(email, e);
+        }
+    }
+
+    /**
+     * Waits for the send until the deadline. A send that is still queued or
+     * running then is cancelled and its email left to the next claim.
+     *
+     * @return whether the send completed in time
+     */
+    private boolean awaitSend(Future<?> send, EmailOutbox email, LocalDateTime deadline) {
+        long remainingMillis = Math.max(Duration.between(LocalDateTime.now(), deadline).toMillis(), 0);
+        try {
+            send.get(remainingMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            send.cancel(true);
+            meterRegistry.counter("sammelalbum.email.send.timeout").increment();
+            log.warn("Email {} was not sent before its lease ran out, leaving it to the next claim", email.getId());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending emails", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Email worker failed", e.getCause());
+        }
     }
 
     private void handleFailure(EmailOutbox email, Exception e) {
@@ -63,6 +188,7 @@ public class EmailSenderScheduler {
 
         if (newRetryCount >= 3) {
             email.setStatus(EmailStatus.FAILED);
+            meterRegistry.counter("sammelalbum.email.failed").increment();
             log.warn("Email {} failed after {} attempts. Marking as FAILED.", email.getId(), newRetryCount);
         } else {
             // Exponential backoff: 2^retryCount * 1 minute (e.g., 2m, 4m, etc.)
@@ -74,7 +200,14 @@ public class EmailSenderScheduler {
             long delayMinutes = (long) Math.pow(2, newRetryCount);
             LocalDateTime nextRetry = LocalDateTime.now().plusMinutes(delayMinutes);
             email.setNextRetryAt(nextRetry);
+            meterRegistry.counter("sammelalbum.email.retries", "attempt", String.valueOf(newRetryCount)).increment();
             log.info("Email {} scheduled for retry #{} at {}", email.getId(), newRetryCount, nextRetry);
         }
     }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("sammelalbum.email.send")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
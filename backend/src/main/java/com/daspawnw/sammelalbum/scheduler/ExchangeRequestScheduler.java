@@ -1,24 +1,38 @@
 package com.daspawnw.sammelalbum.scheduler;
 
+import com.daspawnw.sammelalbum.config.AppProperties;
 import com.daspawnw.sammelalbum.service.ExchangeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ExchangeRequestScheduler {
 
     private final ExchangeService exchangeService;
+    private final AppProperties appProperties;
 
+    // Sweeper for requests the ExchangeNotificationAggregator missed (restart, failed flush).
+    // No ShedLock: chunks are claimed with SKIP LOCKED, so all instances can sweep at the same time.
     @Scheduled(cron = "0 */15 * * * *") // Every 15 minutes
-    @SchedulerLock(name = "ExchangeRequestScheduler_processInitialRequests", lockAtLeastFor = "PT5M", lockAtMostFor = "PT14M")
     public void processInitialRequests() {
         log.info("Starting ExchangeRequestScheduler...");
-        exchangeService.processInitialRequests();
-        log.info("ExchangeRequestScheduler finished processing.");
+        AppProperties.ExchangeNotificationProperties properties = appProperties.getExchangeNotification();
+        int processed;
+        if (properties.isEnabled()) {
+            // Younger requests are still due to be flushed by the aggregator
+            processed = exchangeService.processInitialRequestsCreatedBefore(
+                    LocalDateTime.now().minus(properties.getMaxDelayMs() + properties.getFlushIntervalMs(),
+                            ChronoUnit.MILLIS));
+        } else {
+            processed = exchangeService.processInitialRequests();
+        }
+        log.info("ExchangeRequestScheduler finished processing {} requests.", processed);
     }
 }
@@ -0,0 +1,32 @@
+package com.daspawnw.sammelalbum.scheduler;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.repository.MatchIndexChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Removes match_index_changes rows every instance has long since polled.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MatchIndexChangeRetentionScheduler {
+
+    private final MatchIndexChangeRepository matchIndexChangeRepository;
+    private final AppProperties appProperties;
+
+    @Scheduled(cron = "${app.matching.index.change-cleanup-cron:0 10 * * * *}")
+    @SchedulerLock(name = "MatchIndexChangeRetentionScheduler_removeOldChanges", lockAtLeastFor = "PT1M", lockAtMostFor = "PT10M")
+    @Transactional
+    public void removeOldChanges() {
+        int hours = appProperties.getMatching().getIndex().getChangeRetentionHours();
+        int removed = matchIndexChangeRepository.deleteChangedBefore(
+                matchIndexChangeRepository.currentTimestamp().minusHours(hours));
+        log.debug("Removed {} match index changes older than {} hours", removed, hours);
+    }
+}
@@ -0,0 +1,39 @@
+package com.daspawnw.sammelalbum.scheduler;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.service.match.UserPairMatchChecker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserPairMatchScheduler {
+
+    private final UserPairMatchChecker userPairMatchChecker;
+    private final AppProperties appProperties;
+
+    // Fills the table after it was created empty (V19) or re-enabled; the
+    // shared lock name keeps it from running next to the nightly check
+    @EventListener(ApplicationReadyEvent.class)
+    @SchedulerLock(name = "UserPairMatchScheduler_checkConsistency", lockAtLeastFor = "PT1M", lockAtMostFor = "PT30M")
+    public void checkConsistencyOnStartup() {
+        checkConsistency();
+    }
+
+    @Scheduled(cron = "${app.matching.pair-table.check-cron:0 30 4 * * *}")
+    @SchedulerLock(name = "UserPairMatchScheduler_checkConsistency", lockAtLeastFor = "PT1M", lockAtMostFor = "PT30M")
+    public void checkConsistency() {
+        if (!appProperties.getMatching().getPairTable().isEnabled()) {
+            return;
+        }
+        log.info("Checking user_pair_matches consistency...");
+        long drift = userPairMatchChecker.checkAndRepair();
+        log.info("user_pair_matches consistency check finished, {} rows repaired.", drift);
+    }
+}
@@ -5,17 +5,21 @@ import com.daspawnw.sammelalbum.dto.CardOfferDtos.BulkUpdateOfferRequest;
 import com.daspawnw.sammelalbum.dto.CardOfferDtos.CardOfferRequest;
 import com.daspawnw.sammelalbum.dto.CardOfferDtos.CardOfferResponse;
 import com.daspawnw.sammelalbum.model.CardOffer;
-import com.daspawnw.sammelalbum.model.Sticker;
 import com.daspawnw.sammelalbum.repository.CardOfferRepository;
-import com.daspawnw.sammelalbum.repository.StickerRepository;
+import com.daspawnw.sammelalbum.service.match.CardInventoryChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -23,21 +27,22 @@ import java.util.stream.Collectors;
 public class CardOfferService {
 
     private final CardOfferRepository cardOfferRepository;
-    private final StickerRepository stickerRepository;
+    private final StickerCatalog stickerCatalog;
     private final ExchangeService exchangeService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CardOfferService(CardOfferRepository cardOfferRepository,
-            StickerRepository stickerRepository,
-            @Lazy ExchangeService exchangeService) {
+            StickerCatalog stickerCatalog,
+            @Lazy ExchangeService exchangeService,
+            ApplicationEventPublisher eventPublisher) {
         this.cardOfferRepository = cardOfferRepository;
-        this.stickerRepository = stickerRepository;
+        this.stickerCatalog = stickerCatalog;
         this.exchangeService = exchangeService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<CardOfferResponse> getOffers(Long userId) {
-        return cardOfferRepository.findAllByUserId(userId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(cardOfferRepository.findAllByUserId(userId));
     }
 
     @Transactional
@@ -51,14 +56,13 @@ public class CardOfferService {
                 .offerExchange(request.getOfferExchange() != null ? request.getOfferExchange() : false)
                 .build();
         CardOffer saved = cardOfferRepository.save(cardOffer);
-        // Load sticker for response
-        saved.setSticker(stickerRepository.findById(saved.getStickerId()).orElse(null));
-        return mapToResponse(saved);
+        publishInventoryChanged(userId, List.of(saved.getStickerId()));
+        return mapToResponse(saved, stickerCatalog.getName(saved.getStickerId()));
     }
 
     @Transactional
     public List<CardOfferResponse> addBulkOffers(Long userId, BulkCardOfferRequest request) {
-        request.getStickerIds().forEach(this::validateStickerExists);
+        validateStickersExist(request.getStickerIds());
         List<CardOffer> offers = request.getStickerIds().stream()
                 .map(stickerId -> CardOffer.builder()
                         .userId(userId)
@@ -69,14 +73,9 @@ public class CardOfferService {
                         .build())
                 .collect(Collectors.toList());
         List<CardOffer> saved = cardOfferRepository.saveAll(offers);
-        // Load all stickers in one query to avoid N+1
         List<Long> stickerIds = saved.stream().map(CardOffer::getStickerId).distinct().collect(Collectors.toList());
-        var stickerMap = stickerRepository.findAllById(stickerIds).stream()
-                .collect(Collectors.toMap(Sticker::getId, s -> s));
-        saved.forEach(offer -> offer.setSticker(stickerMap.get(offer.getStickerId())));
-        return saved.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        publishInventoryChanged(userId, stickerIds);
+        return mapToResponses(saved);
     }
 
     @Transactional
@@ -92,6 +91,7 @@ public class CardOfferService {
         exchangeService.handleCardOfferDeletion(offerId);
 
         cardOfferRepository.delete(cardOffer);
+        publishInventoryChanged(userId, List.of(cardOffer.getStickerId()));
     }
 
     @Transactional
@@ -126,6 +126,7 @@ public class CardOfferService {
         });
 
         cardOfferRepository.deleteAll(toDelete);
+        publishInventoryChanged(userId, requestedDeletions.keySet());
     }
 
     @Transactional
@@ -146,22 +147,44 @@ public class CardOfferService {
                 offer.setOfferExchange(request.getOfferExchange());
         });
 
-        return cardOfferRepository.saveAll(userOffers).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        List<CardOffer> saved = cardOfferRepository.saveAll(userOffers);
+        publishInventoryChanged(userId, stickerIds);
+        return mapToResponses(saved);
+    }
+
+    private void publishInventoryChanged(Long userId, Collection<Long> stickerIds) {
+        eventPublisher.publishEvent(CardInventoryChangedEvent.offers(userId, stickerIds));
     }
 
     private void validateStickerExists(Long stickerId) {
-        if (!stickerRepository.existsById(stickerId)) {
+        if (!stickerCatalog.exists(stickerId)) {
             throw new IllegalArgumentException("Sticker with ID " + stickerId + " does not exist");
         }
     }
 
-    private CardOfferResponse mapToResponse(CardOffer cardOffer) {
+    private void validateStickersExist(Collection<Long> stickerIds) {
+        if (stickerIds == null || stickerIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Sticker IDs must not be null");
+        }
+        Set<Long> unknown = stickerCatalog.findUnknown(stickerIds);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Stickers with IDs " + unknown + " do not exist");
+        }
+    }
+
+    private List<CardOfferResponse> mapToResponses(List<CardOffer> offers) {
+        Map<Long, String> stickerNames = stickerCatalog.getNames(
+                offers.stream().map(CardOffer::getStickerId).collect(Collectors.toSet()));
+        return offers.stream()
+                .map(offer -> mapToResponse(offer, stickerNames.get(offer.getStickerId())))
+                .collect(Collectors.toList());
+    }
+
+    private CardOfferResponse mapToResponse(CardOffer cardOffer, String stickerName) {
         return CardOfferResponse.builder()
                 .id(cardOffer.getId())
                 .stickerId(cardOffer.getStickerId())
-                .stickerName(cardOffer.getSticker() != null ? cardOffer.getSticker().getName() : null)
+                .stickerName(stickerName)
                 .offerPayed(cardOffer.getOfferPayed())
                 .offerFreebie(cardOffer.getOfferFreebie())
                 .offerExchange(cardOffer.getOfferExchange())
@@ -4,36 +4,41 @@ import com.daspawnw.sammelalbum.dto.CardSearchDtos.BulkCardSearchRequest;
 import com.daspawnw.sammelalbum.dto.CardSearchDtos.CardSearchRequest;
 import com.daspawnw.sammelalbum.dto.CardSearchDtos.CardSearchResponse;
 import com.daspawnw.sammelalbum.model.CardSearch;
-import com.daspawnw.sammelalbum.model.Sticker;
 import com.daspawnw.sammelalbum.repository.CardSearchRepository;
-import com.daspawnw.sammelalbum.repository.StickerRepository;
+import com.daspawnw.sammelalbum.service.match.CardInventoryChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class CardSearchService {
 
     private final CardSearchRepository cardSearchRepository;
-    private final StickerRepository stickerRepository;
+    private final StickerCatalog stickerCatalog;
     private final ExchangeService exchangeService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CardSearchService(CardSearchRepository cardSearchRepository,
-            StickerRepository stickerRepository,
-            @Lazy ExchangeService exchangeService) {
+            StickerCatalog stickerCatalog,
+            @Lazy ExchangeService exchangeService,
+            ApplicationEventPublisher eventPublisher) {
         this.cardSearchRepository = cardSearchRepository;
-        this.stickerRepository = stickerRepository;
+        this.stickerCatalog = stickerCatalog;
         this.exchangeService = exchangeService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<CardSearchResponse> getSearches(Long userId) {
-        return cardSearchRepository.findAllByUserId(userId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(cardSearchRepository.findAllByUserId(userId));
     }
 
     @Transactional
@@ -44,14 +49,13 @@ public class CardSearchService {
                 .stickerId(request.getStickerId())
                 .build();
         CardSearch saved = cardSearchRepository.save(cardSearch);
-        // Load sticker for response
-        saved.setSticker(stickerRepository.findById(saved.getStickerId()).orElse(null));
-        return mapToResponse(saved);
+        publishInventoryChanged(userId, List.of(saved.getStickerId()));
+        return mapToResponse(saved, stickerCatalog.getName(saved.getStickerId()));
     }
 
     @Transactional
     public List<CardSearchResponse> addBulkSearches(Long userId, BulkCardSearchRequest request) {
-        request.getStickerIds().forEach(this::validateStickerExists);
+        validateStickersExist(request.getStickerIds());
         List<CardSearch> searches = request.getStickerIds().stream()
                 .map(stickerId -> CardSearch.builder()
                         .userId(userId)
@@ -59,14 +63,9 @@ public class CardSearchService {
                         .build())
                 .collect(Collectors.toList());
         List<CardSearch> saved = cardSearchRepository.saveAll(searches);
-        // Load all stickers in one query to avoid N+1
         List<Long> stickerIds = saved.stream().map(CardSearch::getStickerId).distinct().collect(Collectors.toList());
-        var stickerMap = stickerRepository.findAllById(stickerIds).stream()
-                .collect(Collectors.toMap(Sticker::getId, s -> s));
-        saved.forEach(search -> search.setSticker(stickerMap.get(search.getStickerId())));
-        return saved.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        publishInventoryChanged(userId, stickerIds);
+        return mapToResponses(saved);
     }
 
     @Transactional
@@ -82,6 +81,7 @@ public class CardSearchService {
         exchangeService.handleCardSearchDeletion(searchId);
 
         cardSearchRepository.delete(cardSearch);
+        publishInventoryChanged(userId, List.of(cardSearch.getStickerId()));
     }
 
     @Transactional
@@ -112,19 +112,42 @@ public class CardSearchService {
         });
 
         cardSearchRepository.deleteAll(toDelete);
+        publishInventoryChanged(userId, requestedDeletions.keySet());
+    }
+
+    private void publishInventoryChanged(Long userId, Collection<Long> stickerIds) {
+        eventPublisher.publishEvent(CardInventoryChangedEvent.searches(userId, stickerIds));
     }
 
     private void validateStickerExists(Long stickerId) {
-        if (!stickerRepository.existsById(stickerId)) {
+        if (!stickerCatalog.exists(stickerId)) {
             throw new IllegalArgumentException("Sticker with ID " + stickerId + " does not exist");
         }
     }
 
-    private CardSearchResponse mapToResponse(CardSearch cardSearch) {
+    private void validateStickersExist(Collection<Long> stickerIds) {
+        if (stickerIds == null || stickerIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Sticker IDs must not be null");
+        }
+        Set<Long> unknown = stickerCatalog.findUnknown(stickerIds);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Stickers with IDs " + unknown + " do not exist");
+        }
+    }
+
+    private List<CardSearchResponse> mapToResponses(List<CardSearch> searches) {
+        Map<Long, String> stickerNames = stickerCatalog.getNames(
+                searches.stream().map(CardSearch::getStickerId).collect(Collectors.toSet()));
+        return searches.stream()
+                .map(search -> mapToResponse(search, stickerNames.get(search.getStickerId())))
+                .collect(Collectors.toList());
+    }
+
+    private CardSearchResponse mapToResponse(CardSearch cardSearch, String stickerName) {
         return CardSearchResponse.builder()
                 .id(cardSearch.getId())
                 .stickerId(cardSearch.getStickerId())
-                .stickerName(cardSearch.getSticker() != null ? cardSearch.getSticker().getName() : null)
+                .stickerName(stickerName)
                 .isReserved(cardSearch.getIsReserved())
                 .build();
     }
@@ -4,14 +4,24 @@ import com.daspawnw.sammelalbum.model.ExchangeRequest;
 import com.daspawnw.sammelalbum.model.ExchangeStatus;
 import com.daspawnw.sammelalbum.model.CancellationReason;
 import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.CardReservationRepository;
 import com.daspawnw.sammelalbum.repository.ExchangeRequestRepository;
 import com.daspawnw.sammelalbum.model.ExchangeType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.Collections;
@@ -20,7 +30,9 @@ import com.daspawnw.sammelalbum.model.User;
 
 import com.daspawnw.sammelalbum.dto.ExchangeRequestDto;
 import com.daspawnw.sammelalbum.repository.UserRepository;
-import com.daspawnw.sammelalbum.repository.StickerRepository;
+import com.daspawnw.sammelalbum.service.match.CardInventoryChangedEvent;
+import com.daspawnw.sammelalbum.service.match.ExchangeRequestChangedEvent;
+import com.daspawnw.sammelalbum.service.notification.ExchangeRequestCreatedEvent;
 import com.daspawnw.sammelalbum.service.notification.NotificationService;
 import java.util.ArrayList;
 import java.util.Map;
@@ -34,13 +46,23 @@ public class ExchangeService {
     private final ExchangeRequestRepository exchangeRequestRepository;
     private final CardOfferRepository cardOfferRepository;
     private final com.daspawnw.sammelalbum.repository.CardSearchRepository cardSearchRepository;
-    private final StickerRepository stickerRepository;
+    private final CardReservationRepository cardReservationRepository;
+    private final StickerCatalog stickerCatalog;
     private final NotificationService notificationService;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
 
     @Value("${app.base-url:http://localhost:4200}")
     private String baseUrl;
 
+    @Value("${app.exchange-notification.sweep-chunk-size:200}")
+    private int sweepChunkSize = 200;
+
+    @Value("${app.exchange.conflict-attempts:3}")
+    private int conflictAttempts = 3;
+
     @Transactional
     public ExchangeRequest createExchangeRequest(Long requesterId, Long offererId, Long requestedStickerId,
             Long offeredStickerId, ExchangeType type) {
@@ -81,6 +103,9 @@ public class ExchangeService {
                 .build();
 
         ExchangeRequest saved = exchangeRequestRepository.save(request);
+        meterRegistry.counter("sammelalbum.exchange.created", "type", type.name()).increment();
+        publishRequestChanged(saved);
+        eventPublisher.publishEvent(new ExchangeRequestCreatedEvent(saved.getOffererId()));
         log.info("Saved request with ID: {}", saved.getId());
         return saved;
     }
@@ -94,13 +119,13 @@ public class ExchangeService {
         // needs it
         boolean offererHasIt = cardOfferRepository
                 .findMatchingOffers(requesterId, List.of(offererId), false, false, true).stream()
-                .anyMatch(offer -> offer.getSticker().getId().equals(requestedStickerId));
+                .anyMatch(offer -> offer.getStickerId().equals(requestedStickerId));
 
         // 2. Validate Requester has offeredStickerId (Exchange=true) AND Offerer needs
         // it
         boolean requesterHasIt = cardOfferRepository
                 .findMatchingOffers(offererId, List.of(requesterId), false, false, true).stream()
-                .anyMatch(offer -> offer.getSticker().getId().equals(offeredStickerId));
+                .anyMatch(offer -> offer.getStickerId().equals(offeredStickerId));
 
         if (!offererHasIt || !requesterHasIt) {
             throw new IllegalArgumentException(
@@ -116,7 +141,7 @@ public class ExchangeService {
         // Validate Offerer has requestedStickerId (Payed=true) AND Requester needs it
         boolean valid = cardOfferRepository.findMatchingOffers(requesterId, List.of(offererId), false, true, false)
                 .stream()
-                .anyMatch(offer -> offer.getSticker().getId().equals(requestedStickerId));
+                .anyMatch(offer -> offer.getStickerId().equals(requestedStickerId));
 
         if (!valid) {
             throw new IllegalArgumentException("Invalid PAYED request: Offer not found or not marked as payed");
@@ -131,17 +156,54 @@ public class ExchangeService {
         // Validate Offerer has requestedStickerId (Freebie=true) AND Requester needs it
         boolean valid = cardOfferRepository.findMatchingOffers(requesterId, List.of(offererId), true, false, false)
                 .stream()
-                .anyMatch(offer -> offer.getSticker().getId().equals(requestedStickerId));
+                .anyMatch(offer -> offer.getStickerId().equals(requestedStickerId));
 
         if (!valid) {
             throw new IllegalArgumentException("Invalid FREEBIE request: Offer not found or not marked as freebie");
         }
     }
 
+    public int processInitialRequests() {
+        return processInitialRequestsCreatedBefore(LocalDateTime.now());
+    }
+
+    /**
+     * Sweeps INITIAL requests created up to the given time. Newer requests
+     * are still waiting for their debounced notification. Requests are
+     * claimed in chunks with FOR UPDATE SKIP LOCKED and each chunk commits on
+     * its own, so sweeps on several instances split the work and a backlog
+     * never turns into one long transaction.
+     *
+     * @return the number of requests processed
+     */
+    public int processInitialRequestsCreatedBefore(LocalDateTime createdBefore) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> {
+                List<ExchangeRequest> chunk = exchangeRequestRepository.claimInitialRequests(createdBefore,
+                        sweepChunkSize);
+                notifyOfferers(chunk);
+                return chunk.size();
+            });
+            total += claimed;
+        } while (claimed > 0 && claimed == sweepChunkSize);
+        return total;
+    }
+
+    /**
+     * Sends one notification with all INITIAL requests of the offerer. The
+     * rows are locked with SKIP LOCKED like in the sweep, so neither waits for
+     * the other and each request is notified once.
+     */
     @Transactional
-    public void processInitialRequests() {
-        List<ExchangeRequest> initialRequests = exchangeRequestRepository.findByStatus(ExchangeStatus.INITIAL);
+    public void processInitialRequestsForOfferer(Long offererId) {
+        notifyOfferers(exchangeRequestRepository.findForUpdateByOffererIdAndStatus(offererId,
+                ExchangeStatus.INITIAL));
+    }
 
+    private void notifyOfferers(List<ExchangeRequest> initialRequests) {
         if (initialRequests.isEmpty()) {
             return;
         }
@@ -158,7 +220,7 @@ public class ExchangeService {
                     messages.add(message);
                 }
 
-                request.setStatus(ExchangeStatus.MAIL_SEND);
+                transition(request, ExchangeStatus.MAIL_SEND);
                 exchangeRequestRepository.save(request);
             }
 
@@ -168,8 +230,11 @@ public class ExchangeService {
         });
     }
 
-    @Transactional
     public void acceptExchangeRequest(Long requestId, Long currentUserId) {
+        retryOnConflict("accept", () -> accept(requestId, currentUserId));
+    }
+
+    private void accept(Long requestId, Long currentUserId) {
         ExchangeRequest request = exchangeRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Exchange request not found"));
 
@@ -184,74 +249,30 @@ public class ExchangeService {
         }
 
         // --- Reservation Logic Start ---
+        // Each side is picked and flagged in one statement, so a concurrent
+        // accept for the same cards cannot reserve them twice.
         // 1. Requested Sticker (Offerer gives, Requester wants)
         // Offerer gives CardOffer
-        com.daspawnw.sammelalbum.model.CardOffer offererCard = cardOfferRepository
-                .findByUserIdAndStickerIdIn(currentUserId, List.of(request.getRequestedStickerId()))
-                .stream()
-                .filter(offer -> !offer.getIsReserved()) // Find unreserved
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException(
-                        "Offerer does not have an available (unreserved) card for this request"));
-
-        offererCard.setIsReserved(true);
-        cardOfferRepository.save(offererCard);
-
-        // Set FK reference
-        request.setOffererCardOfferId(offererCard.getId());
+        request.setOffererCardOfferId(reserveOffer(currentUserId, request.getRequestedStickerId(),
+                "Offerer does not have an available (unreserved) card for this request"));
 
         // Requester wants CardSearch
-        com.daspawnw.sammelalbum.model.CardSearch requesterSearch = cardSearchRepository
-                .findByUserIdAndStickerIdIn(request.getRequesterId(), List.of(request.getRequestedStickerId()))
-                .stream()
-                .filter(search -> !search.getIsReserved()) // Find unreserved
-                .findFirst()
-                .orElseThrow(
-                        () -> new IllegalStateException(
-                                "Requester does not have an available (unreserved) search for this request"));
-
-        requesterSearch.setIsReserved(true);
-        cardSearchRepository.save(requesterSearch);
-
-        // Set FK reference
-        request.setRequesterCardSearchId(requesterSearch.getId());
+        request.setRequesterCardSearchId(reserveSearch(request.getRequesterId(), request.getRequestedStickerId(),
+                "Requester does not have an available (unreserved) search for this request"));
 
         // 2. If EXCHANGE type, Offered Sticker (Requester gives, Offerer wants)
         if (request.getExchangeType() == ExchangeType.EXCHANGE) {
             // Requester gives CardOffer
-            com.daspawnw.sammelalbum.model.CardOffer requesterCard = cardOfferRepository
-                    .findByUserIdAndStickerIdIn(request.getRequesterId(), List.of(request.getOfferedStickerId()))
-                    .stream()
-                    .filter(offer -> !offer.getIsReserved()) // Find unreserved
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalStateException(
-                            "Requester does not have an available (unreserved) card for this request"));
-
-            requesterCard.setIsReserved(true);
-            cardOfferRepository.save(requesterCard);
-
-            // Set FK reference
-            request.setRequesterCardOfferId(requesterCard.getId());
+            request.setRequesterCardOfferId(reserveOffer(request.getRequesterId(), request.getOfferedStickerId(),
+                    "Requester does not have an available (unreserved) card for this request"));
 
             // Offerer wants CardSearch
-            com.daspawnw.sammelalbum.model.CardSearch offererSearch = cardSearchRepository
-                    .findByUserIdAndStickerIdIn(currentUserId, List.of(request.getOfferedStickerId()))
-                    .stream()
-                    .filter(search -> !search.getIsReserved()) // Find unreserved
-                    .findFirst()
-                    .orElseThrow(
-                            () -> new IllegalStateException(
-                                    "Offerer does not have an available (unreserved) search for this request"));
-
-            offererSearch.setIsReserved(true);
-            cardSearchRepository.save(offererSearch);
-
-            // Set FK reference
-            request.setOffererCardSearchId(offererSearch.getId());
+            request.setOffererCardSearchId(reserveSearch(currentUserId, request.getOfferedStickerId(),
+                    "Offerer does not have an available (unreserved) search for this request"));
         }
         // --- Reservation Logic End ---
 
-        request.setStatus(ExchangeStatus.EXCHANGE_INTERREST);
+        transition(request, ExchangeStatus.EXCHANGE_INTERREST);
         exchangeRequestRepository.save(request);
 
         // Send notification to Requester
@@ -271,8 +292,11 @@ public class ExchangeService {
         notificationService.sendExchangeNotification(request.getRequesterId(), List.of(message));
     }
 
-    @Transactional
     public void declineExchangeRequest(Long requestId, Long currentUserId) {
+        retryOnConflict("decline", () -> decline(requestId, currentUserId));
+    }
+
+    private void decline(Long requestId, Long currentUserId) {
         ExchangeRequest request = exchangeRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Exchange request not found"));
 
@@ -294,6 +318,7 @@ public class ExchangeService {
                         .ifPresent(offer -> {
                             offer.setIsReserved(false);
                             cardOfferRepository.save(offer);
+                            publishOfferChanged(offer);
                         });
             }
 
@@ -303,6 +328,7 @@ public class ExchangeService {
                         .ifPresent(search -> {
                             search.setIsReserved(false);
                             cardSearchRepository.save(search);
+                            publishSearchChanged(search);
                         });
             }
 
@@ -313,6 +339,7 @@ public class ExchangeService {
                             .ifPresent(offer -> {
                                 offer.setIsReserved(false);
                                 cardOfferRepository.save(offer);
+                                publishOfferChanged(offer);
                             });
                 }
 
@@ -321,6 +348,7 @@ public class ExchangeService {
                             .ifPresent(search -> {
                                 search.setIsReserved(false);
                                 cardSearchRepository.save(search);
+                                publishSearchChanged(search);
                             });
                 }
             }
@@ -333,12 +361,16 @@ public class ExchangeService {
             request.setCancellationReason(CancellationReason.OFFERER_CANCELED);
         }
 
-        request.setStatus(ExchangeStatus.EXCHANGE_CANCELED);
+        transition(request, ExchangeStatus.EXCHANGE_CANCELED);
         exchangeRequestRepository.save(request);
+        publishRequestChanged(request);
     }
 
-    @Transactional
     public void closeExchangeRequest(Long requestId, Long currentUserId) {
+        retryOnConflict("close", () -> close(requestId, currentUserId));
+    }
+
+    private void close(Long requestId, Long currentUserId) {
         ExchangeRequest request = exchangeRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Exchange request not found"));
 
@@ -360,11 +392,17 @@ public class ExchangeService {
             // Delete Requester's CardSearch using FK reference
             if (request.getRequesterCardSearchId() != null) {
                 cardSearchRepository.deleteById(request.getRequesterCardSearchId());
+                request.setRequesterCardSearchId(null);
+                eventPublisher.publishEvent(CardInventoryChangedEvent.searches(request.getRequesterId(),
+                        List.of(request.getRequestedStickerId())));
             }
 
             // If EXCHANGE type, delete Requester's CardOffer using FK reference
             if (request.getExchangeType() == ExchangeType.EXCHANGE && request.getRequesterCardOfferId() != null) {
                 cardOfferRepository.deleteById(request.getRequesterCardOfferId());
+                request.setRequesterCardOfferId(null);
+                eventPublisher.publishEvent(CardInventoryChangedEvent.offers(request.getRequesterId(),
+                        List.of(request.getOfferedStickerId())));
             }
 
             request.setRequesterClosed(true);
@@ -375,28 +413,36 @@ public class ExchangeService {
             // Delete Offerer's CardOffer using FK reference
             if (request.getOffererCardOfferId() != null) {
                 cardOfferRepository.deleteById(request.getOffererCardOfferId());
+                request.setOffererCardOfferId(null);
+                eventPublisher.publishEvent(CardInventoryChangedEvent.offers(request.getOffererId(),
+                        List.of(request.getRequestedStickerId())));
             }
 
             // If EXCHANGE type, delete Offerer's CardSearch using FK reference
             if (request.getExchangeType() == ExchangeType.EXCHANGE && request.getOffererCardSearchId() != null) {
                 cardSearchRepository.deleteById(request.getOffererCardSearchId());
+                request.setOffererCardSearchId(null);
+                eventPublisher.publishEvent(CardInventoryChangedEvent.searches(request.getOffererId(),
+                        List.of(request.getOfferedStickerId())));
             }
 
             request.setOffererClosed(true);
         }
 
         // If both parties have closed, mark as completed
-        if (request.getRequesterClosed() && request.getOffererClosed()) {
-            request.setStatus(ExchangeStatus.EXCHANGE_COMPLETED);
+        boolean completed = request.getRequesterClosed() && request.getOffererClosed();
+        if (completed) {
+            transition(request, ExchangeStatus.EXCHANGE_COMPLETED);
         }
 
         exchangeRequestRepository.save(request);
+        if (completed) {
+            publishRequestChanged(request);
+        }
     }
 
     private String buildMessage(ExchangeRequest request) {
-        String requestedStickerName = stickerRepository.findById(request.getRequestedStickerId())
-                .map(com.daspawnw.sammelalbum.model.Sticker::getName)
-                .orElse("Unknown");
+        String requestedStickerName = stickerNameOrUnknown(request.getRequestedStickerId());
 
         String deMessage;
         String enMessage;
@@ -415,9 +461,7 @@ public class ExchangeService {
                         requestedStickerName, request.getRequestedStickerId());
                 break;
             case EXCHANGE:
-                String offeredStickerName = stickerRepository.findById(request.getOfferedStickerId())
-                        .map(com.daspawnw.sammelalbum.model.Sticker::getName)
-                        .orElse("Unknown");
+                String offeredStickerName = stickerNameOrUnknown(request.getOfferedStickerId());
                 deMessage = String.format("Tauschanfrage: Dein Sticker %s (ID: %d) gegen Sticker %s (ID: %d).",
                         requestedStickerName, request.getRequestedStickerId(),
                         offeredStickerName, request.getOfferedStickerId());
@@ -454,7 +498,13 @@ public class ExchangeService {
                 .collect(Collectors.toList());
     }
 
-    private Map<Long, String> fetchStickerNames(List<ExchangeRequest> requests) {
+    private String stickerNameOrUnknown(Long stickerId) {
+        String name = stickerCatalog.getName(stickerId);
+        return name != null ? name : "Unknown";
+    }
+
+    // fetchStickerNames and mapToDto are package-private for the JMH benchmarks
+    Map<Long, String> fetchStickerNames(List<ExchangeRequest> requests) {
         Set<Long> stickerIds = new java.util.HashSet<>();
         requests.forEach(r -> {
             if (r.getRequestedStickerId() != null) {
@@ -469,9 +519,7 @@ public class ExchangeService {
             return Collections.emptyMap();
         }
 
-        return stickerRepository.findAllById(stickerIds).stream()
-                .collect(Collectors.toMap(com.daspawnw.sammelalbum.model.Sticker::getId,
-                        com.daspawnw.sammelalbum.model.Sticker::getName));
+        return stickerCatalog.getNames(stickerIds);
     }
 
     private Map<Long, User> fetchPartners(List<ExchangeRequest> requests, Function<ExchangeRequest, Long> idExtractor) {
@@ -489,7 +537,7 @@ public class ExchangeService {
                 .collect(Collectors.toMap(User::getId, Function.identity()));
     }
 
-    private ExchangeRequestDto mapToDto(ExchangeRequest request, User partner, Map<Long, String> stickerNames) {
+    ExchangeRequestDto mapToDto(ExchangeRequest request, User partner, Map<Long, String> stickerNames) {
         ExchangeRequestDto.ExchangeRequestDtoBuilder builder = ExchangeRequestDto.builder()
                 .id(request.getId())
                 .requesterId(request.getRequesterId())
@@ -544,9 +592,10 @@ public class ExchangeService {
         for (ExchangeRequest exchange : affectedExchanges) {
             CancellationReason reason = CancellationReason.OFFERED_CARD_REMOVED_BY_USER;
             unreserveCardsExcept(exchange, cardOfferId, null);
-            exchange.setStatus(ExchangeStatus.EXCHANGE_CANCELED);
+            transition(exchange, ExchangeStatus.EXCHANGE_CANCELED);
             exchange.setCancellationReason(reason);
             exchangeRequestRepository.save(exchange);
+            publishRequestChanged(exchange);
         }
 
         // If the card is NOT reserved, check if there are other cards left
@@ -571,9 +620,10 @@ public class ExchangeService {
                         .collect(Collectors.toList());
 
                 for (ExchangeRequest exchange : pendingExchanges) {
-                    exchange.setStatus(ExchangeStatus.EXCHANGE_CANCELED);
+                    transition(exchange, ExchangeStatus.EXCHANGE_CANCELED);
                     exchange.setCancellationReason(CancellationReason.OFFERED_CARD_REMOVED_BY_USER);
                     exchangeRequestRepository.save(exchange);
+                    publishRequestChanged(exchange);
                 }
             }
         }
@@ -607,9 +657,10 @@ public class ExchangeService {
         for (ExchangeRequest exchange : affectedExchanges) {
             CancellationReason reason = CancellationReason.SEARCH_CARD_REMOVED_BY_USER;
             unreserveCardsExcept(exchange, null, cardSearchId);
-            exchange.setStatus(ExchangeStatus.EXCHANGE_CANCELED);
+            transition(exchange, ExchangeStatus.EXCHANGE_CANCELED);
             exchange.setCancellationReason(reason);
             exchangeRequestRepository.save(exchange);
+            publishRequestChanged(exchange);
         }
 
         // If the search is NOT reserved, check if there are other searches left
@@ -635,9 +686,10 @@ public class ExchangeService {
                         .collect(Collectors.toList());
 
                 for (ExchangeRequest exchange : pendingExchanges) {
-                    exchange.setStatus(ExchangeStatus.EXCHANGE_CANCELED);
+                    transition(exchange, ExchangeStatus.EXCHANGE_CANCELED);
                     exchange.setCancellationReason(CancellationReason.SEARCH_CARD_REMOVED_BY_USER);
                     exchangeRequestRepository.save(exchange);
+                    publishRequestChanged(exchange);
                 }
             }
         }
@@ -653,6 +705,7 @@ public class ExchangeService {
                     .ifPresent(offer -> {
                         offer.setIsReserved(false);
                         cardOfferRepository.save(offer);
+                        publishOfferChanged(offer);
                     });
         }
 
@@ -663,6 +716,7 @@ public class ExchangeService {
                     .ifPresent(search -> {
                         search.setIsReserved(false);
                         cardSearchRepository.save(search);
+                        publishSearchChanged(search);
                     });
         }
 
@@ -674,6 +728,7 @@ public class ExchangeService {
                         .ifPresent(offer -> {
                             offer.setIsReserved(false);
                             cardOfferRepository.save(offer);
+                            publishOfferChanged(offer);
                         });
             }
 
@@ -683,8 +738,78 @@ public class ExchangeService {
                         .ifPresent(search -> {
                             search.setIsReserved(false);
                             cardSearchRepository.save(search);
+                            publishSearchChanged(search);
                         });
             }
         }
     }
+
+    /**
+     * Runs the change in its own transaction and repeats it when another
+     * transaction changed the same request or cards first (version conflict).
+     * Each attempt reloads the rows, so the change is validated again against
+     * what the other one committed. When called inside a transaction, the
+     * conflict is left to the caller.
+     */
+    private void retryOnConflict(String operation, Runnable change) {
+        boolean joined = TransactionSynchronizationManager.isActualTransactionActive();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1;; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> change.run());
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("sammelalbum.exchange.conflicts", "operation", operation).increment();
+                if (joined || attempt >= conflictAttempts) {
+                    throw e;
+                }
+                log.debug("Exchange {} conflicted with a concurrent change, attempt {}", operation, attempt);
+                meterRegistry.counter("sammelalbum.exchange.retries", "operation", operation).increment();
+            }
+        }
+    }
+
+    /**
+     * Changes the status and records how old the request was at that point,
+     * per transition.
+     */
+    private void transition(ExchangeRequest request, ExchangeStatus status) {
+        LocalDateTime createdAt = request.getCreatedAt();
+        Timer.builder("sammelalbum.exchange.transitions")
+                .tag("from", String.valueOf(request.getStatus()))
+                .tag("to", status.name())
+                .tag("type", String.valueOf(request.getExchangeType()))
+                .register(meterRegistry)
+                .record(createdAt != null ? Duration.between(createdAt, LocalDateTime.now()) : Duration.ZERO);
+        request.setStatus(status);
+    }
+
+    private void publishRequestChanged(ExchangeRequest request) {
+        eventPublisher.publishEvent(
+                new ExchangeRequestChangedEvent(request.getRequesterId(), request.getOffererId()));
+    }
+
+    // The failed side's exception rolls back the sides reserved before it
+    private Long reserveOffer(Long userId, Long stickerId, String unavailableMessage) {
+        Long offerId = cardReservationRepository.reserveOffer(userId, stickerId)
+                .orElseThrow(() -> new IllegalStateException(unavailableMessage));
+        eventPublisher.publishEvent(CardInventoryChangedEvent.offers(userId, List.of(stickerId)));
+        return offerId;
+    }
+
+    private Long reserveSearch(Long userId, Long stickerId, String unavailableMessage) {
+        Long searchId = cardReservationRepository.reserveSearch(userId, stickerId)
+                .orElseThrow(() -> new IllegalStateException(unavailableMessage));
+        eventPublisher.publishEvent(CardInventoryChangedEvent.searches(userId, List.of(stickerId)));
+        return searchId;
+    }
+
+    private void publishOfferChanged(com.daspawnw.sammelalbum.model.CardOffer offer) {
+        eventPublisher.publishEvent(CardInventoryChangedEvent.offers(offer.getUserId(), List.of(offer.getStickerId())));
+    }
+
+    private void publishSearchChanged(com.daspawnw.sammelalbum.model.CardSearch search) {
+        eventPublisher.publishEvent(
+                CardInventoryChangedEvent.searches(search.getUserId(), List.of(search.getStickerId())));
+    }
 }
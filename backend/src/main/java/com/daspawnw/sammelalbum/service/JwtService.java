@@ -1,28 +1,59 @@
 package com.daspawnw.sammelalbum.service;
 
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.repository.UserRepository;
+import com.daspawnw.sammelalbum.security.CustomUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.Keys;
-import com.daspawnw.sammelalbum.config.AppProperties;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
     private final AppProperties appProperties;
+    private final UserRepository userRepository;
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final Cache<String, CustomUserDetails> principals;
 
-    public JwtService(AppProperties appProperties) {
+    public JwtService(AppProperties appProperties, UserRepository userRepository) {
         this.appProperties = appProperties;
+        this.userRepository = userRepository;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(appProperties.getJwt().getSecret()));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        int cacheSize = appProperties.getJwt().getPrincipalCacheSize();
+        this.principals = cacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheSize)
+                        .expireAfter(new UntilTokenExpiry(
+                                TimeUnit.SECONDS.toNanos(appProperties.getJwt().getPrincipalCacheTtlSeconds())))
+                        .build()
+                : null;
     }
 
     public String extractUsername(String token) {
@@ -38,6 +69,48 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies the token once and returns the principal built from its
+     * subject and userId claim, checking only that the user still exists.
+     * Verified tokens are cached by their SHA-256 hash until they expire, at
+     * most for principal-cache-ttl-seconds, so repeated requests with the same
+     * token skip parsing and the check. The userId is null for tokens issued
+     * without the claim.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired,
+     *                                      or its user has been deleted
+     */
+    public CustomUserDetails verifyToken(String token) {
+        String key = principals != null ? hash(token) : null;
+        if (key != null) {
+            CustomUserDetails cached = principals.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        CustomUserDetails principal = toPrincipal(extractAllClaims(token));
+        if (principal.getUserId() != null) {
+            if (!userRepository.existsById(principal.getUserId())) {
+                throw new JwtException("User of the token no longer exists");
+            }
+            if (key != null) {
+                principals.put(key, principal);
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Drops the cached tokens of a deleted user, so they are rejected by the
+     * next request instead of after principal-cache-ttl-seconds.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (principals != null) {
+            principals.asMap().values().removeIf(principal -> event.userId().equals(principal.getUserId()));
+        }
+    }
+
     public String generateToken(UserDetails userDetails, Long userId) {
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("userId", userId);
@@ -54,33 +127,71 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private CustomUserDetails toPrincipal(Claims claims) {
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("Token has no subject or expiration");
+        }
+        return new TokenPrincipal(claims.getSubject(), claims.get("userId", Long.class), claims.getExpiration());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(appProperties.getJwt().getSecret());
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Principal of a verified token. It carries no password and remembers the
+     * token expiry for the cache.
+     */
+    private static final class TokenPrincipal extends CustomUserDetails {
+
+        private final long expiresAtMillis;
+
+        private TokenPrincipal(String username, Long userId, Date expiration) {
+            super(username, "", Collections.emptyList(), userId);
+            this.expiresAtMillis = expiration.getTime();
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, CustomUserDetails> {
+
+        private final long maxNanos;
+
+        private UntilTokenExpiry(long maxNanos) {
+            this.maxNanos = maxNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, CustomUserDetails value, long currentTime) {
+            long remainingMillis = ((TokenPrincipal) value).expiresAtMillis - System.currentTimeMillis();
+            return Math.min(TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0)), maxNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CustomUserDetails value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CustomUserDetails value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
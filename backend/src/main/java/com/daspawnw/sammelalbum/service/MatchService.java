@@ -1,23 +1,34 @@
 package com.daspawnw.sammelalbum.service;
 
+import com.daspawnw.sammelalbum.config.AppProperties;
 import com.daspawnw.sammelalbum.dto.MatchDtos.MatchResponse;
+import com.daspawnw.sammelalbum.dto.MatchDtos.MatchSliceResponse;
 import com.daspawnw.sammelalbum.dto.MatchDtos.MatchStickerDto;
 import com.daspawnw.sammelalbum.model.CardOffer;
 import com.daspawnw.sammelalbum.model.CardSearch;
-import com.daspawnw.sammelalbum.model.ExchangeRequest;
-import com.daspawnw.sammelalbum.model.ExchangeStatus;
-import com.daspawnw.sammelalbum.model.ExchangeType;
 import com.daspawnw.sammelalbum.repository.CardOfferRepository;
 import com.daspawnw.sammelalbum.repository.MatchProjection;
+import com.daspawnw.sammelalbum.repository.UserPairMatchRepository;
+import com.daspawnw.sammelalbum.service.match.MatchCursor;
+import com.daspawnw.sammelalbum.service.match.MatchExclusions;
+import com.daspawnw.sammelalbum.service.match.MatchIndex;
+import com.daspawnw.sammelalbum.service.match.MatchType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,27 +38,202 @@ public class MatchService {
         private final CardOfferRepository cardOfferRepository;
         private final com.daspawnw.sammelalbum.repository.CardSearchRepository cardSearchRepository;
         private final com.daspawnw.sammelalbum.repository.ExchangeRequestRepository exchangeRequestRepository;
+        private final MatchIndex matchIndex;
+        private final StickerCatalog stickerCatalog;
+        private final UserPairMatchRepository userPairMatchRepository;
+        private final AppProperties appProperties;
+        private final MeterRegistry meterRegistry;
+
+        private static final int MAX_SLICE_SIZE = 100;
+        private static final String SOURCE_INDEX = "index";
+        private static final String SOURCE_PAIR_TABLE = "pair-table";
+        private static final String SOURCE_SQL = "sql";
 
         @Transactional(readOnly = true)
         public Page<MatchResponse> getFreebieMatches(Long userId, Pageable pageable) {
-                Page<MatchProjection> matches = cardOfferRepository.findFreebieMatches(userId, pageable);
-                return populateMatchDetails(userId, matches, true, false, false);
+                MatchExclusions exclusions = activeRequestExclusions(userId);
+                Page<MatchProjection> matches = findMatches(userId, MatchType.FREEBIE, exclusions, pageable);
+                return detailsTimer(MatchType.FREEBIE)
+                                .record(() -> populateMatchDetails(userId, matches, exclusions, true, false, false));
         }
 
         @Transactional(readOnly = true)
         public Page<MatchResponse> getPayedMatches(Long userId, Pageable pageable) {
-                Page<MatchProjection> matches = cardOfferRepository.findPayedMatches(userId, pageable);
-                return populateMatchDetails(userId, matches, false, true, false);
+                MatchExclusions exclusions = activeRequestExclusions(userId);
+                Page<MatchProjection> matches = findMatches(userId, MatchType.PAYED, exclusions, pageable);
+                return detailsTimer(MatchType.PAYED)
+                                .record(() -> populateMatchDetails(userId, matches, exclusions, false, true, false));
         }
 
         @Transactional(readOnly = true)
         public Page<MatchResponse> getExchangeMatches(Long userId, Pageable pageable) {
-                Page<MatchProjection> matches = cardOfferRepository.findExchangeMatches(userId, pageable);
-                return populateMatchDetails(userId, matches, false, false, true);
+                MatchExclusions exclusions = activeRequestExclusions(userId);
+                Page<MatchProjection> matches = findMatches(userId, MatchType.EXCHANGE, exclusions, pageable);
+                return detailsTimer(MatchType.EXCHANGE)
+                                .record(() -> populateMatchDetails(userId, matches, exclusions, false, false, true));
+        }
+
+        @Transactional(readOnly = true)
+        public MatchSliceResponse scrollFreebieMatches(Long userId, String cursor, int size, boolean withTotal) {
+                return scroll(userId, MatchType.FREEBIE, cursor, size, withTotal);
+        }
+
+        @Transactional(readOnly = true)
+        public MatchSliceResponse scrollPayedMatches(Long userId, String cursor, int size, boolean withTotal) {
+                return scroll(userId, MatchType.PAYED, cursor, size, withTotal);
+        }
+
+        @Transactional(readOnly = true)
+        public MatchSliceResponse scrollExchangeMatches(Long userId, String cursor, int size, boolean withTotal) {
+                return scroll(userId, MatchType.EXCHANGE, cursor, size, withTotal);
+        }
+
+        private MatchSliceResponse scroll(Long userId, MatchType type, String cursor, int size, boolean withTotal) {
+                if (size < 1 || size > MAX_SLICE_SIZE) {
+                        throw new IllegalArgumentException("Size must be between 1 and " + MAX_SLICE_SIZE);
+                }
+                MatchCursor after = MatchCursor.decode(cursor);
+                MatchExclusions exclusions = activeRequestExclusions(userId);
+
+                // Fetch one extra row to know whether there is a next slice
+                List<MatchProjection> rows;
+                Long total = null;
+                String source;
+                Timer.Sample lookup = Timer.start(meterRegistry);
+                if (matchIndex.isReady()) {
+                        source = SOURCE_INDEX;
+                        List<MatchProjection> all = matchIndex.findMatches(userId, type, exclusions);
+                        rows = all.stream().filter(after::isBefore).limit(size + 1L).toList();
+                        if (withTotal) {
+                                total = (long) all.size();
+                        }
+                } else if (isPairTableEnabled()) {
+                        source = SOURCE_PAIR_TABLE;
+                        rows = switch (type) {
+                                case FREEBIE -> userPairMatchRepository.findFreebieMatchesAfter(userId,
+                                                after.matchCount(), after.userId(), size + 1);
+                                case PAYED -> userPairMatchRepository.findPayedMatchesAfter(userId,
+                                                after.matchCount(), after.userId(), size + 1);
+                                case EXCHANGE -> userPairMatchRepository.findExchangeMatchesAfter(userId,
+                                                after.matchCount(), after.userId(), size + 1);
+                        };
+                        if (withTotal) {
+                                total = switch (type) {
+                                        case FREEBIE -> userPairMatchRepository
+                                                        .countByUserIdAndFreebieCountGreaterThan(userId, 0);
+                                        case PAYED -> userPairMatchRepository
+                                                        .countByUserIdAndPayedInGreaterThan(userId, 0);
+                                        case EXCHANGE -> userPairMatchRepository
+                                                        .countByUserIdAndExchangeCountGreaterThan(userId, 0);
+                                };
+                        }
+                } else {
+                        source = SOURCE_SQL;
+                        rows = switch (type) {
+                                case FREEBIE -> cardOfferRepository.findFreebieMatchesAfter(userId,
+                                                after.matchCount(), after.userId(), size + 1);
+                                case PAYED -> cardOfferRepository.findPayedMatchesAfter(userId,
+                                                after.matchCount(), after.userId(), size + 1);
+                                case EXCHANGE -> cardOfferRepository.findExchangeMatchesAfter(userId,
+                                                after.matchCount(), after.userId(), size + 1);
+                        };
+                        if (withTotal) {
+                                total = switch (type) {
+                                        case FREEBIE -> cardOfferRepository.countFreebieMatches(userId);
+                                        case PAYED -> cardOfferRepository.countPayedMatches(userId);
+                                        case EXCHANGE -> cardOfferRepository.countExchangeMatches(userId);
+                                };
+                        }
+                }
+
+                lookup.stop(lookupTimer(type, source));
+
+                boolean hasNext = rows.size() > size;
+                List<MatchProjection> slice = hasNext ? rows.subList(0, size) : rows;
+                Page<MatchResponse> details = detailsTimer(type).record(() -> populateMatchDetails(userId,
+                                new PageImpl<>(slice), exclusions,
+                                type == MatchType.FREEBIE, type == MatchType.PAYED, type == MatchType.EXCHANGE));
+
+                return MatchSliceResponse.builder()
+                                .content(details.getContent())
+                                .hasNext(hasNext)
+                                .nextCursor(hasNext ? MatchCursor.after(slice.get(slice.size() - 1)).encode() : null)
+                                .totalElements(total)
+                                .build();
+        }
+
+        private MatchExclusions activeRequestExclusions(Long userId) {
+                return MatchExclusions.of(exchangeRequestRepository.findByRequesterIdAndStatusIn(userId,
+                                MatchExclusions.ACTIVE_STATUSES));
+        }
+
+        /**
+         * Match counts come from the in-memory index once it is loaded, else from
+         * the user_pair_matches table when enabled, else from the native queries.
+         */
+        private Page<MatchProjection> findMatches(Long userId, MatchType type, MatchExclusions exclusions,
+                        Pageable pageable) {
+                if (matchIndex.isReady()) {
+                        return lookupTimer(type, SOURCE_INDEX)
+                                        .record(() -> findIndexedMatches(userId, type, exclusions, pageable));
+                }
+                if (isPairTableEnabled()) {
+                        return lookupTimer(type, SOURCE_PAIR_TABLE).record(() -> switch (type) {
+                                case FREEBIE -> userPairMatchRepository.findFreebieMatches(userId, pageable);
+                                case PAYED -> userPairMatchRepository.findPayedMatches(userId, pageable);
+                                case EXCHANGE -> userPairMatchRepository.findExchangeMatches(userId, pageable);
+                        });
+                }
+                return lookupTimer(type, SOURCE_SQL).record(() -> switch (type) {
+                        case FREEBIE -> cardOfferRepository.findFreebieMatches(userId, pageable);
+                        case PAYED -> cardOfferRepository.findPayedMatches(userId, pageable);
+                        case EXCHANGE -> cardOfferRepository.findExchangeMatches(userId, pageable);
+                });
+        }
+
+        /**
+         * Time spent finding the partners and match counts of one page, by
+         * where they came from.
+         */
+        private Timer lookupTimer(MatchType type, String source) {
+                return Timer.builder("sammelalbum.matches.lookup")
+                                .tag("type", type.name().toLowerCase())
+                                .tag("source", source)
+                                .register(meterRegistry);
+        }
+
+        /**
+         * Time spent loading the sticker lists of the partners on one page.
+         */
+        private Timer detailsTimer(MatchType type) {
+                return Timer.builder("sammelalbum.matches.details")
+                                .tag("type", type.name().toLowerCase())
+                                .register(meterRegistry);
+        }
+
+        private boolean isPairTableEnabled() {
+                return appProperties.getMatching().getPairTable().isEnabled();
         }
 
-        private Page<MatchResponse> populateMatchDetails(Long currentUserId, Page<MatchProjection> matches,
-                        boolean isFreebie, boolean isPayed, boolean isExchange) {
+        private Page<MatchProjection> findIndexedMatches(Long userId, MatchType type, MatchExclusions exclusions,
+                        Pageable pageable) {
+                List<MatchProjection> all = matchIndex.findMatches(userId, type, exclusions);
+                if (pageable.isUnpaged()) {
+                        return new PageImpl<>(all, pageable, all.size());
+                }
+                int from = (int) Math.min(pageable.getOffset(), all.size());
+                int to = Math.min(from + pageable.getPageSize(), all.size());
+                return new PageImpl<>(all.subList(from, to), pageable, all.size());
+        }
+
+        /**
+         * Loads the sticker lists for the partners of one page. Match counts are
+         * computed with the same exclusions, so every partner on the page keeps
+         * at least one sticker and the page is never shrunk afterwards.
+         * Package-private for the JMH benchmarks.
+         */
+        Page<MatchResponse> populateMatchDetails(Long currentUserId, Page<MatchProjection> matches,
+                        MatchExclusions exclusions, boolean isFreebie, boolean isPayed, boolean isExchange) {
                 if (matches.isEmpty()) {
                         return matches.map(this::mapToResponse);
                 }
@@ -56,115 +242,80 @@ public class MatchService {
                                 .map(MatchProjection::getUserId)
                                 .toList();
 
-                System.out.println("DEBUG: populateMatchDetails - isFreebie: " + isFreebie + ", userIds: " + userIds);
-
-                // Items Requested: What partner offers that I want (Incoming)
-                Map<Long, List<MatchStickerDto>> requestedMap = cardOfferRepository
+                // Items Requested: What partner offers that I want (Incoming),
+                // without stickers I already requested from that partner
+                List<CardOffer> requestedOffers = cardOfferRepository
                                 .findMatchingOffers(currentUserId, userIds, isFreebie, isPayed, isExchange)
                                 .stream()
-                                .collect(Collectors.groupingBy(
-                                                CardOffer::getUserId,
-                                                Collectors.mapping(
-                                                                offer -> new MatchStickerDto(
-                                                                                offer.getSticker().getId(),
-                                                                                offer.getSticker().getName()),
-                                                                Collectors.toList())));
-
-                System.out.println("DEBUG: requestedMap size: " + requestedMap.size());
-                if (!requestedMap.isEmpty()) {
-                        System.out.println("DEBUG: requestedMap keys: " + requestedMap.keySet());
-                        requestedMap.forEach((k, v) -> System.out.println("DEBUG: Key: " + k + ", Val: " + v.size()));
-                }
+                                .filter(offer -> !exclusions.isRequested(offer.getUserId(), offer.getStickerId()))
+                                .toList();
 
-                // Items Offered: What I offer that partner wants (Outgoing)
-                Map<Long, List<MatchStickerDto>> offeredMap;
+                // Items Offered: What I offer that partner wants (Outgoing),
+                // without stickers I already offered that partner in an exchange
+                List<CardSearch> offeredSearches;
                 if (isExchange || isFreebie) {
-                        offeredMap = cardSearchRepository
+                        offeredSearches = cardSearchRepository
                                         .findMatchingSearches(userIds, currentUserId, isFreebie, isPayed, isExchange)
                                         .stream()
-                                        .collect(Collectors.groupingBy(
-                                                        CardSearch::getUserId,
-                                                        Collectors.mapping(
-                                                                        search -> new MatchStickerDto(
-                                                                                        search.getSticker().getId(),
-                                                                                        search.getSticker().getName()),
-                                                                        Collectors.toList())));
+                                        .filter(search -> !exclusions.isOffered(search.getUserId(),
+                                                        search.getStickerId()))
+                                        .toList();
                 } else {
-                        offeredMap = Collections.emptyMap();
+                        offeredSearches = Collections.emptyList();
                 }
 
-                // Fetch active exchange requests to filter out already requested items
-                // Optimize: Only fetch requests for the users in the current page
-                List<ExchangeRequest> activeRequests = exchangeRequestRepository
-                                .findByRequesterIdAndOffererIdIn(currentUserId, userIds).stream()
-                                .filter(req -> req.getStatus() == ExchangeStatus.INITIAL
-                                                ||
-                                                req.getStatus() == ExchangeStatus.MAIL_SEND
-                                                ||
-                                                req.getStatus() == ExchangeStatus.EXCHANGE_INTERREST)
-                                .toList();
+                Set<Long> stickerIds = new HashSet<>();
+                requestedOffers.forEach(offer -> stickerIds.add(offer.getStickerId()));
+                offeredSearches.forEach(search -> stickerIds.add(search.getStickerId()));
+                Map<Long, String> stickerNames = stickerCatalog.getNames(stickerIds);
+
+                Map<Long, List<MatchStickerDto>> requestedMap = groupStickersByUser(requestedOffers,
+                                CardOffer::getUserId, CardOffer::getStickerId, stickerNames);
+                Map<Long, List<MatchStickerDto>> offeredMap = groupStickersByUser(offeredSearches,
+                                CardSearch::getUserId, CardSearch::getStickerId, stickerNames);
 
                 List<MatchResponse> responseList = matches.getContent().stream()
                                 .map(projection -> {
                                         MatchResponse response = mapToResponse(projection);
-
-                                        // Filter requested items (what I want from partner)
                                         List<MatchStickerDto> requested = requestedMap
                                                         .getOrDefault(projection.getUserId(), Collections.emptyList());
-                                        List<MatchStickerDto> filteredRequested = requested.stream()
-                                                        .filter(item -> activeRequests.stream().noneMatch(req -> req
-                                                                        .getOffererId().equals(projection.getUserId())
-                                                                        &&
-                                                                        req.getRequestedStickerId().equals(item.getId())
-                                                                        &&
-                                                                        (req.getExchangeType() == ExchangeType.FREEBIE
-                                                                                        ||
-                                                                                        req.getExchangeType() == ExchangeType.PAYED
-                                                                                        ||
-                                                                                        req.getExchangeType() == ExchangeType.EXCHANGE)))
-                                                        .collect(Collectors.toList());
-                                        response.setItemsRequested(filteredRequested);
-
-                                        // Filter offered items (what I give to partner - only for EXCHANGE)
-                                        List<MatchStickerDto> offered = offeredMap.getOrDefault(projection.getUserId(),
-                                                        Collections.emptyList());
-                                        List<MatchStickerDto> filteredOffered = offered.stream()
-                                                        .filter(item -> activeRequests.stream().noneMatch(req -> req
-                                                                        .getOffererId().equals(projection.getUserId())
-                                                                        &&
-                                                                        req.getOfferedStickerId() != null &&
-                                                                        req.getOfferedStickerId().equals(item.getId())
-                                                                        &&
-                                                                        req.getExchangeType() == com.daspawnw.sammelalbum.model.ExchangeType.EXCHANGE))
-                                                        .collect(Collectors.toList());
-                                        response.setItemsOffered(filteredOffered);
+                                        List<MatchStickerDto> offered = offeredMap
+                                                        .getOrDefault(projection.getUserId(), Collections.emptyList());
+                                        response.setItemsRequested(requested);
+                                        response.setItemsOffered(offered);
 
                                         // Update count
                                         if (isExchange) {
-                                                response.setExchangeableCount((long) Math.min(filteredRequested.size(),
-                                                                filteredOffered.size()));
+                                                response.setExchangeableCount(
+                                                                (long) Math.min(requested.size(), offered.size()));
                                         } else {
-                                                response.setExchangeableCount((long) filteredRequested.size());
+                                                response.setExchangeableCount((long) requested.size());
                                         }
 
                                         return response;
                                 })
-                                .filter(response -> {
-                                        if (isExchange) {
-                                                return !response.getItemsRequested().isEmpty()
-                                                                && !response.getItemsOffered().isEmpty();
-                                        } else if (isFreebie) {
-                                                return !response.getItemsRequested().isEmpty()
-                                                                || !response.getItemsOffered().isEmpty();
-                                        } else {
-                                                return !response.getItemsRequested().isEmpty();
-                                        }
-                                })
                                 .collect(Collectors.toList());
 
-                System.out.println("DEBUG: Final responseList size: " + responseList.size());
-                return new org.springframework.data.domain.PageImpl<>(responseList, matches.getPageable(),
-                                matches.getTotalElements());
+                return new PageImpl<>(responseList, matches.getPageable(), matches.getTotalElements());
+        }
+
+        // The queries return one row per copy; a sticker is listed (and counted) once per partner,
+        // as in the match counts the list is sorted by
+        static <T> Map<Long, List<MatchStickerDto>> groupStickersByUser(List<T> cards, Function<T, Long> userId,
+                        Function<T, Long> stickerId, Map<Long, String> stickerNames) {
+                return cards.stream()
+                                .collect(Collectors.groupingBy(
+                                                userId,
+                                                Collectors.collectingAndThen(
+                                                                Collectors.toMap(
+                                                                                stickerId,
+                                                                                card -> new MatchStickerDto(
+                                                                                                stickerId.apply(card),
+                                                                                                stickerNames.get(stickerId
+                                                                                                                .apply(card))),
+                                                                                (first, copy) -> first,
+                                                                                LinkedHashMap::new),
+                                                                stickers -> List.copyOf(stickers.values()))));
         }
 
         private MatchResponse mapToResponse(MatchProjection projection) {
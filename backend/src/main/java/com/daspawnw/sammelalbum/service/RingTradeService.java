@@ -0,0 +1,79 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.dto.MatchDtos.MatchStickerDto;
+import com.daspawnw.sammelalbum.dto.MatchDtos.RingHopDto;
+import com.daspawnw.sammelalbum.dto.MatchDtos.RingMatchResponse;
+import com.daspawnw.sammelalbum.service.match.MatchIndex;
+import com.daspawnw.sammelalbum.service.match.RingTrade;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds multi-party exchanges (A gives to B, B gives to C, C gives to A) on top
+ * of the in-memory match index. There is no SQL fallback: while the index is
+ * not loaded, no rings are returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class RingTradeService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final MatchIndex matchIndex;
+    private final StickerCatalog stickerCatalog;
+    private final AppProperties appProperties;
+
+    @Transactional(readOnly = true)
+    public List<RingMatchResponse> getRingMatches(Long userId, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (!matchIndex.isReady()) {
+            return Collections.emptyList();
+        }
+
+        AppProperties.RingProperties ring = appProperties.getMatching().getRing();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ring.getTimeBudgetMs());
+        List<RingTrade> rings = matchIndex.findRings(userId, ring.getMaxHops(), ring.getMaxFanOut(), deadline,
+                limit);
+        if (rings.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> stickerIds = rings.stream()
+                .flatMap(r -> r.hopStickerIds().stream())
+                .flatMap(List::stream)
+                .distinct()
+                .toList();
+        Map<Long, String> stickerNames = stickerCatalog.getNames(stickerIds);
+
+        return rings.stream()
+                .map(r -> mapToResponse(r, stickerNames))
+                .toList();
+    }
+
+    private RingMatchResponse mapToResponse(RingTrade ring, Map<Long, String> stickerNames) {
+        List<RingHopDto> hops = new ArrayList<>(ring.hops());
+        for (int i = 0; i < ring.hops(); i++) {
+            hops.add(RingHopDto.builder()
+                    .fromUserId(ring.userIds().get(i))
+                    .toUserId(ring.userIds().get((i + 1) % ring.hops()))
+                    .stickers(ring.hopStickerIds().get(i).stream()
+                            .map(id -> new MatchStickerDto(id, stickerNames.get(id)))
+                            .toList())
+                    .build());
+        }
+        return RingMatchResponse.builder()
+                .stickersSatisfied(ring.stickersSatisfied())
+                .hops(hops)
+                .build();
+    }
+}
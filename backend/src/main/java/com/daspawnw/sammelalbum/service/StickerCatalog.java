@@ -0,0 +1,170 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.model.Sticker;
+import com.daspawnw.sammelalbum.repository.StickerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only view of the sticker table. Stickers are only changed by
+ * migrations, so the whole table is held as an immutable snapshot of two
+ * sorted arrays and looked up by binary search. The snapshot is loaded on
+ * startup and reloaded periodically; a reload replaces it atomically.
+ * <p>
+ * When disabled (or before the first load) every lookup goes to the
+ * database.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StickerCatalog {
+
+    private final StickerRepository stickerRepository;
+    private final AppProperties appProperties;
+
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadIfEnabled();
+    }
+
+    @Scheduled(fixedDelayString = "${app.sticker-catalog.reload-interval-ms:600000}",
+            initialDelayString = "${app.sticker-catalog.reload-interval-ms:600000}")
+    public void scheduledReload() {
+        reloadIfEnabled();
+    }
+
+    private void reloadIfEnabled() {
+        if (!appProperties.getStickerCatalog().isEnabled()) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot (or the database, if there is none yet)
+            log.error("Failed to load sticker catalog", e);
+        }
+    }
+
+    public void reload() {
+        List<Sticker> stickers = stickerRepository.findAll(Sort.by("id"));
+        long[] ids = new long[stickers.size()];
+        String[] names = new String[stickers.size()];
+        for (int i = 0; i < stickers.size(); i++) {
+            ids[i] = stickers.get(i).getId();
+            names[i] = stickers.get(i).getName();
+        }
+        Snapshot loaded = new Snapshot(ids, names);
+        if (!loaded.equals(snapshot)) {
+            log.info("Sticker catalog loaded with {} stickers", ids.length);
+        }
+        snapshot = loaded;
+    }
+
+    public boolean exists(Long stickerId) {
+        Snapshot current = current();
+        if (current == null) {
+            return stickerRepository.existsById(stickerId);
+        }
+        return current.indexOf(stickerId) >= 0;
+    }
+
+    /**
+     * @return the sticker name, or {@code null} if there is no such sticker
+     */
+    public String getName(Long stickerId) {
+        Snapshot current = current();
+        if (current == null) {
+            return stickerRepository.findById(stickerId).map(Sticker::getName).orElse(null);
+        }
+        int index = current.indexOf(stickerId);
+        return index >= 0 ? current.names[index] : null;
+    }
+
+    /**
+     * @return names by sticker ID; unknown IDs are left out
+     */
+    public Map<Long, String> getNames(Collection<Long> stickerIds) {
+        if (stickerIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Snapshot current = current();
+        if (current == null) {
+            return stickerRepository.findAllById(stickerIds).stream()
+                    .collect(Collectors.toMap(Sticker::getId, Sticker::getName));
+        }
+        Map<Long, String> names = new HashMap<>();
+        for (Long stickerId : stickerIds) {
+            int index = current.indexOf(stickerId);
+            if (index >= 0) {
+                names.put(stickerId, current.names[index]);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Set-based existence check for bulk requests: a single lookup for all
+     * distinct IDs.
+     *
+     * @return the IDs that are not in the catalog, in ascending order
+     */
+    public SortedSet<Long> findUnknown(Collection<Long> stickerIds) {
+        Set<Long> distinct = new HashSet<>(stickerIds);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            return Collections.emptySortedSet();
+        }
+        Snapshot current = current();
+        SortedSet<Long> unknown = new TreeSet<>(distinct);
+        if (current == null) {
+            stickerRepository.findAllById(distinct).forEach(sticker -> unknown.remove(sticker.getId()));
+        } else {
+            unknown.removeIf(stickerId -> current.indexOf(stickerId) >= 0);
+        }
+        return unknown;
+    }
+
+    private Snapshot current() {
+        return appProperties.getStickerCatalog().isEnabled() ? snapshot : null;
+    }
+
+    private record Snapshot(long[] ids, String[] names) {
+
+        int indexOf(Long stickerId) {
+            return stickerId == null ? -1 : Arrays.binarySearch(ids, stickerId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Snapshot other
+                    && Arrays.equals(ids, other.ids)
+                    && Arrays.equals(names, other.names);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(ids), Arrays.hashCode(names));
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.daspawnw.sammelalbum.service;
 import com.daspawnw.sammelalbum.model.*;
 import com.daspawnw.sammelalbum.repository.*;
 import lombok.RequiredArgsConstructor;
+import com.daspawnw.sammelalbum.service.match.CardInventoryChangedEvent;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ public class UserDeletionService {
     private final CardSearchRepository cardSearchRepository;
     private final CredentialsRepository credentialsRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Deletes a user and all associated data.
@@ -57,6 +60,7 @@ public class UserDeletionService {
 
         // Step 4: Delete credentials (which cascades to user)
         deleteUserAndCredentials(userId);
+        eventPublisher.publishEvent(new UserDeletedEvent(userId));
 
         log.info("Successfully deleted user ID: {}", userId);
     }
@@ -116,6 +120,7 @@ public class UserDeletionService {
                     .ifPresent(offer -> {
                         offer.setIsReserved(false);
                         cardOfferRepository.save(offer);
+                        publishOfferChanged(offer);
                         log.debug("Unreserved offerer's card offer ID: {}", offer.getId());
                     });
         }
@@ -127,6 +132,7 @@ public class UserDeletionService {
                     .ifPresent(search -> {
                         search.setIsReserved(false);
                         cardSearchRepository.save(search);
+                        publishSearchChanged(search);
                         log.debug("Unreserved offerer's card search ID: {}", search.getId());
                     });
         }
@@ -143,6 +149,7 @@ public class UserDeletionService {
                     .ifPresent(search -> {
                         search.setIsReserved(false);
                         cardSearchRepository.save(search);
+                        publishSearchChanged(search);
                         log.debug("Unreserved requester's card search ID: {}", search.getId());
                     });
         }
@@ -154,6 +161,7 @@ public class UserDeletionService {
                     .ifPresent(offer -> {
                         offer.setIsReserved(false);
                         cardOfferRepository.save(offer);
+                        publishOfferChanged(offer);
                         log.debug("Unreserved requester's card offer ID: {}", offer.getId());
                     });
         }
@@ -169,6 +177,8 @@ public class UserDeletionService {
 
         if (count > 0) {
             cardOfferRepository.deleteAll(offers);
+            eventPublisher.publishEvent(CardInventoryChangedEvent.offers(userId,
+                    offers.stream().map(CardOffer::getStickerId).toList()));
             log.debug("Deleted {} card offers for user ID: {}", count, userId);
         }
     }
@@ -183,6 +193,8 @@ public class UserDeletionService {
 
         if (count > 0) {
             cardSearchRepository.deleteAll(searches);
+            eventPublisher.publishEvent(CardInventoryChangedEvent.searches(userId,
+                    searches.stream().map(CardSearch::getStickerId).toList()));
             log.debug("Deleted {} card searches for user ID: {}", count, userId);
         }
     }
@@ -201,4 +213,13 @@ public class UserDeletionService {
                     log.debug("Deleted credentials and user for user ID: {}", userId);
                 });
     }
+
+    private void publishOfferChanged(CardOffer offer) {
+        eventPublisher.publishEvent(CardInventoryChangedEvent.offers(offer.getUserId(), List.of(offer.getStickerId())));
+    }
+
+    private void publishSearchChanged(CardSearch search) {
+        eventPublisher.publishEvent(
+                CardInventoryChangedEvent.searches(search.getUserId(), List.of(search.getStickerId())));
+    }
 }
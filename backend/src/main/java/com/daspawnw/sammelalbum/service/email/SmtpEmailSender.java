@@ -1,17 +1,29 @@
 package com.daspawnw.sammelalbum.service.email;
 
 import com.daspawnw.sammelalbum.model.EmailOutbox;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Sends emails over SMTP. Every dispatch worker thread keeps its own
+ * connected transport and reuses it for the following emails instead of
+ * opening a connection (and TLS/auth handshake) per email. A transport that
+ * failed or was dropped by the server is replaced on the next send.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -20,6 +32,9 @@ public class SmtpEmailSender implements EmailSender {
 
     private final JavaMailSender javaMailSender;
 
+    private final ThreadLocal<Transport> transports = new ThreadLocal<>();
+    private final Set<Transport> openTransports = ConcurrentHashMap.newKeySet();
+
     @org.springframework.beans.factory.annotation.Value("${app.mail.from:noreply@sammelalbum.com}")
     private String fromAddress;
 
@@ -37,7 +52,11 @@ public class SmtpEmailSender implements EmailSender {
             helper.setText(email.getBody(), true); // true = isHtml
             helper.setFrom(fromAddress);
 
-            javaMailSender.send(message);
+            if (javaMailSender instanceof JavaMailSenderImpl mailSender) {
+                sendOverPooledTransport(mailSender, message);
+            } else {
+                javaMailSender.send(message);
+            }
 
             log.info("Email sent successfully via SMTP to: {}", email.getRecipientEmail());
         } catch (MessagingException e) {
@@ -48,4 +67,58 @@ public class SmtpEmailSender implements EmailSender {
             throw new RuntimeException("Failed to send email", e);
         }
     }
+
+    @PreDestroy
+    public void closeTransports() {
+        openTransports.forEach(SmtpEmailSender::closeQuietly);
+        openTransports.clear();
+    }
+
+    private void sendOverPooledTransport(JavaMailSenderImpl mailSender, MimeMessage message)
+            throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+
+        Transport transport = connectedTransport(mailSender);
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException e) {
+            // The connection may be in an unknown state, open a new one next time
+            discard(transport);
+            throw e;
+        }
+    }
+
+    private Transport connectedTransport(JavaMailSenderImpl mailSender) throws MessagingException {
+        Transport transport = transports.get();
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        if (transport != null) {
+            discard(transport);
+        }
+
+        transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+                mailSender.getPassword());
+        transports.set(transport);
+        openTransports.add(transport);
+        return transport;
+    }
+
+    private void discard(Transport transport) {
+        transports.remove();
+        openTransports.remove(transport);
+        closeQuietly(transport);
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP transport", e);
+        }
+    }
 }
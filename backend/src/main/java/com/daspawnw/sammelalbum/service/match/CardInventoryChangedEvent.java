@@ -0,0 +1,20 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever card offers or searches of a user are created, updated,
+ * deleted, reserved or unreserved. Only carries the affected sticker IDs; the
+ * consumer re-reads the current state of exactly these stickers for the user.
+ */
+public record CardInventoryChangedEvent(Long userId, Set<Long> offerStickerIds, Set<Long> searchStickerIds) {
+
+    public static CardInventoryChangedEvent offers(Long userId, Collection<Long> stickerIds) {
+        return new CardInventoryChangedEvent(userId, Set.copyOf(stickerIds), Set.of());
+    }
+
+    public static CardInventoryChangedEvent searches(Long userId, Collection<Long> stickerIds) {
+        return new CardInventoryChangedEvent(userId, Set.of(), Set.copyOf(stickerIds));
+    }
+}
@@ -0,0 +1,33 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.repository.CardStockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the card_offer_stock / card_search_stock tables in sync with the card
+ * rows. Runs synchronously inside the publishing transaction, so the match
+ * queries never see a stock that differs from the committed cards. Ordered
+ * first, the user_pair_matches refresh reads the stock written here.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardStockUpdater {
+
+    private final CardStockRepository cardStockRepository;
+
+    @EventListener
+    @Order(0)
+    @Transactional
+    public void onCardInventoryChanged(CardInventoryChangedEvent event) {
+        if (!event.offerStickerIds().isEmpty()) {
+            cardStockRepository.refreshOfferStock(event.userId(), event.offerStickerIds());
+        }
+        if (!event.searchStickerIds().isEmpty()) {
+            cardStockRepository.refreshSearchStock(event.userId(), event.searchStickerIds());
+        }
+    }
+}
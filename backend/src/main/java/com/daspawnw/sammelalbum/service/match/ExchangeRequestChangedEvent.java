@@ -0,0 +1,9 @@
+package com.daspawnw.sammelalbum.service.match;
+
+/**
+ * Published whenever an exchange request is created or leaves the active
+ * states (canceled or completed). Active requests exclude stickers from the
+ * matches of their requester with the offerer.
+ */
+public record ExchangeRequestChangedEvent(Long requesterId, Long offererId) {
+}
@@ -0,0 +1,47 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.repository.MatchProjection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a match list ordered by match count (descending) and user ID.
+ * Clients only see the opaque {@link #encode() encoded} form.
+ */
+public record MatchCursor(long matchCount, long userId) {
+
+    /** Position before the first match. */
+    public static final MatchCursor START = new MatchCursor(Long.MAX_VALUE, 0L);
+
+    public static MatchCursor after(MatchProjection projection) {
+        return new MatchCursor(projection.getMatchCount(), projection.getUserId());
+    }
+
+    /**
+     * Returns true if the given match comes after this cursor.
+     */
+    public boolean isBefore(MatchProjection projection) {
+        return projection.getMatchCount() < matchCount
+                || (projection.getMatchCount() == matchCount && projection.getUserId() > userId);
+    }
+
+    public String encode() {
+        String raw = matchCount + ":" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MatchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new MatchCursor(Long.parseLong(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stickers that must not be counted or listed for a match partner because the
+ * current user already has an active exchange request for them. Keyed by
+ * partner (offerer) and sticker, so every lookup is a hash and bit access.
+ */
+public final class MatchExclusions {
+
+    public static final List<ExchangeStatus> ACTIVE_STATUSES = List.of(
+            ExchangeStatus.INITIAL, ExchangeStatus.MAIL_SEND, ExchangeStatus.EXCHANGE_INTERREST);
+
+    private static final MatchExclusions NONE = new MatchExclusions();
+
+    // Partner -> stickers I already requested from them (any type)
+    private final Map<Long, BitSet> requested = new HashMap<>();
+    // Partner -> stickers I already offered them in an exchange request
+    private final Map<Long, BitSet> offered = new HashMap<>();
+
+    private MatchExclusions() {
+    }
+
+    public static MatchExclusions none() {
+        return NONE;
+    }
+
+    /**
+     * Builds the exclusions from the active requests sent by the current user.
+     * Requests in other states are ignored.
+     */
+    public static MatchExclusions of(Collection<ExchangeRequest> sentRequests) {
+        MatchExclusions exclusions = new MatchExclusions();
+        for (ExchangeRequest request : sentRequests) {
+            if (!ACTIVE_STATUSES.contains(request.getStatus())) {
+                continue;
+            }
+            exclusions.requested.computeIfAbsent(request.getOffererId(), id -> new BitSet())
+                    .set(Math.toIntExact(request.getRequestedStickerId()));
+            if (request.getExchangeType() == ExchangeType.EXCHANGE && request.getOfferedStickerId() != null) {
+                exclusions.offered.computeIfAbsent(request.getOffererId(), id -> new BitSet())
+                        .set(Math.toIntExact(request.getOfferedStickerId()));
+            }
+        }
+        return exclusions;
+    }
+
+    public boolean isRequested(Long partnerId, Long stickerId) {
+        BitSet stickers = requested.get(partnerId);
+        return stickers != null && stickers.get(Math.toIntExact(stickerId));
+    }
+
+    public boolean isOffered(Long partnerId, Long stickerId) {
+        BitSet stickers = offered.get(partnerId);
+        return stickers != null && stickers.get(Math.toIntExact(stickerId));
+    }
+
+    BitSet requested(Long partnerId) {
+        return requested.get(partnerId);
+    }
+
+    BitSet offered(Long partnerId) {
+        return offered.get(partnerId);
+    }
+}
@@ -0,0 +1,495 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.repository.MatchProjection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory match index. Keeps, per user, one bitset per card kind (offered as
+ * freebie, payed, exchange and searched) indexed by sticker ID, plus an inverted
+ * sticker -> users posting list per kind. Reserved cards are never part of the
+ * index. Match counts are computed from bitset intersections instead of the
+ * native UNION/CTE queries in CardOfferRepository.
+ *
+ * The index is empty and not ready until a {@link Builder} has been installed
+ * (see MatchIndexLoader); callers are expected to fall back to SQL until then.
+ * Afterwards it is kept up to date with {@link UserUpdate}s, which only touch
+ * the bits and postings of the changed user and stickers.
+ *
+ * Every read from the database is stamped from one sequence: a rebuild before
+ * it starts reading, an update once its read has finished. An update whose
+ * read finished before the current state (or a running rebuild) started
+ * reading is older than that state and is ignored. Updates newer than the
+ * state are applied in the order they arrive, so they must be applied by a
+ * single thread (see MatchIndexUpdater).
+ */
+@Component
+public class MatchIndex {
+
+    static final int FREEBIE = 0;
+    static final int PAYED = 1;
+    static final int EXCHANGE = 2;
+    static final int SEARCHED = 3;
+    private static final int KINDS = 4;
+
+    private static final Comparator<MatchProjection> BY_COUNT_DESC_THEN_USER = Comparator
+            .comparing(MatchProjection::getMatchCount, Comparator.reverseOrder())
+            .thenComparing(MatchProjection::getUserId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong readStamps = new AtomicLong();
+    private State state = new State(0);
+    private volatile boolean ready;
+    // Updates applied while a full rebuild is running; replayed onto the new state
+    private List<StampedUpdate> pendingUpdates;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Next stamp of the read sequence. Take it right after the cards of an
+     * update have been read and pass it to {@link #apply(UserUpdate, long)}.
+     */
+    public long readStamp() {
+        return readStamps.incrementAndGet();
+    }
+
+    /**
+     * Starts a full rebuild. Updates applied from now on are remembered and
+     * replayed when the builder is installed, so no change committed while the
+     * builder is being filled gets lost.
+     */
+    public Builder builder() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+            return new Builder(readStamp());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atomically replaces the whole index with the contents of the given builder
+     * and marks the index as ready.
+     */
+    public void install(Builder builder) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null) {
+                pendingUpdates.stream()
+                        .filter(pending -> pending.readStamp() > builder.state.readStamp)
+                        .forEach(pending -> builder.state.apply(pending.update()));
+                pendingUpdates = null;
+            }
+            state = builder.state;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aborts a rebuild started with {@link #builder()}.
+     */
+    public void cancelBuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public UserUpdate userUpdate(Long userId, Collection<Long> offerStickerIds, Collection<Long> searchStickerIds) {
+        return new UserUpdate(userId, offerStickerIds, searchStickerIds);
+    }
+
+    /**
+     * Replaces the offered and searched bits of one user for the stickers in the
+     * scope of the update. Other users and stickers are not touched.
+     */
+    public void apply(UserUpdate update) {
+        apply(update, readStamp());
+    }
+
+    /**
+     * Same as {@link #apply(UserUpdate)} for an update whose cards were read
+     * before {@code readStamp} was taken. Ignored if the index state was read
+     * later than that.
+     */
+    public void apply(UserUpdate update, long readStamp) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(new StampedUpdate(update, readStamp));
+            }
+            if (ready && readStamp > state.readStamp) {
+                state.apply(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all partners of the given user for the given match type, ordered by
+     * match count (descending) and user ID, using the same counting rules as the
+     * SQL queries: freebie counts stickers in both directions, payed only
+     * incoming stickers, and exchange the smaller side of a mutual swap.
+     */
+    public List<MatchProjection> findMatches(Long userId, MatchType type) {
+        return findMatches(userId, type, MatchExclusions.none());
+    }
+
+    /**
+     * Same as {@link #findMatches(Long, MatchType)}, but does not count stickers
+     * the user already has an active request for with the respective partner.
+     */
+    public List<MatchProjection> findMatches(Long userId, MatchType type, MatchExclusions exclusions) {
+        lock.readLock().lock();
+        try {
+            Integer slot = state.slots.get(userId);
+            if (slot == null) {
+                return Collections.emptyList();
+            }
+            BitSet[] me = state.cards.get(slot).sets;
+
+            BitSet candidates = new BitSet();
+            switch (type) {
+                case FREEBIE -> {
+                    state.collectUsers(candidates, FREEBIE, me[SEARCHED]);
+                    state.collectUsers(candidates, SEARCHED, me[FREEBIE]);
+                }
+                case PAYED -> state.collectUsers(candidates, PAYED, me[SEARCHED]);
+                case EXCHANGE -> state.collectUsers(candidates, EXCHANGE, me[SEARCHED]);
+            }
+            candidates.clear(slot);
+
+            List<MatchProjection> matches = new ArrayList<>();
+            for (int other = candidates.nextSetBit(0); other >= 0; other = candidates.nextSetBit(other + 1)) {
+                UserCards partner = state.cards.get(other);
+                long count = matchCount(type, me, partner.sets,
+                        exclusions.requested(partner.userId), exclusions.offered(partner.userId));
+                if (count > 0) {
+                    matches.add(new IndexedMatch(partner.userId, count));
+                }
+            }
+            matches.sort(BY_COUNT_DESC_THEN_USER);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds exchange cycles of 3 up to {@code maxHops} users that start and end
+     * at the given user, where every user can give at least one sticker (offered
+     * for exchange) to the next one. Uses the search postings as adjacency,
+     * follows at most {@code maxFanOut} best neighbours per user and stops
+     * expanding once {@code deadlineNanos} (System.nanoTime) has passed.
+     * Results are ranked by stickers satisfied, then by fewer hops.
+     */
+    public List<RingTrade> findRings(Long userId, int maxHops, int maxFanOut, long deadlineNanos, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer slot = state.slots.get(userId);
+            if (slot == null) {
+                return Collections.emptyList();
+            }
+            RingSearch search = new RingSearch(slot, maxHops, maxFanOut, deadlineNanos);
+            search.expand(1);
+
+            search.rings.sort(Comparator.comparingLong(RingTrade::stickersSatisfied).reversed()
+                    .thenComparingInt(RingTrade::hops));
+            return search.rings.size() > limit ? List.copyOf(search.rings.subList(0, limit)) : search.rings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Depth-first search for cycles through the start slot. Must run under the
+     * read lock.
+     */
+    private final class RingSearch {
+        private final int start;
+        private final int maxHops;
+        private final int maxFanOut;
+        private final long deadlineNanos;
+        private final int[] path;
+        private final Map<Integer, int[]> neighbourCache = new HashMap<>();
+        private final List<RingTrade> rings = new ArrayList<>();
+
+        private RingSearch(int start, int maxHops, int maxFanOut, long deadlineNanos) {
+            this.start = start;
+            this.maxHops = maxHops;
+            this.maxFanOut = maxFanOut;
+            this.deadlineNanos = deadlineNanos;
+            this.path = new int[maxHops];
+            this.path[0] = start;
+        }
+
+        private void expand(int length) {
+            int current = path[length - 1];
+            if (length >= 3 && canGive(current, start)) {
+                record(length);
+            }
+            if (length == maxHops || System.nanoTime() > deadlineNanos) {
+                return;
+            }
+            for (int next : neighbours(current)) {
+                if (!onPath(next, length)) {
+                    path[length] = next;
+                    expand(length + 1);
+                }
+            }
+        }
+
+        private boolean onPath(int slot, int length) {
+            for (int i = 0; i < length; i++) {
+                if (path[i] == slot) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean canGive(int giver, int receiver) {
+            return state.cards.get(giver).sets[EXCHANGE].intersects(state.cards.get(receiver).sets[SEARCHED]);
+        }
+
+        // Users that search at least one of the giver's exchange stickers, best overlap first
+        private int[] neighbours(int giver) {
+            return neighbourCache.computeIfAbsent(giver, g -> {
+                BitSet offered = state.cards.get(g).sets[EXCHANGE];
+                BitSet candidates = new BitSet();
+                state.collectUsers(candidates, SEARCHED, offered);
+                candidates.clear(g);
+                candidates.clear(start);
+
+                List<int[]> scored = new ArrayList<>();
+                for (int c = candidates.nextSetBit(0); c >= 0; c = candidates.nextSetBit(c + 1)) {
+                    scored.add(new int[] { c, intersectionSize(offered, state.cards.get(c).sets[SEARCHED], null) });
+                }
+                scored.sort(Comparator.<int[]>comparingInt(e -> e[1]).reversed().thenComparingInt(e -> e[0]));
+                return scored.stream().limit(maxFanOut).mapToInt(e -> e[0]).toArray();
+            });
+        }
+
+        private void record(int length) {
+            List<Long> userIds = new ArrayList<>(length);
+            List<List<Long>> hopStickerIds = new ArrayList<>(length);
+            int minOverlap = Integer.MAX_VALUE;
+            for (int i = 0; i < length; i++) {
+                BitSet given = (BitSet) state.cards.get(path[i]).sets[EXCHANGE].clone();
+                given.and(state.cards.get(path[(i + 1) % length]).sets[SEARCHED]);
+                userIds.add(state.cards.get(path[i]).userId);
+                hopStickerIds.add(given.stream().mapToObj(Long::valueOf).toList());
+                minOverlap = Math.min(minOverlap, given.cardinality());
+            }
+            // Every user in the ring receives at least minOverlap stickers
+            rings.add(new RingTrade(userIds, hopStickerIds, (long) minOverlap * length));
+        }
+    }
+
+    // excludedIncoming/excludedOutgoing may be null when nothing is excluded
+    private static long matchCount(MatchType type, BitSet[] me, BitSet[] partner,
+            BitSet excludedIncoming, BitSet excludedOutgoing) {
+        return switch (type) {
+            case FREEBIE -> intersectionSize(partner[FREEBIE], me[SEARCHED], excludedIncoming)
+                    + intersectionSize(me[FREEBIE], partner[SEARCHED], excludedOutgoing);
+            case PAYED -> intersectionSize(partner[PAYED], me[SEARCHED], excludedIncoming);
+            case EXCHANGE -> Math.min(intersectionSize(partner[EXCHANGE], me[SEARCHED], excludedIncoming),
+                    intersectionSize(me[EXCHANGE], partner[SEARCHED], excludedOutgoing));
+        };
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b, BitSet excluded) {
+        if (!a.intersects(b)) {
+            return 0;
+        }
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        if (excluded != null) {
+            intersection.andNot(excluded);
+        }
+        return intersection.cardinality();
+    }
+
+    private static int stickerBit(Long stickerId) {
+        return Math.toIntExact(stickerId);
+    }
+
+    /**
+     * Collects the cards of a full index load. Reserved cards must not be added.
+     */
+    public static final class Builder {
+
+        private final State state;
+
+        private Builder(long readStamp) {
+            this.state = new State(readStamp);
+        }
+
+        public Builder addOffer(Long userId, Long stickerId, boolean freebie, boolean payed, boolean exchange) {
+            int sticker = stickerBit(stickerId);
+            if (freebie) {
+                state.set(userId, FREEBIE, sticker);
+            }
+            if (payed) {
+                state.set(userId, PAYED, sticker);
+            }
+            if (exchange) {
+                state.set(userId, EXCHANGE, sticker);
+            }
+            return this;
+        }
+
+        public Builder addSearch(Long userId, Long stickerId) {
+            state.set(userId, SEARCHED, stickerBit(stickerId));
+            return this;
+        }
+    }
+
+    /**
+     * Current unreserved cards of one user, restricted to the given sticker
+     * scopes. Stickers in scope that are not added end up cleared in the index.
+     */
+    public static final class UserUpdate {
+
+        private final Long userId;
+        private final BitSet offerScope = new BitSet();
+        private final BitSet searchScope = new BitSet();
+        private final BitSet[] sets = new BitSet[KINDS];
+
+        private UserUpdate(Long userId, Collection<Long> offerStickerIds, Collection<Long> searchStickerIds) {
+            this.userId = userId;
+            offerStickerIds.forEach(stickerId -> offerScope.set(stickerBit(stickerId)));
+            searchStickerIds.forEach(stickerId -> searchScope.set(stickerBit(stickerId)));
+            for (int kind = 0; kind < KINDS; kind++) {
+                sets[kind] = new BitSet();
+            }
+        }
+
+        public UserUpdate addOffer(Long stickerId, boolean freebie, boolean payed, boolean exchange) {
+            int sticker = stickerBit(stickerId);
+            if (!offerScope.get(sticker)) {
+                throw new IllegalArgumentException("Sticker " + stickerId + " is not part of the update");
+            }
+            sets[FREEBIE].set(sticker, sets[FREEBIE].get(sticker) || freebie);
+            sets[PAYED].set(sticker, sets[PAYED].get(sticker) || payed);
+            sets[EXCHANGE].set(sticker, sets[EXCHANGE].get(sticker) || exchange);
+            return this;
+        }
+
+        public UserUpdate addSearch(Long stickerId) {
+            int sticker = stickerBit(stickerId);
+            if (!searchScope.get(sticker)) {
+                throw new IllegalArgumentException("Sticker " + stickerId + " is not part of the update");
+            }
+            sets[SEARCHED].set(sticker);
+            return this;
+        }
+
+        private BitSet scope(int kind) {
+            return kind == SEARCHED ? searchScope : offerScope;
+        }
+    }
+
+    private record StampedUpdate(UserUpdate update, long readStamp) {
+    }
+
+    private static final class UserCards {
+        private final Long userId;
+        private final BitSet[] sets = new BitSet[KINDS];
+
+        private UserCards(Long userId) {
+            this.userId = userId;
+            for (int kind = 0; kind < KINDS; kind++) {
+                sets[kind] = new BitSet();
+            }
+        }
+    }
+
+    private static final class State {
+        // Stamp taken before the full load this state was built from started
+        private final long readStamp;
+        // Users are addressed by a dense slot so that posting lists can be bitsets
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final List<UserCards> cards = new ArrayList<>();
+        // Per kind: sticker -> slots of the users holding that sticker
+        private final List<Map<Integer, BitSet>> postings = List.of(
+                new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+
+        private State(long readStamp) {
+            this.readStamp = readStamp;
+        }
+
+        private int slotOf(Long userId) {
+            return slots.computeIfAbsent(userId, id -> {
+                cards.add(new UserCards(id));
+                return cards.size() - 1;
+            });
+        }
+
+        private void set(Long userId, int kind, int sticker) {
+            int slot = slotOf(userId);
+            cards.get(slot).sets[kind].set(sticker);
+            postings.get(kind).computeIfAbsent(sticker, s -> new BitSet()).set(slot);
+        }
+
+        private void apply(UserUpdate update) {
+            int slot = slotOf(update.userId);
+            BitSet[] sets = cards.get(slot).sets;
+            for (int kind = 0; kind < KINDS; kind++) {
+                BitSet scope = update.scope(kind);
+                Map<Integer, BitSet> posting = postings.get(kind);
+                for (int sticker = scope.nextSetBit(0); sticker >= 0; sticker = scope.nextSetBit(sticker + 1)) {
+                    if (update.sets[kind].get(sticker)) {
+                        sets[kind].set(sticker);
+                        posting.computeIfAbsent(sticker, s -> new BitSet()).set(slot);
+                    } else if (sets[kind].get(sticker)) {
+                        sets[kind].clear(sticker);
+                        BitSet users = posting.get(sticker);
+                        users.clear(slot);
+                        if (users.isEmpty()) {
+                            posting.remove(sticker);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void collectUsers(BitSet target, int kind, BitSet stickers) {
+            Map<Integer, BitSet> posting = postings.get(kind);
+            for (int sticker = stickers.nextSetBit(0); sticker >= 0; sticker = stickers.nextSetBit(sticker + 1)) {
+                BitSet users = posting.get(sticker);
+                if (users != null) {
+                    target.or(users);
+                }
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class IndexedMatch implements MatchProjection {
+        private final Long userId;
+        private final Long matchCount;
+    }
+}
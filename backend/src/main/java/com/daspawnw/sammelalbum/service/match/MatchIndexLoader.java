@@ -0,0 +1,77 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.CardSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads the {@link MatchIndex} from the database on startup and rebuilds it
+ * periodically. The index lives in memory of each instance, so the rebuild is
+ * intentionally not guarded by a ShedLock. Between rebuilds, changes made on
+ * any instance are applied by {@link MatchIndexUpdater}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MatchIndexLoader {
+
+    private final MatchIndex matchIndex;
+    private final CardOfferRepository cardOfferRepository;
+    private final CardSearchRepository cardSearchRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final AppProperties appProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildIfEnabled();
+    }
+
+    @Scheduled(cron = "${app.matching.index.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        rebuildIfEnabled();
+    }
+
+    private void rebuildIfEnabled() {
+        if (!appProperties.getMatching().getIndex().isEnabled()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep serving the previous index (or SQL, if there is none yet)
+            matchIndex.cancelBuild();
+            log.error("Failed to rebuild match index", e);
+        }
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        MatchIndex.Builder builder = transactionTemplate.execute(status -> {
+            MatchIndex.Builder b = matchIndex.builder();
+            try (var offers = cardOfferRepository.streamUnreservedOffers()) {
+                offers.forEach(offer -> b.addOffer(offer.getUserId(), offer.getStickerId(),
+                        Boolean.TRUE.equals(offer.getOfferFreebie()),
+                        Boolean.TRUE.equals(offer.getOfferPayed()),
+                        Boolean.TRUE.equals(offer.getOfferExchange())));
+            }
+            try (var searches = cardSearchRepository.streamUnreservedSearches()) {
+                searches.forEach(search -> b.addSearch(search.getUserId(), search.getStickerId()));
+            }
+            return b;
+        });
+
+        matchIndex.install(builder);
+        log.info("Match index rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+}
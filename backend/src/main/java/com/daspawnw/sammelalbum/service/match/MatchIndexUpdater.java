@@ -0,0 +1,249 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.model.MatchIndexChange;
+import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.CardSearchRepository;
+import com.daspawnw.sammelalbum.repository.MatchIndexChangeRepository;
+import com.daspawnw.sammelalbum.repository.MatchIndexChangeRepository.ChangeRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@link MatchIndex} of this instance in line with card changes made
+ * on any instance. Each {@link CardInventoryChangedEvent} is recorded in
+ * match_index_changes inside the publishing transaction; every instance polls
+ * that table and re-reads the unreserved cards of the changed users for the
+ * changed stickers only, so the cost is proportional to the number of changed
+ * stickers.
+ *
+ * <p>Polling and re-reading run on one thread of their own, never on the
+ * request thread, and the committing transaction only wakes that thread up.
+ * The single thread also keeps updates in read order, which the read stamps
+ * of the index rely on.
+ *
+ * <p>Each poll reads only the changes with an id above the highest one seen so
+ * far, as a projection. Ids are taken when a row is inserted, so a
+ * transaction can commit a lower id after later ones became visible; ids
+ * skipped below the highest seen one are kept as gaps and read again by id
+ * for {@code poll-overlap-seconds}, after which they are taken for rolled
+ * back. Transactions running longer than that may be missed until the next
+ * rebuild.
+ */
+@Component
+@Slf4j
+public class MatchIndexUpdater {
+
+    // Larger jumps of the id (e.g. a sequence cache lost on restart) are not tracked as gaps
+    private static final int MAX_TRACKED_GAP = 10_000;
+
+    private final MatchIndex matchIndex;
+    private final MatchIndexChangeRepository matchIndexChangeRepository;
+    private final CardOfferRepository cardOfferRepository;
+    private final CardSearchRepository cardSearchRepository;
+    private final AppProperties appProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean pollQueued = new AtomicBoolean();
+    private ExecutorService poller;
+
+    // Only accessed by the poller thread; null until the first poll
+    private Long maxSeenId;
+    // Skipped ids below maxSeenId, with the System.nanoTime after which they are given up
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    public MatchIndexUpdater(MatchIndex matchIndex,
+            MatchIndexChangeRepository matchIndexChangeRepository,
+            CardOfferRepository cardOfferRepository,
+            CardSearchRepository cardSearchRepository,
+            AppProperties appProperties,
+            PlatformTransactionManager transactionManager) {
+        this.matchIndex = matchIndex;
+        this.matchIndexChangeRepository = matchIndexChangeRepository;
+        this.cardOfferRepository = cardOfferRepository;
+        this.cardSearchRepository = cardSearchRepository;
+        this.appProperties = appProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void startPoller() {
+        poller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "match-index-updater");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopPoller() {
+        poller.shutdown();
+    }
+
+    @EventListener
+    @Order(2)
+    @Transactional
+    public void recordChange(CardInventoryChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!event.offerStickerIds().isEmpty()) {
+            matchIndexChangeRepository.record(event.userId(), event.offerStickerIds(),
+                    MatchIndexChange.CardKind.OFFER.name());
+        }
+        if (!event.searchStickerIds().isEmpty()) {
+            matchIndexChangeRepository.record(event.userId(), event.searchStickerIds(),
+                    MatchIndexChange.CardKind.SEARCH.name());
+        }
+    }
+
+    // Local changes are picked up right away instead of with the next interval
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCardInventoryChanged(CardInventoryChangedEvent event) {
+        if (isEnabled() && !(event.offerStickerIds().isEmpty() && event.searchStickerIds().isEmpty())) {
+            requestPoll();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.matching.index.poll-interval-ms:1000}")
+    public void scheduledPoll() {
+        if (isEnabled()) {
+            requestPoll();
+        }
+    }
+
+    /**
+     * Polls on the updater thread and waits until the changes committed so far
+     * have been applied.
+     */
+    public void pollNow() {
+        try {
+            poller.submit(this::poll).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Match index poll failed", e.getCause());
+        }
+    }
+
+    private void requestPoll() {
+        // At most one poll waits; it covers every change committed before it runs
+        if (pollQueued.compareAndSet(false, true)) {
+            poller.execute(() -> {
+                pollQueued.set(false);
+                poll();
+            });
+        }
+    }
+
+    private void poll() {
+        try {
+            Poll result = transactionTemplate.execute(status -> readChanges());
+            // Taken after the read, see MatchIndex
+            long readStamp = matchIndex.readStamp();
+            result.updates().forEach(update -> matchIndex.apply(update, readStamp));
+
+            advance(result.startId(), result.changes());
+        } catch (RuntimeException e) {
+            // Retried with the next poll; the index stays slightly stale until then
+            log.error("Failed to update match index from the change log", e);
+        }
+    }
+
+    private Poll readChanges() {
+        // The first poll starts poll-overlap-seconds back, later ones where the previous one stopped
+        long startId = maxSeenId != null
+                ? maxSeenId
+                : matchIndexChangeRepository.findMaxIdChangedUntil(matchIndexChangeRepository.currentTimestamp()
+                        .minusSeconds(appProperties.getMatching().getIndex().getPollOverlapSeconds()));
+        List<ChangeRow> changes = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            changes.addAll(matchIndexChangeRepository.findByIdIn(gaps.keySet()));
+        }
+        changes.addAll(matchIndexChangeRepository.findAfterId(startId));
+
+        Map<Long, Set<Long>> offerStickerIds = new LinkedHashMap<>();
+        Map<Long, Set<Long>> searchStickerIds = new LinkedHashMap<>();
+        for (ChangeRow change : changes) {
+            Map<Long, Set<Long>> target = change.getCardKind() == MatchIndexChange.CardKind.OFFER
+                    ? offerStickerIds
+                    : searchStickerIds;
+            target.computeIfAbsent(change.getUserId(), id -> new LinkedHashSet<>()).add(change.getStickerId());
+        }
+
+        Set<Long> userIds = new LinkedHashSet<>(offerStickerIds.keySet());
+        userIds.addAll(searchStickerIds.keySet());
+        List<MatchIndex.UserUpdate> updates = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            Set<Long> offers = offerStickerIds.getOrDefault(userId, Set.of());
+            Set<Long> searches = searchStickerIds.getOrDefault(userId, Set.of());
+            MatchIndex.UserUpdate update = matchIndex.userUpdate(userId, offers, searches);
+            if (!offers.isEmpty()) {
+                cardOfferRepository.findUnreservedOffers(userId, offers)
+                        .forEach(offer -> update.addOffer(offer.getStickerId(),
+                                Boolean.TRUE.equals(offer.getOfferFreebie()),
+                                Boolean.TRUE.equals(offer.getOfferPayed()),
+                                Boolean.TRUE.equals(offer.getOfferExchange())));
+            }
+            if (!searches.isEmpty()) {
+                cardSearchRepository.findUnreservedSearches(userId, searches)
+                        .forEach(search -> update.addSearch(search.getStickerId()));
+            }
+            updates.add(update);
+        }
+        return new Poll(startId, changes, updates);
+    }
+
+    // Moves past the applied changes and remembers the ids skipped on the way
+    private void advance(long startId, List<ChangeRow> changes) {
+        long now = System.nanoTime();
+        long givenUpAt = now + TimeUnit.SECONDS.toNanos(appProperties.getMatching().getIndex().getPollOverlapSeconds());
+        long seen = startId;
+        for (ChangeRow change : changes) {
+            long id = change.getId();
+            if (id <= startId) {
+                gaps.remove(id);
+                continue;
+            }
+            if (id - seen - 1 <= MAX_TRACKED_GAP) {
+                for (long skipped = seen + 1; skipped < id; skipped++) {
+                    gaps.put(skipped, givenUpAt);
+                }
+            }
+            seen = id;
+        }
+        maxSeenId = seen;
+        gaps.values().removeIf(deadline -> deadline - now < 0);
+    }
+
+    private boolean isEnabled() {
+        return appProperties.getMatching().getIndex().isEnabled();
+    }
+
+    private record Poll(long startId, List<ChangeRow> changes, List<MatchIndex.UserUpdate> updates) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.daspawnw.sammelalbum.service.match;
+
+public enum MatchType {
+    FREEBIE,
+    PAYED,
+    EXCHANGE
+}
@@ -0,0 +1,15 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import java.util.List;
+
+/**
+ * A trade cycle starting at the requesting user. {@code userIds.get(i)} gives
+ * the stickers in {@code hopStickerIds.get(i)} to the next user in the list,
+ * the last user gives to the first one.
+ */
+public record RingTrade(List<Long> userIds, List<List<Long>> hopStickerIds, long stickersSatisfied) {
+
+    public int hops() {
+        return userIds.size();
+    }
+}
@@ -0,0 +1,40 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.repository.UserPairMatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares user_pair_matches with a fresh computation from the stock tables
+ * and rebuilds it from scratch when they differ, e.g. after the table was
+ * disabled for a while or cards were changed without an event.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserPairMatchChecker {
+
+    private final UserPairMatchRepository userPairMatchRepository;
+
+    /**
+     * @return the number of rows that differed before the repair
+     */
+    @Transactional
+    public long checkAndRepair() {
+        long drift = userPairMatchRepository.countDrift();
+        if (drift > 0) {
+            log.warn("user_pair_matches differs in {} rows, rebuilding", drift);
+            rebuild();
+        }
+        return drift;
+    }
+
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        userPairMatchRepository.rebuildAll();
+        log.info("user_pair_matches rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+}
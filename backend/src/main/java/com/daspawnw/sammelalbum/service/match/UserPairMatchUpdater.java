@@ -0,0 +1,91 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.repository.UserPairRefreshRepository;
+import com.daspawnw.sammelalbum.repository.UserPairRefreshRepository.ChangedCards;
+import com.daspawnw.sammelalbum.repository.UserPairRefreshRepository.ChangedPair;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the user_pair_matches table in sync with the stock tables and the
+ * active exchange requests. The events of a transaction are only collected;
+ * right before it commits, after {@link CardStockUpdater} has refreshed the
+ * stock for all of them, the affected pairs are recomputed in one go. An
+ * accepted request, for example, publishes four card events and is applied
+ * once.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPairMatchUpdater {
+
+    private final UserPairRefreshRepository userPairRefreshRepository;
+    private final AppProperties appProperties;
+
+    @EventListener
+    @Order(1)
+    @Transactional
+    public void onCardInventoryChanged(CardInventoryChangedEvent event) {
+        if (!isEnabled() || (event.offerStickerIds().isEmpty() && event.searchStickerIds().isEmpty())) {
+            return;
+        }
+        pendingChanges().addCards(event);
+    }
+
+    @EventListener
+    @Transactional
+    public void onExchangeRequestChanged(ExchangeRequestChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        pendingChanges().pairs.add(new ChangedPair(event.requesterId(), event.offererId()));
+    }
+
+    // Called within the listener's transaction, which may be the publisher's
+    private PendingChanges pendingChanges() {
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private boolean isEnabled() {
+        return appProperties.getMatching().getPairTable().isEnabled();
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        // Sorted by user, so concurrent transactions lock their pairs in a similar order
+        private final Map<Long, ChangedCards> cards = new TreeMap<>();
+        private final Set<ChangedPair> pairs = new LinkedHashSet<>();
+
+        private void addCards(CardInventoryChangedEvent event) {
+            ChangedCards changed = cards.computeIfAbsent(event.userId(),
+                    userId -> new ChangedCards(userId, new LinkedHashSet<>(), new LinkedHashSet<>()));
+            changed.offerStickerIds().addAll(event.offerStickerIds());
+            changed.searchStickerIds().addAll(event.searchStickerIds());
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            userPairRefreshRepository.refresh(cards.values(), pairs);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(UserPairMatchUpdater.this);
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.daspawnw.sammelalbum.service.notification;
 
+import com.daspawnw.sammelalbum.config.AppProperties;
 import com.daspawnw.sammelalbum.model.EmailOutbox;
 import com.daspawnw.sammelalbum.model.EmailStatus;
 import com.daspawnw.sammelalbum.model.User;
 import com.daspawnw.sammelalbum.repository.EmailOutboxRepository;
 import com.daspawnw.sammelalbum.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -17,8 +20,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DatabaseNotificationService implements NotificationService {
 
+    private static final String EXCHANGE_DIGEST = "EXCHANGE";
+
     private final EmailOutboxRepository emailOutboxRepository;
     private final UserRepository userRepository;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
 
     @Override
     @Transactional
@@ -31,11 +38,27 @@ public class DatabaseNotificationService implements NotificationService {
 
         String body = String.join("\n", messages);
 
+        long digestWindowSeconds = appProperties.getMail().getDigestWindowSeconds();
+        if (digestWindowSeconds > 0) {
+            List<EmailOutbox> openDigests = emailOutboxRepository.findOpenDigests(recipientEmail, EXCHANGE_DIGEST);
+            if (!openDigests.isEmpty()) {
+                EmailOutbox digest = openDigests.get(0);
+                digest.setBody(digest.getBody() + "\n" + body);
+                emailOutboxRepository.save(digest);
+                meterRegistry.counter("sammelalbum.email.coalesced").increment();
+                log.info("Exchange notification appended to pending email {}", digest.getId());
+                return;
+            }
+        }
+
         EmailOutbox email = EmailOutbox.builder()
                 .recipientEmail(recipientEmail)
                 .subject("Neue Tauschanfragen")
                 .body(body)
                 .status(EmailStatus.PENDING)
+                .digestKey(EXCHANGE_DIGEST)
+                // Held back for the digest window, so following notifications can be appended
+                .nextRetryAt(digestWindowSeconds > 0 ? LocalDateTime.now().plusSeconds(digestWindowSeconds) : null)
                 .build();
 
         emailOutboxRepository.save(email);
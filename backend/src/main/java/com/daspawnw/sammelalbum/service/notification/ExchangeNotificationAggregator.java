@@ -0,0 +1,71 @@
+package com.daspawnw.sammelalbum.service.notification;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.service.ExchangeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Debounces exchange notifications per offerer. Each committed request
+ * pushes the offerer's deadline to the end of the quiet period, capped at
+ * the maximum delay after the first one; when it passes, all INITIAL
+ * requests of the offerer go out in one mail. Pending offerers are only
+ * held in memory, so the {@code ExchangeRequestScheduler} sweeps whatever
+ * is left after a restart.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ExchangeNotificationAggregator {
+
+    private final ExchangeService exchangeService;
+    private final AppProperties appProperties;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExchangeRequestCreated(ExchangeRequestCreatedEvent event) {
+        if (appProperties.getExchangeNotification().isEnabled()) {
+            record(event.offererId(), System.currentTimeMillis());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.exchange-notification.flush-interval-ms:5000}")
+    public void flush() {
+        flushDue(System.currentTimeMillis());
+    }
+
+    void record(Long offererId, long now) {
+        pending.merge(offererId, new Pending(now, now), (existing, added) -> new Pending(existing.firstAt(), now));
+    }
+
+    void flushDue(long now) {
+        AppProperties.ExchangeNotificationProperties properties = appProperties.getExchangeNotification();
+        pending.forEach((offererId, entry) -> {
+            boolean quiet = now - entry.lastAt() >= properties.getQuietPeriodMs();
+            boolean overdue = now - entry.firstAt() >= properties.getMaxDelayMs();
+            // Only remove the entry that was checked; a request arriving meanwhile keeps the offerer pending
+            if ((quiet || overdue) && pending.remove(offererId, entry)) {
+                try {
+                    exchangeService.processInitialRequestsForOfferer(offererId);
+                } catch (RuntimeException e) {
+                    log.error("Failed to notify offerer {}, leaving the requests to the sweeper", offererId, e);
+                }
+            }
+        });
+    }
+
+    int pendingOfferers() {
+        return pending.size();
+    }
+
+    private record Pending(long firstAt, long lastAt) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.daspawnw.sammelalbum.service.notification;
+
+/**
+ * Published when an exchange request is created. The offerer is notified
+ * once the requests for them have come to rest.
+ */
+public record ExchangeRequestCreatedEvent(Long offererId) {
+}
@@ -0,0 +1,64 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Replaces the IDENTITY / BIGSERIAL ids of the bulk-written tables with
+ * sequences incremented by 50, matching the pooled optimizer of the entities.
+ * IDENTITY ids force Hibernate to insert row by row, sequences allow JDBC
+ * batching.
+ * <p>
+ * Written in Java because each sequence has to start above the current
+ * maximum id, and H2 (tests) and PostgreSQL differ in how the column default
+ * is switched over.
+ */
+public class V16__use_pooled_sequences_for_ids extends BaseJavaMigration {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String> TABLES = List.of(
+            "card_offers", "card_searches", "exchange_requests", "email_outbox");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                String sequence = table + "_seq";
+                // The pooled optimizer hands out (value - 49 .. value], so the
+                // first value has to be a full allocation above the current max
+                long start = maxId(statement, table) + ALLOCATION_SIZE;
+
+                statement.execute("CREATE SEQUENCE " + sequence
+                        + " START WITH " + start + " INCREMENT BY " + ALLOCATION_SIZE);
+                if (postgres) {
+                    // card_offers is a BIGSERIAL, the others are identity columns
+                    statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+                    statement.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('"
+                            + sequence + "')");
+                    statement.execute("DROP SEQUENCE IF EXISTS " + table + "_id_seq");
+                } else {
+                    statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+                    statement.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT NEXT VALUE FOR "
+                            + sequence);
+                }
+            }
+        }
+    }
+
+    private long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Composite indexes for the match and reservation access paths. PostgreSQL
+ * additionally gets partial (and covering) indexes restricted to the rows the
+ * queries can actually match: unreserved cards, available stock and active
+ * exchange requests. H2 (tests) supports neither, so it only gets the plain
+ * composite indexes.
+ * <p>
+ * The effect can be compared with {@code backend/benchmark/match-indexes.sh}.
+ */
+public class V18__add_match_access_path_indexes extends BaseJavaMigration {
+
+    private static final String ACTIVE_STATUSES = "status IN ('INITIAL', 'MAIL_SEND', 'EXCHANGE_INTERREST')";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = context.getConnection().getMetaData().getDatabaseProductName()
+                .toLowerCase().contains("postgres");
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            // findAllByUserId, findByUserIdAndStickerIdIn and the stock refresh
+            statement.execute("CREATE INDEX idx_card_offers_user_sticker ON card_offers(user_id, sticker_id)");
+            statement.execute("CREATE INDEX idx_card_searches_user_sticker ON card_searches(user_id, sticker_id)");
+            // FK lookups and findMatchingSearches (by the stickers the user offers)
+            statement.execute("CREATE INDEX idx_card_searches_sticker_id ON card_searches(sticker_id)");
+
+            if (!postgres) {
+                // Active request anti-joins of the match queries
+                statement.execute("CREATE INDEX idx_exchange_requests_pair_requested"
+                        + " ON exchange_requests(requester_id, offerer_id, requested_sticker_id)");
+                return;
+            }
+
+            // Prefix of idx_card_offers_user_sticker. H2 keeps it, it backs the FK there.
+            statement.execute("DROP INDEX idx_card_offers_user_id");
+
+            // findMatchingOffers / findUnreservedOffers: index-only on unreserved cards
+            statement.execute("CREATE INDEX idx_card_offers_unreserved ON card_offers(user_id, sticker_id)"
+                    + " INCLUDE (offer_freebie, offer_payed, offer_exchange) WHERE is_reserved = FALSE");
+            statement.execute("CREATE INDEX idx_card_searches_unreserved ON card_searches(sticker_id, user_id)"
+                    + " WHERE is_reserved = FALSE");
+
+            // Partner side of the scoring joins: only stock that can still be matched
+            statement.execute("CREATE INDEX idx_card_offer_stock_freebie ON card_offer_stock(sticker_id, user_id)"
+                    + " WHERE freebie_available > 0");
+            statement.execute("CREATE INDEX idx_card_offer_stock_payed ON card_offer_stock(sticker_id, user_id)"
+                    + " WHERE payed_available > 0");
+            statement.execute("CREATE INDEX idx_card_offer_stock_exchange ON card_offer_stock(sticker_id, user_id)"
+                    + " WHERE exchange_available > 0");
+            statement.execute("CREATE INDEX idx_card_search_stock_open ON card_search_stock(sticker_id, user_id)"
+                    + " WHERE quantity > reserved_quantity");
+
+            // NOT EXISTS probes against active requests, one per direction
+            statement.execute("CREATE INDEX idx_exchange_requests_pair_requested"
+                    + " ON exchange_requests(requester_id, offerer_id, requested_sticker_id)"
+                    + " WHERE " + ACTIVE_STATUSES);
+            statement.execute("CREATE INDEX idx_exchange_requests_pair_offered"
+                    + " ON exchange_requests(requester_id, offerer_id, offered_sticker_id)"
+                    + " WHERE exchange_type = 'EXCHANGE' AND " + ACTIVE_STATUSES);
+        }
+    }
+}
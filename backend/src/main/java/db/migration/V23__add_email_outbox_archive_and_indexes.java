@@ -0,0 +1,57 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Archive table for sent and failed emails moved out of email_outbox by the
+ * retention job, and the indexes that keep polling independent of the
+ * history: PostgreSQL gets a partial index on the PENDING rows ordered by
+ * next_retry_at, H2 (tests) does not support partial indexes and gets a plain
+ * composite one.
+ * <p>
+ * The outbox is not partitioned: a partitioned table needs the partition key
+ * in its primary key, and the retention job keeps the table small anyway.
+ */
+public class V23__add_email_outbox_archive_and_indexes extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = context.getConnection().getMetaData().getDatabaseProductName()
+                .toLowerCase().contains("postgres");
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("CREATE TABLE email_outbox_archive ("
+                    + " id BIGINT PRIMARY KEY,"
+                    + " recipient_email VARCHAR(255) NOT NULL,"
+                    + " subject VARCHAR(255) NOT NULL,"
+                    + " body TEXT NOT NULL,"
+                    + " status VARCHAR(50) NOT NULL,"
+                    + " created_at TIMESTAMP,"
+                    + " sent_at TIMESTAMP,"
+                    + " error_message TEXT,"
+                    + " retry_count INT NOT NULL,"
+                    + " archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+            // Retention job: SENT rows by sent_at, FAILED rows by created_at
+            statement.execute("CREATE INDEX idx_email_outbox_status_sent_at ON email_outbox(status, sent_at)");
+            statement.execute("CREATE INDEX idx_email_outbox_status_created_at ON email_outbox(status, created_at)");
+
+            if (!postgres) {
+                statement.execute("CREATE INDEX idx_email_outbox_pending"
+                        + " ON email_outbox(status, next_retry_at)");
+                return;
+            }
+
+            // claimBatchToProcess only ever reads PENDING rows
+            statement.execute("CREATE INDEX idx_email_outbox_pending"
+                    + " ON email_outbox(next_retry_at NULLS FIRST, id) WHERE status = 'PENDING'");
+            // findOpenDigests: only pending digests are looked up
+            statement.execute("DROP INDEX idx_email_outbox_recipient_digest");
+            statement.execute("CREATE INDEX idx_email_outbox_recipient_digest"
+                    + " ON email_outbox(recipient_email, digest_key) WHERE status = 'PENDING'");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Leaves idx_card_offers_user_sticker as the only (user_id, sticker_id) index
+ * of card_offers on both databases.
+ * <p>
+ * On PostgreSQL V18 added the partial idx_card_offers_unreserved on the same
+ * columns next to it, so every card change maintained two indexes for the
+ * same lookups; the unreserved filter is cheap on the few rows per user and
+ * sticker. On H2 V18 kept idx_card_offers_user_id because it backs the
+ * unnamed user FK of V4; the FK is re-created under a name so that H2 uses
+ * idx_card_offers_user_sticker for it instead, as PostgreSQL already does.
+ */
+public class V26__drop_redundant_card_offer_indexes extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("DROP INDEX idx_card_offers_unreserved");
+                return;
+            }
+
+            String userForeignKey = userForeignKey(statement);
+            statement.execute("ALTER TABLE card_offers DROP CONSTRAINT " + userForeignKey);
+            statement.execute("DROP INDEX idx_card_offers_user_id");
+            statement.execute("ALTER TABLE card_offers ADD CONSTRAINT fk_card_offers_user"
+                    + " FOREIGN KEY (user_id) REFERENCES users (id)");
+        }
+    }
+
+    // Generated name of the inline REFERENCES users(id) constraint of V4
+    private String userForeignKey(Statement statement) throws Exception {
+        try (ResultSet rs = statement.executeQuery("SELECT tc.CONSTRAINT_NAME"
+                + " FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc"
+                + " JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu"
+                + " ON kcu.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA AND kcu.CONSTRAINT_NAME = tc.CONSTRAINT_NAME"
+                + " WHERE tc.TABLE_NAME = 'CARD_OFFERS' AND tc.CONSTRAINT_TYPE = 'FOREIGN KEY'"
+                + " AND kcu.COLUMN_NAME = 'USER_ID'")) {
+            if (!rs.next()) {
+                throw new IllegalStateException("Foreign key card_offers.user_id not found");
+            }
+            return rs.getString(1);
+        }
+    }
+}
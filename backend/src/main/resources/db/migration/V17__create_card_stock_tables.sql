@@ -0,0 +1,45 @@
+-- Compact per (user, sticker) view of card_offers / card_searches used by the
+-- match queries. Duplicates are stored as a quantity instead of repeated rows.
+-- The *_available columns count the unreserved copies offered for that type.
+CREATE TABLE card_offer_stock (
+    user_id BIGINT NOT NULL,
+    sticker_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    reserved_quantity INT NOT NULL,
+    freebie_available INT NOT NULL,
+    payed_available INT NOT NULL,
+    exchange_available INT NOT NULL,
+    PRIMARY KEY (user_id, sticker_id),
+    CONSTRAINT fk_card_offer_stock_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_card_offer_stock_sticker_id ON card_offer_stock(sticker_id);
+
+CREATE TABLE card_search_stock (
+    user_id BIGINT NOT NULL,
+    sticker_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    reserved_quantity INT NOT NULL,
+    PRIMARY KEY (user_id, sticker_id),
+    CONSTRAINT fk_card_search_stock_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_card_search_stock_sticker_id ON card_search_stock(sticker_id);
+
+INSERT INTO card_offer_stock (user_id, sticker_id, quantity, reserved_quantity,
+                              freebie_available, payed_available, exchange_available)
+SELECT user_id, sticker_id,
+       COUNT(*),
+       SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_freebie = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_payed = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_exchange = TRUE THEN 1 ELSE 0 END)
+FROM card_offers
+GROUP BY user_id, sticker_id;
+
+INSERT INTO card_search_stock (user_id, sticker_id, quantity, reserved_quantity)
+SELECT user_id, sticker_id,
+       COUNT(*),
+       SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END)
+FROM card_searches
+GROUP BY user_id, sticker_id;
@@ -0,0 +1,27 @@
+-- Match counts per ordered user pair, from the point of view of user_id:
+-- *_in / exchange_get are stickers user_id can get from partner_id, *_out /
+-- exchange_give stickers user_id can give to partner_id. Stickers user_id
+-- already has an active request for with partner_id are not counted.
+-- freebie_count and exchange_count are the sort keys of the match lists.
+CREATE TABLE user_pair_matches (
+    user_id BIGINT NOT NULL,
+    partner_id BIGINT NOT NULL,
+    freebie_in INT NOT NULL,
+    freebie_out INT NOT NULL,
+    payed_in INT NOT NULL,
+    exchange_get INT NOT NULL,
+    exchange_give INT NOT NULL,
+    freebie_count INT NOT NULL,
+    exchange_count INT NOT NULL,
+    PRIMARY KEY (user_id, partner_id),
+    CONSTRAINT fk_user_pair_matches_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_user_pair_matches_partner FOREIGN KEY (partner_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_user_pair_matches_freebie ON user_pair_matches(user_id, freebie_count DESC, partner_id);
+CREATE INDEX idx_user_pair_matches_payed ON user_pair_matches(user_id, payed_in DESC, partner_id);
+CREATE INDEX idx_user_pair_matches_exchange ON user_pair_matches(user_id, exchange_count DESC, partner_id);
+CREATE INDEX idx_user_pair_matches_partner ON user_pair_matches(partner_id);
+
+-- Filled from UserPairMatchRepository.ALL_PAIRS by the consistency check
+-- UserPairMatchScheduler runs on startup while the table is enabled.
@@ -0,0 +1,2 @@
+-- Sweep of INITIAL requests by creation time
+CREATE INDEX idx_exchange_requests_status_created_at ON exchange_requests(status, created_at);
@@ -0,0 +1,2 @@
+-- Claimed rows are hidden from other dispatchers until the lease runs out
+ALTER TABLE email_outbox ADD COLUMN lease_until TIMESTAMP;
@@ -0,0 +1,3 @@
+-- Pending emails with the same recipient and digest key are merged into one digest
+ALTER TABLE email_outbox ADD COLUMN digest_key VARCHAR(50);
+CREATE INDEX idx_email_outbox_recipient_digest ON email_outbox(recipient_email, digest_key);
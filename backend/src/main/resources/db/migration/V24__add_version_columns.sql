@@ -0,0 +1,4 @@
+-- Optimistic locking of exchange requests and the cards they reserve
+ALTER TABLE exchange_requests ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE card_offers ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE card_searches ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- Card changes the in-memory match index of every instance has to re-read.
+-- Written in the transaction of the change, so a row becomes visible together
+-- with the cards it points to. Each instance polls the table; old rows are
+-- removed by a ShedLock guarded job.
+CREATE TABLE match_index_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    sticker_id BIGINT NOT NULL,
+    card_kind VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_match_index_changes_changed_at ON match_index_changes(changed_at);
@@ -1,5 +1,6 @@
 package com.daspawnw.sammelalbum.config;
 
+import com.daspawnw.sammelalbum.security.CustomUserDetails;
 import com.daspawnw.sammelalbum.service.JwtService;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
@@ -7,15 +8,20 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,6 +48,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private UserDetails userDetails;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -55,7 +64,7 @@ class JwtAuthenticationFilterTest {
         // Given
         String expiredToken = "expired.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + expiredToken);
-        when(jwtService.extractUsername(expiredToken)).thenThrow(new ExpiredJwtException(null, null, "Token expired"));
+        when(jwtService.verifyToken(expiredToken)).thenThrow(new ExpiredJwtException(null, null, "Token expired"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -64,6 +73,7 @@ class JwtAuthenticationFilterTest {
         verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1.0, meterRegistry.get("sammelalbum.auth.jwt.rejected").tag("reason", "expired").counter().count());
     }
 
     @Test
@@ -71,7 +81,7 @@ class JwtAuthenticationFilterTest {
         // Given
         String invalidToken = "invalid.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + invalidToken);
-        when(jwtService.extractUsername(invalidToken)).thenThrow(new JwtException("Invalid token"));
+        when(jwtService.verifyToken(invalidToken)).thenThrow(new JwtException("Invalid token"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -83,15 +93,13 @@ class JwtAuthenticationFilterTest {
     }
 
     @Test
-    void doFilterInternal_ShouldSetAuthentication_WhenTokenIsValid() throws Exception {
+    void doFilterInternal_ShouldSetAuthenticationWithoutUserLookup_WhenTokenHasUserId() throws Exception {
         // Given
         String validToken = "valid.jwt.token";
         String username = "testuser";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
-        when(jwtService.extractUsername(validToken)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(validToken, userDetails)).thenReturn(true);
-        when(userDetails.getUsername()).thenReturn(username);
+        when(jwtService.verifyToken(validToken))
+                .thenReturn(new CustomUserDetails(username, "", Collections.emptyList(), 42L));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -99,18 +107,22 @@ class JwtAuthenticationFilterTest {
         // Then
         verify(response, never()).setStatus(anyInt());
         verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userDetailsService);
         assertEquals(username, SecurityContextHolder.getContext().getAuthentication().getName());
+        assertEquals(42L, ((CustomUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .getUserId());
     }
 
     @Test
-    void doFilterInternal_ShouldNotSetAuthentication_WhenTokenIsInvalidButNotExpired() throws Exception {
+    void doFilterInternal_ShouldLoadUser_WhenTokenHasNoUserId() throws Exception {
         // Given
         String validToken = "valid.jwt.token";
         String username = "testuser";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
-        when(jwtService.extractUsername(validToken)).thenReturn(username);
+        when(jwtService.verifyToken(validToken))
+                .thenReturn(new CustomUserDetails(username, "", Collections.emptyList(), null));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(validToken, userDetails)).thenReturn(false);
+        when(userDetails.getUsername()).thenReturn(username);
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -118,7 +130,7 @@ class JwtAuthenticationFilterTest {
         // Then
         verify(response, never()).setStatus(anyInt());
         verify(filterChain).doFilter(request, response);
-        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
     }
 
     @Test
@@ -130,7 +142,7 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtService, never()).extractUsername(any());
+        verify(jwtService, never()).verifyToken(any());
         verify(response, never()).setStatus(anyInt());
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
@@ -145,7 +157,7 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtService, never()).extractUsername(any());
+        verify(jwtService, never()).verifyToken(any());
         verify(response, never()).setStatus(anyInt());
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
@@ -0,0 +1,91 @@
+package com.daspawnw.sammelalbum.controller;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.dto.AuthDtos.LoginRequest;
+import com.daspawnw.sammelalbum.exception.PasswordHashingBusyException;
+import com.daspawnw.sammelalbum.model.Credentials;
+import com.daspawnw.sammelalbum.model.User;
+import com.daspawnw.sammelalbum.repository.CredentialsRepository;
+import com.daspawnw.sammelalbum.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logins are answered with 503 and Retry-After while the password hashing
+ * workers are saturated, whether or not the user exists.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class AuthControllerPasswordHashingTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private CredentialsRepository credentialsRepository;
+
+        @Autowired
+        private AppProperties appProperties;
+
+        @MockBean
+        private BoundedPasswordEncoder passwordEncoder;
+
+        @BeforeEach
+        void setUp() {
+                when(passwordEncoder.encode(any())).thenReturn("{bcrypt}hash");
+                when(passwordEncoder.matches(any(), any())).thenThrow(new PasswordHashingBusyException());
+        }
+
+        @Test
+        void login_ShouldReturn503_WhenHashingIsBusy() throws Exception {
+                credentialsRepository.save(Credentials.builder()
+                                .username("busy")
+                                .passwordHash("{bcrypt}hash")
+                                .user(User.builder().firstname("Busy").lastname("User").mail("busy@example.com")
+                                                .build())
+                                .build());
+
+                login("busy");
+        }
+
+        @Test
+        void login_ShouldReturn503_WhenHashingIsBusy_ForUnknownUser() throws Exception {
+                // The timing attack protection hashes for unknown users as well
+                login("unknown");
+        }
+
+        private void login(String username) throws Exception {
+                LoginRequest request = LoginRequest.builder().username(username).password("password").build();
+
+                mockMvc.perform(post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isServiceUnavailable())
+                                .andExpect(header().string(HttpHeaders.RETRY_AFTER,
+                                                String.valueOf(appProperties.getPasswordHashing()
+                                                                .getRetryAfterSeconds())))
+                                .andExpect(jsonPath("$.message").value("Server is busy, please try again shortly"));
+        }
+}
@@ -192,6 +192,21 @@ public class CardOfferControllerTest {
                 assertEquals(3, cardOfferRepository.findAllByUserId(aliceId).size());
         }
 
+        @Test
+        void bulkAdd_UnknownStickers_ReportsAllAndSavesNothing() throws Exception {
+                BulkCardOfferRequest request = new BulkCardOfferRequest(Arrays.asList(1L, 9999L, 9998L), false, true,
+                                false);
+
+                mockMvc.perform(post("/api/card-offers/bulk")
+                                .header("Authorization", aliceToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Stickers with IDs [9998, 9999] do not exist"));
+
+                assertEquals(0, cardOfferRepository.findAllByUserId(aliceId).size());
+        }
+
         @Test
         void bulkDelete_PartialDuplicates() throws Exception {
                 // Alice has 233, 222, 233
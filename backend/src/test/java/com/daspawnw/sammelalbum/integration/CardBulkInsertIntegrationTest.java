@@ -0,0 +1,88 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.dto.CardOfferDtos.BulkCardOfferRequest;
+import com.daspawnw.sammelalbum.model.User;
+import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.UserRepository;
+import com.daspawnw.sammelalbum.service.CardOfferService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CardBulkInsertIntegrationTest {
+
+        private static final int CARDS = 500;
+
+        @Autowired
+        private CardOfferService cardOfferService;
+
+        @Autowired
+        private CardOfferRepository cardOfferRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        private Statistics statistics;
+        private Long userId;
+
+        @BeforeEach
+        void setUp() {
+                jdbcTemplate.execute("DELETE FROM shedlock");
+                jdbcTemplate.execute("DELETE FROM email_outbox");
+                jdbcTemplate.execute("DELETE FROM exchange_requests");
+                jdbcTemplate.execute("DELETE FROM card_searches");
+                jdbcTemplate.execute("DELETE FROM card_offers");
+                jdbcTemplate.execute("DELETE FROM credentials");
+                jdbcTemplate.execute("DELETE FROM users");
+                jdbcTemplate.execute("DELETE FROM stickers");
+                jdbcTemplate.batchUpdate("INSERT INTO stickers (id, name) VALUES (?, ?)",
+                                LongStream.rangeClosed(1, CARDS)
+                                                .mapToObj(id -> new Object[] { id, "Sticker " + id })
+                                                .toList());
+
+                userId = userRepository.save(User.builder()
+                                .firstname("Bulk").lastname("User").mail("bulk@example.com").build()).getId();
+
+                statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.setStatisticsEnabled(true);
+                statistics.clear();
+        }
+
+        @AfterEach
+        void tearDown() {
+                statistics.setStatisticsEnabled(false);
+        }
+
+        @Test
+        void addBulkOffers_InsertsInJdbcBatches() {
+                List<Long> stickerIds = LongStream.rangeClosed(1, CARDS).boxed().toList();
+
+                cardOfferService.addBulkOffers(userId, new BulkCardOfferRequest(stickerIds, true, false, false));
+
+                assertEquals(CARDS, statistics.getEntityInsertCount());
+                assertEquals(CARDS, cardOfferRepository.findAllByUserId(userId).size());
+                // One sticker validation query, one sequence call per 50 ids and
+                // one prepared insert per batch of 50, instead of 500+ statements
+                long statements = statistics.getPrepareStatementCount();
+                assertTrue(statements <= 25, "Expected batched inserts, but " + statements + " statements were prepared");
+        }
+}
@@ -0,0 +1,88 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.model.CardOffer;
+import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.CardStockRepository;
+import org.junit.jupiter.api.RepeatedTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two transactions change cards of the same user and sticker and refresh the
+ * stock row while neither has committed yet.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = "/match_scenarios.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class CardStockConcurrencyIntegrationTest {
+
+    // User 1 offers sticker 6 once (exchange) in match_scenarios.sql
+    private static final long USER_ID = 1L;
+    private static final long STICKER_ID = 6L;
+
+    @Autowired
+    private CardOfferRepository cardOfferRepository;
+
+    @Autowired
+    private CardStockRepository cardStockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @RepeatedTest(3)
+    void concurrentRefreshes_ShouldCountBothNewCopies() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CyclicBarrier bothWritten = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> results = List.of(
+                    executor.submit(() -> addCopyAndRefresh(transactionTemplate, bothWritten)),
+                    executor.submit(() -> addCopyAndRefresh(transactionTemplate, bothWritten)));
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> stock = jdbcTemplate.queryForMap(
+                "SELECT quantity, freebie_available, exchange_available FROM card_offer_stock "
+                        + "WHERE user_id = ? AND sticker_id = ?",
+                USER_ID, STICKER_ID);
+        assertEquals(3, ((Number) stock.get("QUANTITY")).intValue());
+        assertEquals(2, ((Number) stock.get("FREEBIE_AVAILABLE")).intValue());
+        assertEquals(1, ((Number) stock.get("EXCHANGE_AVAILABLE")).intValue());
+    }
+
+    private void addCopyAndRefresh(TransactionTemplate transactionTemplate, CyclicBarrier bothWritten) {
+        transactionTemplate.executeWithoutResult(status -> {
+            cardOfferRepository.saveAndFlush(CardOffer.builder()
+                    .userId(USER_ID).stickerId(STICKER_ID).offerFreebie(true).build());
+            try {
+                // Both copies are written, neither is committed
+                bothWritten.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            cardStockRepository.refreshOfferStock(USER_ID, List.of(STICKER_ID));
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.model.EmailOutbox;
+import com.daspawnw.sammelalbum.model.EmailStatus;
+import com.daspawnw.sammelalbum.repository.EmailOutboxRepository;
+import com.daspawnw.sammelalbum.service.notification.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.mail.digest-window-seconds=60")
+@ActiveProfiles("test")
+@Sql(scripts = "/match_scenarios.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class EmailDigestIntegrationTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    void shouldAppendExchangeNotificationsToPendingDigest() {
+        notificationService.sendExchangeNotification(1L, List.of("Message 1"));
+        notificationService.sendExchangeNotification(1L, List.of("Message 2", "Message 3"));
+        notificationService.sendExchangeNotification(4L, List.of("Other recipient"));
+
+        List<EmailOutbox> emails = emailOutboxRepository.findByStatus(EmailStatus.PENDING);
+        assertEquals(2, emails.size());
+        EmailOutbox digest = emails.stream()
+                .filter(email -> email.getRecipientEmail().equals("main@example.com"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Message 1\nMessage 2\nMessage 3", digest.getBody());
+        // Held back until the window has passed
+        assertTrue(digest.getNextRetryAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void shouldStartNewDigest_WhenPendingOneIsClaimed() {
+        notificationService.sendExchangeNotification(1L, List.of("Message 1"));
+        EmailOutbox claimed = emailOutboxRepository.findByStatus(EmailStatus.PENDING).get(0);
+        claimed.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        emailOutboxRepository.save(claimed);
+
+        notificationService.sendExchangeNotification(1L, List.of("Message 2"));
+
+        assertEquals(2, emailOutboxRepository.findByStatus(EmailStatus.PENDING).size());
+        assertEquals("Message 1", emailOutboxRepository.findById(claimed.getId()).orElseThrow().getBody());
+    }
+
+    @Test
+    void shouldNotMergePasswordResetNotifications() {
+        notificationService.sendPasswordResetNotification(1L, "Reset 1");
+        notificationService.sendPasswordResetNotification(1L, "Reset 2");
+
+        List<EmailOutbox> emails = emailOutboxRepository.findByStatus(EmailStatus.PENDING);
+        assertEquals(2, emails.size());
+        assertTrue(emails.stream().allMatch(email -> email.getNextRetryAt() == null));
+    }
+}
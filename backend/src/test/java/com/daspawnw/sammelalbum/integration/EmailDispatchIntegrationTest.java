@@ -0,0 +1,109 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.model.EmailOutbox;
+import com.daspawnw.sammelalbum.model.EmailStatus;
+import com.daspawnw.sammelalbum.repository.EmailOutboxRepository;
+import com.daspawnw.sammelalbum.scheduler.EmailSenderScheduler;
+import com.daspawnw.sammelalbum.service.email.EmailSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Small batches, so one run needs several claims
+@SpringBootTest(properties = "app.mail.batch-size=3")
+@ActiveProfiles("test")
+public class EmailDispatchIntegrationTest {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailSenderScheduler emailSenderScheduler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private EmailSender emailSender;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void shouldSendAllDueEmailsInBatches() {
+        List<EmailOutbox> emails = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            emails.add(pending("user" + i + "@example.com"));
+        }
+        emailOutboxRepository.saveAll(emails);
+
+        emailSenderScheduler.processPendingEmailsInternal();
+
+        verify(emailSender, times(7)).send(any());
+        List<EmailOutbox> sent = emailOutboxRepository.findByStatus(EmailStatus.SENT);
+        assertEquals(7, sent.size());
+        assertTrue(sent.stream().allMatch(email -> email.getLeaseUntil() == null));
+    }
+
+    @Test
+    void shouldSkipEmailsLeasedByAnotherDispatcher() {
+        EmailOutbox leased = pending("leased@example.com");
+        leased.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        EmailOutbox expired = pending("expired@example.com");
+        expired.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+        emailOutboxRepository.saveAll(List.of(leased, expired));
+
+        emailSenderScheduler.processPendingEmailsInternal();
+
+        verify(emailSender, times(1)).send(any());
+        assertEquals(EmailStatus.PENDING, emailOutboxRepository.findById(leased.getId()).orElseThrow().getStatus());
+        assertEquals(EmailStatus.SENT, emailOutboxRepository.findById(expired.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldNotOverwriteEmailClaimedByAnotherDispatcher() {
+        EmailOutbox email = emailOutboxRepository.save(pending("overrun@example.com"));
+        LocalDateTime otherLease = LocalDateTime.of(2099, 1, 1, 0, 0);
+        double lostBefore = meterRegistry.counter("sammelalbum.email.lease.lost").count();
+        // The send overruns the lease and another dispatcher claims the email meanwhile
+        doAnswer(invocation -> {
+            jdbcTemplate.update("UPDATE email_outbox SET lease_until = ? WHERE id = ?", otherLease, email.getId());
+            return null;
+        }).when(emailSender).send(any());
+
+        emailSenderScheduler.processPendingEmailsInternal();
+
+        EmailOutbox stored = emailOutboxRepository.findById(email.getId()).orElseThrow();
+        assertEquals(EmailStatus.PENDING, stored.getStatus());
+        assertEquals(otherLease, stored.getLeaseUntil());
+        assertNull(stored.getSentAt());
+        assertEquals(lostBefore + 1, meterRegistry.counter("sammelalbum.email.lease.lost").count());
+    }
+
+    private static EmailOutbox pending(String recipient) {
+        return EmailOutbox.builder()
+                .recipientEmail(recipient)
+                .subject("Test")
+                .body("Body")
+                .status(EmailStatus.PENDING)
+                .build();
+    }
+}
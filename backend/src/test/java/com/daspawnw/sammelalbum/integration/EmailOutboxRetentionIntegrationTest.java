@@ -0,0 +1,70 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.model.EmailOutbox;
+import com.daspawnw.sammelalbum.model.EmailStatus;
+import com.daspawnw.sammelalbum.repository.EmailOutboxRepository;
+import com.daspawnw.sammelalbum.scheduler.EmailOutboxRetentionScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Small batches, so the job needs several transactions
+@SpringBootTest(properties = "app.mail.retention.batch-size=2")
+@ActiveProfiles("test")
+public class EmailOutboxRetentionIntegrationTest {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailOutboxRetentionScheduler retentionScheduler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM shedlock");
+        jdbcTemplate.execute("DELETE FROM email_outbox_archive");
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void shouldArchiveOldSentAndFailedEmails() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            emailOutboxRepository.save(email(EmailStatus.SENT, now.minusDays(31)));
+        }
+        EmailOutbox recentSent = emailOutboxRepository.save(email(EmailStatus.SENT, now.minusDays(1)));
+        EmailOutbox pending = emailOutboxRepository.save(email(EmailStatus.PENDING, null));
+        EmailOutbox oldFailed = emailOutboxRepository.save(email(EmailStatus.FAILED, null));
+        jdbcTemplate.update("UPDATE email_outbox SET created_at = ? WHERE id = ?", now.minusDays(91),
+                oldFailed.getId());
+
+        retentionScheduler.applyRetention();
+
+        List<Long> remaining = emailOutboxRepository.findAll().stream().map(EmailOutbox::getId).sorted().toList();
+        assertEquals(List.of(recentSent.getId(), pending.getId()), remaining);
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox_archive", Integer.class));
+        assertEquals("Body", jdbcTemplate.queryForObject("SELECT body FROM email_outbox_archive WHERE id = ?",
+                String.class, oldFailed.getId()));
+    }
+
+    private static EmailOutbox email(EmailStatus status, LocalDateTime sentAt) {
+        return EmailOutbox.builder()
+                .recipientEmail("test@example.com")
+                .subject("Test")
+                .body("Body")
+                .status(status)
+                .sentAt(sentAt)
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.model.CardOffer;
+import com.daspawnw.sammelalbum.model.CardSearch;
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.CardSearchRepository;
+import com.daspawnw.sammelalbum.repository.ExchangeRequestRepository;
+import com.daspawnw.sammelalbum.service.ExchangeService;
+import org.junit.jupiter.api.RepeatedTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Accepts competing requests for the offerer's single copy of a sticker in
+ * parallel. Each request is from a different requester, so only the offered
+ * card is contended.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = "/match_scenarios.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class ExchangeAcceptConcurrencyIntegrationTest {
+
+    // User 1 offers sticker 6 once in match_scenarios.sql
+    private static final long OFFERER_ID = 1L;
+    private static final long STICKER_ID = 6L;
+    private static final List<Long> REQUESTER_IDS = List.of(2L, 3L, 4L, 5L, 6L, 7L);
+
+    @Autowired
+    private ExchangeService exchangeService;
+
+    @Autowired
+    private ExchangeRequestRepository exchangeRequestRepository;
+
+    @Autowired
+    private CardOfferRepository cardOfferRepository;
+
+    @Autowired
+    private CardSearchRepository cardSearchRepository;
+
+    // Repeated, as the accepts only overlap in some runs
+    @RepeatedTest(5)
+    void shouldReserveSingleCardOnlyOnce() throws Exception {
+        List<ExchangeRequest> requests = createCompetingRequests();
+
+        int accepted = acceptInParallel(requests);
+
+        assertEquals(1, accepted);
+        assertSingleReservation();
+    }
+
+    private List<ExchangeRequest> createCompetingRequests() {
+        List<ExchangeRequest> requests = new ArrayList<>();
+        for (Long requesterId : REQUESTER_IDS) {
+            if (cardSearchRepository.findByUserIdAndStickerIdIn(requesterId, List.of(STICKER_ID)).isEmpty()) {
+                cardSearchRepository.save(CardSearch.builder().userId(requesterId).stickerId(STICKER_ID).build());
+            }
+            requests.add(ExchangeRequest.builder()
+                    .requesterId(requesterId)
+                    .offererId(OFFERER_ID)
+                    .requestedStickerId(STICKER_ID)
+                    .exchangeType(ExchangeType.FREEBIE)
+                    .status(ExchangeStatus.MAIL_SEND)
+                    .build());
+        }
+        return exchangeRequestRepository.saveAll(requests);
+    }
+
+    private int acceptInParallel(List<ExchangeRequest> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (ExchangeRequest request : requests) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        exchangeService.acceptExchangeRequest(request.getId(), OFFERER_ID);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    accepted++;
+                }
+            }
+            return accepted;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertSingleReservation() {
+        List<ExchangeRequest> acceptedRequests = exchangeRequestRepository.findAll().stream()
+                .filter(request -> request.getStatus() == ExchangeStatus.EXCHANGE_INTERREST)
+                .toList();
+        assertEquals(1, acceptedRequests.size());
+
+        List<Long> reservedOfferIds = cardOfferRepository.findByUserIdAndStickerIdIn(OFFERER_ID, List.of(STICKER_ID))
+                .stream()
+                .filter(CardOffer::getIsReserved)
+                .map(CardOffer::getId)
+                .sorted()
+                .toList();
+        List<Long> referencedOfferIds = acceptedRequests.stream()
+                .map(ExchangeRequest::getOffererCardOfferId)
+                .sorted()
+                .toList();
+        assertEquals(reservedOfferIds, referencedOfferIds, "The reserved card belongs to the accepted request");
+
+        long reservedSearches = REQUESTER_IDS.stream()
+                .flatMap(requesterId -> cardSearchRepository
+                        .findByUserIdAndStickerIdIn(requesterId, List.of(STICKER_ID)).stream())
+                .filter(CardSearch::getIsReserved)
+                .count();
+        assertEquals(1, reservedSearches);
+    }
+}
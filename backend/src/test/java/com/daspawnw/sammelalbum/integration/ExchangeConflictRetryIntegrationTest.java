@@ -0,0 +1,141 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.model.CardOffer;
+import com.daspawnw.sammelalbum.model.CardSearch;
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.repository.CardOfferRepository;
+import com.daspawnw.sammelalbum.repository.CardSearchRepository;
+import com.daspawnw.sammelalbum.repository.ExchangeRequestRepository;
+import com.daspawnw.sammelalbum.service.ExchangeService;
+import org.junit.jupiter.api.RepeatedTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs conflicting changes of one exchange request in parallel. Whichever
+ * commits first, the other one is retried on the committed state instead of
+ * overwriting it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = "/match_scenarios.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class ExchangeConflictRetryIntegrationTest {
+
+    private static final long OFFERER_ID = 1L;
+    private static final long REQUESTER_ID = 2L;
+    private static final long STICKER_ID = 6L;
+
+    @Autowired
+    private ExchangeService exchangeService;
+
+    @Autowired
+    private ExchangeRequestRepository exchangeRequestRepository;
+
+    @Autowired
+    private CardOfferRepository cardOfferRepository;
+
+    @Autowired
+    private CardSearchRepository cardSearchRepository;
+
+    @RepeatedTest(3)
+    void closeByBothParties_ShouldKeepBothFlagsAndComplete() throws Exception {
+        CardOffer offer = cardOfferRepository.save(CardOffer.builder()
+                .userId(OFFERER_ID).stickerId(STICKER_ID).offerFreebie(true).isReserved(true).build());
+        CardSearch search = cardSearchRepository.save(CardSearch.builder()
+                .userId(REQUESTER_ID).stickerId(STICKER_ID).isReserved(true).build());
+        ExchangeRequest request = exchangeRequestRepository.save(request(ExchangeStatus.EXCHANGE_INTERREST)
+                .offererCardOfferId(offer.getId())
+                .requesterCardSearchId(search.getId())
+                .build());
+
+        runInParallel(
+                () -> {
+                    exchangeService.closeExchangeRequest(request.getId(), OFFERER_ID);
+                    return null;
+                },
+                () -> {
+                    exchangeService.closeExchangeRequest(request.getId(), REQUESTER_ID);
+                    return null;
+                });
+
+        ExchangeRequest closed = exchangeRequestRepository.findById(request.getId()).orElseThrow();
+        assertTrue(closed.getOffererClosed());
+        assertTrue(closed.getRequesterClosed());
+        assertEquals(ExchangeStatus.EXCHANGE_COMPLETED, closed.getStatus());
+        assertFalse(cardOfferRepository.existsById(offer.getId()));
+        assertFalse(cardSearchRepository.existsById(search.getId()));
+    }
+
+    @RepeatedTest(3)
+    void acceptAndDecline_ShouldNotLeaveReservationsOnCanceledRequest() throws Exception {
+        // User 1 offers sticker 6 in match_scenarios.sql
+        cardSearchRepository.save(CardSearch.builder().userId(REQUESTER_ID).stickerId(STICKER_ID).build());
+        ExchangeRequest request = exchangeRequestRepository.save(request(ExchangeStatus.MAIL_SEND).build());
+
+        runInParallel(
+                () -> {
+                    try {
+                        exchangeService.acceptExchangeRequest(request.getId(), OFFERER_ID);
+                    } catch (IllegalStateException e) {
+                        // The decline committed first
+                    }
+                    return null;
+                },
+                () -> {
+                    exchangeService.declineExchangeRequest(request.getId(), REQUESTER_ID);
+                    return null;
+                });
+
+        // Declined either before the accept or right after it
+        assertEquals(ExchangeStatus.EXCHANGE_CANCELED,
+                exchangeRequestRepository.findById(request.getId()).orElseThrow().getStatus());
+        assertTrue(cardOfferRepository.findByUserIdAndStickerIdIn(OFFERER_ID, List.of(STICKER_ID)).stream()
+                .noneMatch(CardOffer::getIsReserved));
+        assertTrue(cardSearchRepository.findByUserIdAndStickerIdIn(REQUESTER_ID, List.of(STICKER_ID)).stream()
+                .noneMatch(CardSearch::getIsReserved));
+    }
+
+    private static ExchangeRequest.ExchangeRequestBuilder request(ExchangeStatus status) {
+        return ExchangeRequest.builder()
+                .requesterId(REQUESTER_ID)
+                .offererId(OFFERER_ID)
+                .requestedStickerId(STICKER_ID)
+                .exchangeType(ExchangeType.FREEBIE)
+                .status(status);
+    }
+
+    private static void runInParallel(Callable<Void> first, Callable<Void> second) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> results = List.of(
+                    executor.submit(() -> {
+                        start.await();
+                        return first.call();
+                    }),
+                    executor.submit(() -> {
+                        start.await();
+                        return second.call();
+                    }));
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
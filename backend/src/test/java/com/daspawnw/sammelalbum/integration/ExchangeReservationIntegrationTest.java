@@ -6,6 +6,7 @@ import com.daspawnw.sammelalbum.model.ExchangeRequest;
 import com.daspawnw.sammelalbum.model.ExchangeStatus;
 import com.daspawnw.sammelalbum.repository.CardOfferRepository;
 import com.daspawnw.sammelalbum.repository.CardSearchRepository;
+import com.daspawnw.sammelalbum.repository.CardStockRepository;
 import com.daspawnw.sammelalbum.repository.ExchangeRequestRepository;
 import com.daspawnw.sammelalbum.service.JwtService;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +46,9 @@ public class ExchangeReservationIntegrationTest {
         @Autowired
         private CardSearchRepository cardSearchRepository;
 
+        @Autowired
+        private CardStockRepository cardStockRepository;
+
         @Autowired
         private JwtService jwtService;
 
@@ -122,6 +126,8 @@ public class ExchangeReservationIntegrationTest {
                 if (cardSearchRepository.findByUserIdAndStickerIdIn(1L, List.of(1L)).isEmpty()) {
                         cardSearchRepository.save(CardSearch.builder().userId(1L).stickerId(1L).build());
                 }
+                refreshStock(1L, 1L, 2L);
+                refreshStock(6L, 1L, 2L);
         }
 
         @Test
@@ -219,6 +225,7 @@ public class ExchangeReservationIntegrationTest {
                                 .build();
                 cardSearchRepository.save(freebieSearch);
                 entityManager.flush();
+                refreshStock(15L, 6L, 7L);
 
                 // Verify match exists (User 7 looking for freebies)
                 var freebieMatches = cardOfferRepository.findFreebieMatches(7L,
@@ -230,6 +237,7 @@ public class ExchangeReservationIntegrationTest {
                 freebieOffer.setIsReserved(true);
                 cardOfferRepository.save(freebieOffer);
                 entityManager.flush();
+                refreshStock(15L, 6L, 7L);
 
                 // Verify match is gone
                 freebieMatches = cardOfferRepository.findFreebieMatches(7L,
@@ -243,6 +251,7 @@ public class ExchangeReservationIntegrationTest {
                 freebieSearch.setIsReserved(true);
                 cardSearchRepository.save(freebieSearch);
                 entityManager.flush();
+                refreshStock(15L, 6L, 7L);
 
                 // Verify match is gone
                 freebieMatches = cardOfferRepository.findFreebieMatches(7L,
@@ -267,6 +276,7 @@ public class ExchangeReservationIntegrationTest {
                 CardOffer offer6 = cardOfferRepository.findByUserIdAndStickerIdIn(1L, List.of(6L)).get(0);
                 offer6.setIsReserved(true);
                 cardOfferRepository.save(offer6);
+                refreshStock(6L, 1L);
 
                 // Verify match is gone (User 1's perspective)
                 exchangeMatches = cardOfferRepository.findExchangeMatches(1L,
@@ -277,11 +287,13 @@ public class ExchangeReservationIntegrationTest {
                 // Reset
                 offer6.setIsReserved(false);
                 cardOfferRepository.save(offer6);
+                refreshStock(6L, 1L);
 
                 // Reserve User 2's offer (Sticker 1)
                 CardOffer offer1 = cardOfferRepository.findByUserIdAndStickerIdIn(2L, List.of(1L)).get(0);
                 offer1.setIsReserved(true);
                 cardOfferRepository.save(offer1);
+                refreshStock(1L, 2L);
 
                 // Verify match is gone
                 exchangeMatches = cardOfferRepository.findExchangeMatches(1L,
@@ -289,4 +301,13 @@ public class ExchangeReservationIntegrationTest {
                 assertFalse(exchangeMatches.stream().anyMatch(m -> m.getUserId().equals(2L)),
                                 "Should NOT find exchange match after partner offer reservation");
         }
+
+        // Cards are changed directly through the repositories here, so the stock
+        // tables the match queries read from are refreshed explicitly
+        private void refreshStock(Long stickerId, Long... userIds) {
+                for (Long userId : userIds) {
+                        cardStockRepository.refreshOfferStock(userId, List.of(stickerId));
+                        cardStockRepository.refreshSearchStock(userId, List.of(stickerId));
+                }
+        }
 }
@@ -15,6 +15,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +26,8 @@ import static org.mockito.Mockito.times;
 
 import org.springframework.transaction.annotation.Transactional;
 
-@SpringBootTest
+// Small chunks, so the sweep needs several of them
+@SpringBootTest(properties = "app.exchange-notification.sweep-chunk-size=2")
 @ActiveProfiles("test")
 @Sql(scripts = "/match_scenarios.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 public class ExchangeServiceNotificationTest {
@@ -119,4 +121,78 @@ public class ExchangeServiceNotificationTest {
         // Assert
         verify(notificationService, times(0)).sendExchangeNotification(eq(4L), anyList());
     }
+
+    @Test
+    void processInitialRequestsForOfferer_ShouldOnlyNotifyThatOfferer() {
+        // Arrange: INITIAL requests for two offerers
+        exchangeRequestRepository.save(ExchangeRequest.builder()
+                .requesterId(1L)
+                .offererId(4L)
+                .requestedStickerId(1L)
+                .exchangeType(ExchangeType.FREEBIE)
+                .status(ExchangeStatus.INITIAL)
+                .build());
+        exchangeRequestRepository.save(ExchangeRequest.builder()
+                .requesterId(1L)
+                .offererId(5L)
+                .requestedStickerId(1L)
+                .exchangeType(ExchangeType.FREEBIE)
+                .status(ExchangeStatus.INITIAL)
+                .build());
+        exchangeRequestRepository.flush();
+
+        // Act
+        exchangeService.processInitialRequestsForOfferer(4L);
+
+        // Assert
+        verify(notificationService, times(1)).sendExchangeNotification(eq(4L), anyList());
+        verify(notificationService, times(0)).sendExchangeNotification(eq(5L), anyList());
+        assertEquals(1, exchangeRequestRepository.findByStatus(ExchangeStatus.INITIAL).size());
+    }
+
+    @Test
+    void processInitialRequests_ShouldProcessAllChunks() {
+        // Arrange: three requests, more than one chunk
+        for (Long offererId : List.of(4L, 4L, 5L)) {
+            exchangeRequestRepository.save(ExchangeRequest.builder()
+                    .requesterId(1L)
+                    .offererId(offererId)
+                    .requestedStickerId(1L)
+                    .exchangeType(ExchangeType.FREEBIE)
+                    .status(ExchangeStatus.INITIAL)
+                    .build());
+        }
+        exchangeRequestRepository.flush();
+
+        // Act
+        int processed = exchangeService.processInitialRequests();
+
+        // Assert: chunks are ordered by offerer, so offerer 4 gets both requests in one mail
+        assertEquals(3, processed);
+        verify(notificationService, times(1)).sendExchangeNotification(eq(4L), captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(notificationService, times(1)).sendExchangeNotification(eq(5L), anyList());
+        assertTrue(exchangeRequestRepository.findByStatus(ExchangeStatus.INITIAL).isEmpty());
+    }
+
+    @Test
+    void processInitialRequestsCreatedBefore_ShouldSkipNewerRequests() {
+        // Arrange
+        exchangeRequestRepository.save(ExchangeRequest.builder()
+                .requesterId(1L)
+                .offererId(4L)
+                .requestedStickerId(1L)
+                .exchangeType(ExchangeType.FREEBIE)
+                .status(ExchangeStatus.INITIAL)
+                .build());
+        exchangeRequestRepository.flush();
+
+        // Act
+        int processed = exchangeService.processInitialRequestsCreatedBefore(LocalDateTime.now().minusMinutes(5));
+
+        // Assert
+        assertEquals(0, processed);
+        verify(notificationService, times(0)).sendExchangeNotification(eq(4L), anyList());
+        assertEquals(1, exchangeRequestRepository.findByStatus(ExchangeStatus.INITIAL).size());
+    }
 }
@@ -0,0 +1,110 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.dto.CardOfferDtos.CardOfferRequest;
+import com.daspawnw.sammelalbum.repository.MatchProjection;
+import com.daspawnw.sammelalbum.service.CardOfferService;
+import com.daspawnw.sammelalbum.service.match.MatchIndex;
+import com.daspawnw.sammelalbum.service.match.MatchIndexLoader;
+import com.daspawnw.sammelalbum.service.match.MatchIndexUpdater;
+import com.daspawnw.sammelalbum.service.match.MatchType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Changes written by another instance only reach this one through
+ * match_index_changes.
+ */
+@SpringBootTest(properties = "app.matching.index.enabled=true")
+@ActiveProfiles("test")
+@Sql(scripts = "/match_scenarios.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class MatchIndexUpdaterIntegrationTest {
+
+    // User 6 searches sticker 12, nobody offers it in match_scenarios.sql
+    private static final long SEARCHER_ID = 6L;
+    private static final long OFFERER_ID = 2L;
+    private static final long STICKER_ID = 12L;
+
+    @Autowired
+    private MatchIndex matchIndex;
+
+    @Autowired
+    private MatchIndexLoader matchIndexLoader;
+
+    @Autowired
+    private MatchIndexUpdater matchIndexUpdater;
+
+    @Autowired
+    private CardOfferService cardOfferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changeOfOtherInstance_IsAppliedByPoll() {
+        matchIndexLoader.rebuild();
+        assertTrue(matchIndex.findMatches(SEARCHER_ID, MatchType.FREEBIE).isEmpty());
+
+        // What another instance commits for a new offer
+        jdbcTemplate.update("INSERT INTO card_offers (user_id, sticker_id, offer_freebie) VALUES (?, ?, TRUE)",
+                OFFERER_ID, STICKER_ID);
+        jdbcTemplate.update("INSERT INTO match_index_changes (user_id, sticker_id, card_kind) VALUES (?, ?, 'OFFER')",
+                OFFERER_ID, STICKER_ID);
+
+        matchIndexUpdater.pollNow();
+
+        List<MatchProjection> matches = matchIndex.findMatches(SEARCHER_ID, MatchType.FREEBIE);
+        assertEquals(1, matches.size());
+        assertEquals(OFFERER_ID, matches.get(0).getUserId());
+        assertEquals(1L, matches.get(0).getMatchCount());
+
+        // Polling again re-reads nothing and keeps the match
+        matchIndexUpdater.pollNow();
+
+        assertEquals(1, matchIndex.findMatches(SEARCHER_ID, MatchType.FREEBIE).size());
+    }
+
+    @Test
+    void changeCommittingAfterLaterOne_IsAppliedByNextPoll() {
+        matchIndexLoader.rebuild();
+        matchIndexUpdater.pollNow();
+
+        // The change of another instance takes its id first but commits after an unrelated later change
+        jdbcTemplate.update("INSERT INTO match_index_changes (user_id, sticker_id, card_kind) VALUES (?, ?, 'OFFER')",
+                OFFERER_ID, STICKER_ID);
+        Long lateId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM match_index_changes", Long.class);
+        jdbcTemplate.update("INSERT INTO match_index_changes (user_id, sticker_id, card_kind) VALUES (1, 1, 'OFFER')");
+        jdbcTemplate.update("DELETE FROM match_index_changes WHERE id = ?", lateId);
+        matchIndexUpdater.pollNow();
+
+        jdbcTemplate.update("INSERT INTO card_offers (user_id, sticker_id, offer_freebie) VALUES (?, ?, TRUE)",
+                OFFERER_ID, STICKER_ID);
+        jdbcTemplate.update(
+                "INSERT INTO match_index_changes (id, user_id, sticker_id, card_kind) VALUES (?, ?, ?, 'OFFER')",
+                lateId, OFFERER_ID, STICKER_ID);
+        matchIndexUpdater.pollNow();
+
+        assertEquals(1, matchIndex.findMatches(SEARCHER_ID, MatchType.FREEBIE).size());
+    }
+
+    @Test
+    void localChange_IsRecordedAndApplied() {
+        matchIndexLoader.rebuild();
+
+        cardOfferService.addOffer(OFFERER_ID, new CardOfferRequest(STICKER_ID, false, true, false));
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM match_index_changes WHERE user_id = ? AND sticker_id = ? AND card_kind = 'OFFER'",
+                Integer.class, OFFERER_ID, STICKER_ID));
+        matchIndexUpdater.pollNow();
+
+        assertEquals(1, matchIndex.findMatches(SEARCHER_ID, MatchType.FREEBIE).size());
+    }
+}
@@ -245,4 +245,52 @@ class MatchIntegrationTest {
                                 .andExpect(jsonPath("$.content", hasSize(0)))
                                 .andExpect(jsonPath("$.totalElements").value(0));
         }
+
+        @Test
+        void scrollFreebieMatches_ShouldFollowCursorAcrossSlices() throws Exception {
+                // Same order as getFreebieMatches: User 2 (5 matches), then User 7 (1 match)
+                String firstSlice = mockMvc.perform(get("/api/matches/freebie/scroll")
+                                .param("size", "1")
+                                .header("Authorization", mainUserToken))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content", hasSize(1)))
+                                .andExpect(jsonPath("$.content[0].userId").value(2))
+                                .andExpect(jsonPath("$.content[0].itemsRequested", hasSize(5)))
+                                .andExpect(jsonPath("$.hasNext").value(true))
+                                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                                .andReturn().getResponse().getContentAsString();
+                String cursor = com.jayway.jsonpath.JsonPath.read(firstSlice, "$.nextCursor");
+
+                mockMvc.perform(get("/api/matches/freebie/scroll")
+                                .param("size", "1")
+                                .param("cursor", cursor)
+                                .header("Authorization", mainUserToken))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content", hasSize(1)))
+                                .andExpect(jsonPath("$.content[0].userId").value(7))
+                                .andExpect(jsonPath("$.hasNext").value(false))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        void scrollExchangeMatches_WithTotal_ShouldReturnTotal() throws Exception {
+                mockMvc.perform(get("/api/matches/exchange/scroll")
+                                .param("withTotal", "true")
+                                .header("Authorization", mainUserToken))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content", hasSize(2)))
+                                .andExpect(jsonPath("$.content[0].userId").value(4))
+                                .andExpect(jsonPath("$.content[1].userId").value(5))
+                                .andExpect(jsonPath("$.hasNext").value(false))
+                                .andExpect(jsonPath("$.totalElements").value(2));
+        }
+
+        @Test
+        void scrollPayedMatches_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+                mockMvc.perform(get("/api/matches/payed/scroll")
+                                .param("cursor", "not-a-cursor")
+                                .header("Authorization", mainUserToken))
+                                .andExpect(status().isBadRequest());
+        }
 }
@@ -0,0 +1,82 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.config.SqlStatistics;
+import com.daspawnw.sammelalbum.model.Credentials;
+import com.daspawnw.sammelalbum.model.User;
+import com.daspawnw.sammelalbum.repository.CredentialsRepository;
+import com.daspawnw.sammelalbum.repository.UserRepository;
+import com.daspawnw.sammelalbum.security.CustomUserDetails;
+import com.daspawnw.sammelalbum.service.JwtService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.sql-statistics.statement-budget=1")
+@AutoConfigureMockMvc
+@Transactional
+class SqlStatisticsIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private CredentialsRepository credentialsRepository;
+
+        @Autowired
+        private JwtService jwtService;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        private String token;
+
+        @BeforeEach
+        void setup() {
+                User user = userRepository.save(User.builder()
+                                .firstname("Sql").lastname("Statistics").mail("sql-statistics@example.com").build());
+                credentialsRepository.save(Credentials.builder()
+                                .user(user).username("sql-statistics").passwordHash("hash").build());
+                token = "Bearer " + jwtService.generateToken(new CustomUserDetails(
+                                "sql-statistics", "hash", Collections.emptyList(), user.getId()), user.getId());
+        }
+
+        @Test
+        void requestOverTheStatementBudgetFails() {
+                Exception exception = assertThrows(Exception.class,
+                                () -> mockMvc.perform(get("/api/card-offers").header("Authorization", token)));
+                // Thrown by the statement over the budget, before anything was written
+                Throwable cause = exception;
+                while (cause != null && !(cause instanceof SqlStatistics.BudgetExceededException)) {
+                        cause = cause.getCause();
+                }
+                assertNotNull(cause, () -> "Unexpected exception " + exception);
+                assertEquals("GET /api/card-offers exceeded the budget of 1 statements", cause.getMessage());
+
+                assertEquals(1.0, meterRegistry.get("sammelalbum.db.budget.exceeded")
+                                .tag("uri", "/api/card-offers").counter().count());
+                DistributionSummary statements = meterRegistry.get("sammelalbum.db.statements")
+                                .tag("uri", "/api/card-offers").summary();
+                assertEquals(1, statements.count());
+                assertEquals(1.0, statements.totalAmount());
+        }
+
+        @Test
+        void requestWithoutStatementsPasses() throws Exception {
+                mockMvc.perform(get("/api/card-offers")).andExpect(status().isUnauthorized());
+        }
+}
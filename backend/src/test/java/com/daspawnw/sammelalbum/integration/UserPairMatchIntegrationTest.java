@@ -0,0 +1,144 @@
+package com.daspawnw.sammelalbum.integration;
+
+import com.daspawnw.sammelalbum.dto.CardOfferDtos.CardOfferRequest;
+import com.daspawnw.sammelalbum.dto.CardSearchDtos.CardSearchRequest;
+import com.daspawnw.sammelalbum.dto.MatchDtos.MatchResponse;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.model.User;
+import com.daspawnw.sammelalbum.repository.UserPairMatchRepository;
+import com.daspawnw.sammelalbum.repository.UserRepository;
+import com.daspawnw.sammelalbum.service.CardOfferService;
+import com.daspawnw.sammelalbum.service.CardSearchService;
+import com.daspawnw.sammelalbum.service.ExchangeService;
+import com.daspawnw.sammelalbum.service.MatchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "app.matching.pair-table.enabled=true")
+class UserPairMatchIntegrationTest {
+
+        @Autowired
+        private CardOfferService cardOfferService;
+
+        @Autowired
+        private CardSearchService cardSearchService;
+
+        @Autowired
+        private ExchangeService exchangeService;
+
+        @Autowired
+        private MatchService matchService;
+
+        @Autowired
+        private UserPairMatchRepository userPairMatchRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        private Long aliceId;
+        private Long bobId;
+
+        @BeforeEach
+        void setUp() {
+                cleanUp();
+                for (long id = 1; id <= 3; id++) {
+                        jdbcTemplate.update("INSERT INTO stickers (id, name) VALUES (?, ?)", id, "Sticker " + id);
+                }
+
+                aliceId = userRepository.save(User.builder()
+                                .firstname("Alice").lastname("Doe").mail("alice@example.com").build()).getId();
+                bobId = userRepository.save(User.builder()
+                                .firstname("Bob").lastname("Doe").mail("bob@example.com").build()).getId();
+        }
+
+        // Not transactional, the listeners run in the service transactions
+        @AfterEach
+        void cleanUp() {
+                jdbcTemplate.execute("DELETE FROM shedlock");
+                jdbcTemplate.execute("DELETE FROM email_outbox");
+                jdbcTemplate.execute("DELETE FROM exchange_requests");
+                jdbcTemplate.execute("DELETE FROM card_searches");
+                jdbcTemplate.execute("DELETE FROM card_offers");
+                jdbcTemplate.execute("DELETE FROM credentials");
+                jdbcTemplate.execute("DELETE FROM users");
+                jdbcTemplate.execute("DELETE FROM stickers");
+        }
+
+        @Test
+        void cardAndRequestChanges_ShouldKeepPairTableConsistent() {
+                cardSearchService.addSearch(aliceId, new CardSearchRequest(1L));
+                cardSearchService.addSearch(aliceId, new CardSearchRequest(2L));
+                cardOfferService.addOffer(bobId, new CardOfferRequest(1L, false, true, false));
+                cardOfferService.addOffer(bobId, new CardOfferRequest(2L, false, true, false));
+
+                assertEquals(0, userPairMatchRepository.countDrift());
+                List<MatchResponse> matches = matchService.getFreebieMatches(aliceId, Pageable.unpaged()).getContent();
+                assertEquals(1, matches.size());
+                assertEquals(bobId, matches.get(0).getUserId());
+                assertEquals(2L, matches.get(0).getExchangeableCount());
+
+                // The active request excludes sticker 1 for Alice only
+                exchangeService.createExchangeRequest(aliceId, bobId, 1L, null, ExchangeType.FREEBIE);
+
+                assertEquals(0, userPairMatchRepository.countDrift());
+                assertEquals(1L, matchService.getFreebieMatches(aliceId, Pageable.unpaged())
+                                .getContent().get(0).getExchangeableCount());
+
+                cardSearchService.getSearches(aliceId).stream()
+                                .filter(search -> search.getStickerId().equals(2L))
+                                .forEach(search -> cardSearchService.deleteSearch(aliceId, search.getId()));
+
+                assertEquals(0, userPairMatchRepository.countDrift());
+                assertEquals(0, matchService.getFreebieMatches(aliceId, Pageable.unpaged()).getTotalElements());
+        }
+
+        @RepeatedTest(3)
+        void concurrentChangesOfBothPartners_ShouldKeepPairTableConsistent() throws Exception {
+                // Both pair rows exist already: on H2 two first inserts of the same pair
+                // can still collide, PostgreSQL waits in ON CONFLICT
+                cardSearchService.addSearch(aliceId, new CardSearchRequest(1L));
+                cardSearchService.addSearch(bobId, new CardSearchRequest(2L));
+                cardSearchService.addSearch(aliceId, new CardSearchRequest(3L));
+                cardOfferService.addOffer(bobId, new CardOfferRequest(3L, false, true, false));
+
+                ExecutorService executor = Executors.newFixedThreadPool(2);
+                CountDownLatch start = new CountDownLatch(1);
+                try {
+                        Future<?> alice = executor.submit(() -> {
+                                start.await();
+                                return cardOfferService.addOffer(aliceId, new CardOfferRequest(2L, false, true, false));
+                        });
+                        Future<?> bob = executor.submit(() -> {
+                                start.await();
+                                return cardOfferService.addOffer(bobId, new CardOfferRequest(1L, false, true, false));
+                        });
+                        start.countDown();
+                        alice.get();
+                        bob.get();
+                } finally {
+                        executor.shutdownNow();
+                }
+
+                assertEquals(0, userPairMatchRepository.countDrift());
+                // 1 and 3 in, 2 out
+                assertEquals(3L, matchService.getFreebieMatches(aliceId, Pageable.unpaged())
+                                .getContent().get(0).getExchangeableCount());
+        }
+}
@@ -2,21 +2,27 @@ package com.daspawnw.sammelalbum.repository;
 
 import com.daspawnw.sammelalbum.model.CardOffer;
 import com.daspawnw.sammelalbum.model.CardSearch;
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
 import com.daspawnw.sammelalbum.model.Sticker;
 import com.daspawnw.sammelalbum.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DataJpaTest
+@Import({CardStockRepository.class, SqlDialect.class})
 @ActiveProfiles("test")
 class MatchRepositoryTest {
 
@@ -26,18 +32,25 @@ class MatchRepositoryTest {
     @Autowired
     private CardSearchRepository cardSearchRepository;
 
+    @Autowired
+    private CardStockRepository cardStockRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private StickerRepository stickerRepository;
 
+    @Autowired
+    private ExchangeRequestRepository exchangeRequestRepository;
+
     private Long aliceId;
     private Long bobId;
     private Long charlieId;
 
     @BeforeEach
     void setUp() {
+        exchangeRequestRepository.deleteAll();
         cardOfferRepository.deleteAll();
         cardSearchRepository.deleteAll();
         userRepository.deleteAll();
@@ -74,6 +87,7 @@ class MatchRepositoryTest {
         // Charlie offers 1 as freebie
         cardOfferRepository.save(CardOffer.builder().userId(charlieId).stickerId(1L).offerFreebie(true).build());
 
+        refreshStock();
         Page<MatchProjection> results = cardOfferRepository.findFreebieMatches(aliceId, PageRequest.of(0, 10));
 
         assertEquals(2, results.getTotalElements());
@@ -97,6 +111,7 @@ class MatchRepositoryTest {
         // Bob offers 1 as payed
         cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(1L).offerPayed(true).build());
 
+        refreshStock();
         Page<MatchProjection> results = cardOfferRepository.findPayedMatches(aliceId, PageRequest.of(0, 10));
 
         assertEquals(1, results.getTotalElements());
@@ -132,6 +147,7 @@ class MatchRepositoryTest {
         cardOfferRepository.save(CardOffer.builder().userId(charlieId).stickerId(2L).offerExchange(true).build());
         cardOfferRepository.save(CardOffer.builder().userId(charlieId).stickerId(3L).offerExchange(true).build());
 
+        refreshStock();
         Page<MatchProjection> results = cardOfferRepository.findExchangeMatches(aliceId, PageRequest.of(0, 10));
 
         assertEquals(2, results.getTotalElements());
@@ -145,4 +161,84 @@ class MatchRepositoryTest {
         assertEquals(charlieId, content.get(1).getUserId());
         assertEquals(1L, content.get(1).getMatchCount());
     }
+
+    @Test
+    void findFreebieMatches_ShouldNotCountActivelyRequestedStickers() {
+        // Alice needs 1, 2
+        cardSearchRepository.save(CardSearch.builder().userId(aliceId).stickerId(1L).build());
+        cardSearchRepository.save(CardSearch.builder().userId(aliceId).stickerId(2L).build());
+
+        // Bob offers 1, 2 as freebie, Charlie offers 1 as freebie
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(1L).offerFreebie(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(2L).offerFreebie(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(charlieId).stickerId(1L).offerFreebie(true).build());
+
+        // Alice already requested 1 from Bob and 1 from Charlie; the one from Charlie was canceled
+        exchangeRequestRepository.save(ExchangeRequest.builder().requesterId(aliceId).offererId(bobId)
+                .requestedStickerId(1L).exchangeType(ExchangeType.FREEBIE).status(ExchangeStatus.MAIL_SEND).build());
+        exchangeRequestRepository.save(ExchangeRequest.builder().requesterId(aliceId).offererId(charlieId)
+                .requestedStickerId(1L).exchangeType(ExchangeType.FREEBIE)
+                .status(ExchangeStatus.EXCHANGE_CANCELED).build());
+
+        refreshStock();
+        Page<MatchProjection> results = cardOfferRepository.findFreebieMatches(aliceId, PageRequest.of(0, 10));
+
+        assertEquals(2, results.getTotalElements());
+        assertEquals(bobId, results.getContent().get(0).getUserId());
+        assertEquals(1L, results.getContent().get(0).getMatchCount());
+        assertEquals(charlieId, results.getContent().get(1).getUserId());
+        assertEquals(1L, results.getContent().get(1).getMatchCount());
+    }
+
+    @Test
+    void findExchangeMatches_ShouldDropPartnerWhenAllOfferedStickersAreRequested() {
+        // Alice needs 1, offers 4 for exchange; Bob offers 1 and needs 4
+        cardSearchRepository.save(CardSearch.builder().userId(aliceId).stickerId(1L).build());
+        cardOfferRepository.save(CardOffer.builder().userId(aliceId).stickerId(4L).offerExchange(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(1L).offerExchange(true).build());
+        cardSearchRepository.save(CardSearch.builder().userId(bobId).stickerId(4L).build());
+
+        exchangeRequestRepository.save(ExchangeRequest.builder().requesterId(aliceId).offererId(bobId)
+                .requestedStickerId(1L).offeredStickerId(4L).exchangeType(ExchangeType.EXCHANGE)
+                .status(ExchangeStatus.INITIAL).build());
+
+        refreshStock();
+        Page<MatchProjection> results = cardOfferRepository.findExchangeMatches(aliceId, PageRequest.of(0, 10));
+
+        assertEquals(0, results.getTotalElements());
+    }
+
+    @Test
+    void findPayedMatches_ShouldCountDuplicateCopiesOnceAndIgnoreReservedCopies() {
+        // Alice needs 1 (twice), 2
+        cardSearchRepository.save(CardSearch.builder().userId(aliceId).stickerId(1L).build());
+        cardSearchRepository.save(CardSearch.builder().userId(aliceId).stickerId(1L).build());
+        cardSearchRepository.save(CardSearch.builder().userId(aliceId).stickerId(2L).build());
+
+        // Bob offers three copies of 1, one of them reserved
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(1L).offerPayed(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(1L).offerPayed(true).build());
+        cardOfferRepository.save(
+                CardOffer.builder().userId(bobId).stickerId(1L).offerPayed(true).isReserved(true).build());
+        // Charlie only has a reserved copy of 2
+        cardOfferRepository.save(
+                CardOffer.builder().userId(charlieId).stickerId(2L).offerPayed(true).isReserved(true).build());
+
+        refreshStock();
+        Page<MatchProjection> results = cardOfferRepository.findPayedMatches(aliceId, PageRequest.of(0, 10));
+
+        assertEquals(1, results.getTotalElements());
+        assertEquals(bobId, results.getContent().get(0).getUserId());
+        assertEquals(1L, results.getContent().get(0).getMatchCount());
+    }
+
+    // Cards are saved directly through the repositories here, so the stock
+    // tables the match queries read from are refreshed explicitly
+    private void refreshStock() {
+        List<Long> stickerIds = LongStream.rangeClosed(1, 10).boxed().toList();
+        for (Long userId : List.of(aliceId, bobId, charlieId)) {
+            cardStockRepository.refreshOfferStock(userId, stickerIds);
+            cardStockRepository.refreshSearchStock(userId, stickerIds);
+        }
+    }
 }
@@ -0,0 +1,212 @@
+package com.daspawnw.sammelalbum.repository;
+
+import com.daspawnw.sammelalbum.model.CardOffer;
+import com.daspawnw.sammelalbum.model.CardSearch;
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.model.Sticker;
+import com.daspawnw.sammelalbum.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import({CardStockRepository.class, UserPairRefreshRepository.class, SqlDialect.class})
+@ActiveProfiles("test")
+class UserPairMatchRepositoryTest {
+
+    @Autowired
+    private UserPairMatchRepository userPairMatchRepository;
+
+    @Autowired
+    private CardOfferRepository cardOfferRepository;
+
+    @Autowired
+    private CardSearchRepository cardSearchRepository;
+
+    @Autowired
+    private CardStockRepository cardStockRepository;
+
+    @Autowired
+    private UserPairRefreshRepository userPairRefreshRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StickerRepository stickerRepository;
+
+    @Autowired
+    private ExchangeRequestRepository exchangeRequestRepository;
+
+    private Long aliceId;
+    private Long bobId;
+    private Long charlieId;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRequestRepository.deleteAll();
+        cardOfferRepository.deleteAll();
+        cardSearchRepository.deleteAll();
+        userRepository.deleteAll();
+        stickerRepository.deleteAll();
+
+        aliceId = userRepository
+                .save(User.builder().firstname("Alice").lastname("Doe").mail("alice@example.com").build()).getId();
+        bobId = userRepository
+                .save(User.builder().firstname("Bob").lastname("Doe").mail("bob@example.com").build()).getId();
+        charlieId = userRepository
+                .save(User.builder().firstname("Charlie").lastname("Doe").mail("charlie@example.com").build())
+                .getId();
+
+        for (long i = 1; i <= 10; i++) {
+            stickerRepository.save(Sticker.builder().id(i).name("Sticker " + i).build());
+        }
+
+        // Alice needs 1, 2, 3 and offers 4, 5 for exchange, 6 as freebie
+        search(aliceId, 1L);
+        search(aliceId, 2L);
+        search(aliceId, 3L);
+        cardOfferRepository.save(CardOffer.builder().userId(aliceId).stickerId(4L).offerExchange(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(aliceId).stickerId(5L).offerExchange(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(aliceId).stickerId(6L).offerFreebie(true).build());
+
+        // Bob offers 1, 2 (freebie and exchange) and 3 (payed), needs 4, 5, 6
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(1L).offerFreebie(true)
+                .offerExchange(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(2L).offerFreebie(true)
+                .offerExchange(true).build());
+        cardOfferRepository.save(CardOffer.builder().userId(bobId).stickerId(3L).offerPayed(true).build());
+        search(bobId, 4L);
+        search(bobId, 5L);
+        search(bobId, 6L);
+
+        // Charlie offers 1 (payed, exchange), needs 4
+        cardOfferRepository.save(CardOffer.builder().userId(charlieId).stickerId(1L).offerPayed(true)
+                .offerExchange(true).build());
+        search(charlieId, 4L);
+
+        refreshStock();
+    }
+
+    @Test
+    void rebuildAll_ShouldCountLikeNativeMatchQueries() {
+        exchangeRequestRepository.save(ExchangeRequest.builder().requesterId(aliceId).offererId(bobId)
+                .requestedStickerId(1L).offeredStickerId(4L).exchangeType(ExchangeType.EXCHANGE)
+                .status(ExchangeStatus.MAIL_SEND).build());
+
+        userPairMatchRepository.rebuildAll();
+
+        // Alice: Bob 1 in (2, the requested 1 is excluded) + 1 out (6)
+        assertSameMatches(cardOfferRepository.findFreebieMatches(aliceId, PageRequest.of(0, 10)).getContent(),
+                userPairMatchRepository.findFreebieMatches(aliceId, PageRequest.of(0, 10)).getContent());
+        assertSameMatches(cardOfferRepository.findPayedMatches(aliceId, PageRequest.of(0, 10)).getContent(),
+                userPairMatchRepository.findPayedMatches(aliceId, PageRequest.of(0, 10)).getContent());
+        // Bob is not affected by Alice's request: 2 in (4, 5) for 2 out (1, 2)
+        assertEquals(List.of(List.of(aliceId, 3L)), matches(
+                userPairMatchRepository.findFreebieMatches(bobId, PageRequest.of(0, 10)).getContent()));
+        assertEquals(List.of(List.of(aliceId, 2L)), matches(
+                userPairMatchRepository.findExchangeMatches(bobId, PageRequest.of(0, 10)).getContent()));
+        // Alice: min(1, 1) with Bob after the request, min(1, 1) with Charlie
+        assertEquals(List.of(List.of(bobId, 1L), List.of(charlieId, 1L)), matches(
+                userPairMatchRepository.findExchangeMatches(aliceId, PageRequest.of(0, 10)).getContent()));
+        assertEquals(0, userPairMatchRepository.countDrift());
+    }
+
+    @Test
+    void refreshCards_ShouldRepairPairsInBothDirections() {
+        userPairMatchRepository.rebuildAll();
+
+        // Charlie now also offers 2 as freebie and needs 6
+        cardOfferRepository.save(CardOffer.builder().userId(charlieId).stickerId(2L).offerFreebie(true).build());
+        search(charlieId, 6L);
+        refreshStock();
+        // (Alice, Charlie) and (Charlie, Alice) changed, each stale and missing
+        assertEquals(4, userPairMatchRepository.countDrift());
+
+        userPairRefreshRepository.refresh(
+                List.of(new UserPairRefreshRepository.ChangedCards(charlieId, Set.of(2L), Set.of(6L))), List.of());
+
+        assertEquals(0, userPairMatchRepository.countDrift());
+        assertSameMatches(cardOfferRepository.findFreebieMatches(aliceId, PageRequest.of(0, 10)).getContent(),
+                userPairMatchRepository.findFreebieMatches(aliceId, PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void refreshPair_ShouldApplyRequestExclusions() {
+        userPairMatchRepository.rebuildAll();
+        exchangeRequestRepository.save(ExchangeRequest.builder().requesterId(aliceId).offererId(charlieId)
+                .requestedStickerId(1L).exchangeType(ExchangeType.PAYED).status(ExchangeStatus.INITIAL).build());
+
+        userPairRefreshRepository.refresh(List.of(),
+                List.of(new UserPairRefreshRepository.ChangedPair(aliceId, charlieId)));
+
+        assertEquals(0, userPairMatchRepository.countDrift());
+        assertEquals(List.of(bobId), userPairMatchRepository.findPayedMatches(aliceId, PageRequest.of(0, 10))
+                .map(MatchProjection::getUserId).getContent());
+    }
+
+    @Test
+    void refreshCards_ShouldDeletePairsWithoutMatches() {
+        userPairMatchRepository.rebuildAll();
+
+        // Charlie drops his only offer and search, both matched with Alice
+        cardOfferRepository.deleteAll(cardOfferRepository.findByUserIdAndStickerIdIn(charlieId, List.of(1L)));
+        cardSearchRepository.deleteAll(cardSearchRepository.findByUserIdAndStickerIdIn(charlieId, List.of(4L)));
+        refreshStock();
+
+        userPairRefreshRepository.refresh(
+                List.of(new UserPairRefreshRepository.ChangedCards(charlieId, Set.of(1L), Set.of(4L))), List.of());
+
+        assertEquals(0, userPairMatchRepository.countDrift());
+        assertEquals(List.of(bobId), userPairMatchRepository.findExchangeMatches(aliceId, PageRequest.of(0, 10))
+                .map(MatchProjection::getUserId).getContent());
+    }
+
+    @Test
+    void findMatchesAfter_ShouldContinueAfterCursor() {
+        userPairMatchRepository.rebuildAll();
+
+        // Exchange for Alice: Bob min(2, 2) = 2, Charlie min(1, 1) = 1
+        List<MatchProjection> first = userPairMatchRepository.findExchangeMatchesAfter(aliceId, Long.MAX_VALUE, 0, 1);
+        List<MatchProjection> rest = userPairMatchRepository.findExchangeMatchesAfter(aliceId,
+                first.get(0).getMatchCount(), first.get(0).getUserId(), 10);
+
+        assertEquals(bobId, first.get(0).getUserId());
+        assertEquals(List.of(charlieId), rest.stream().map(MatchProjection::getUserId).toList());
+        assertEquals(2, userPairMatchRepository.countByUserIdAndExchangeCountGreaterThan(aliceId, 0));
+    }
+
+    private void search(Long userId, Long stickerId) {
+        cardSearchRepository.save(CardSearch.builder().userId(userId).stickerId(stickerId).build());
+    }
+
+    private void assertSameMatches(List<MatchProjection> expected, List<MatchProjection> actual) {
+        assertEquals(matches(expected), matches(actual));
+    }
+
+    private static List<List<Long>> matches(List<MatchProjection> projections) {
+        return projections.stream().map(m -> List.of(m.getUserId(), m.getMatchCount())).toList();
+    }
+
+    // Cards are saved directly through the repositories here, so the stock
+    // tables are refreshed explicitly
+    private void refreshStock() {
+        List<Long> stickerIds = LongStream.rangeClosed(1, 10).boxed().toList();
+        for (Long userId : List.of(aliceId, bobId, charlieId)) {
+            cardStockRepository.refreshOfferStock(userId, stickerIds);
+            cardStockRepository.refreshSearchStock(userId, stickerIds);
+        }
+    }
+}
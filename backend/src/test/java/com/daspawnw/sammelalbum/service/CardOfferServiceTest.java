@@ -5,17 +5,18 @@ import com.daspawnw.sammelalbum.dto.CardOfferDtos.CardOfferRequest;
 import com.daspawnw.sammelalbum.dto.CardOfferDtos.CardOfferResponse;
 import com.daspawnw.sammelalbum.model.CardOffer;
 import com.daspawnw.sammelalbum.repository.CardOfferRepository;
-import com.daspawnw.sammelalbum.repository.StickerRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,11 +30,14 @@ class CardOfferServiceTest {
     private CardOfferRepository cardOfferRepository;
 
     @Mock
-    private StickerRepository stickerRepository;
+    private StickerCatalog stickerCatalog;
 
     @Mock
     private ExchangeService exchangeService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CardOfferService cardOfferService;
 
@@ -50,7 +54,7 @@ class CardOfferServiceTest {
                 .offerExchange(true)
                 .build();
 
-        when(stickerRepository.existsById(100L)).thenReturn(true);
+        when(stickerCatalog.exists(100L)).thenReturn(true);
         when(cardOfferRepository.save(any(CardOffer.class))).thenReturn(savedOffer);
 
         CardOfferResponse response = cardOfferService.addOffer(userId, request);
@@ -60,7 +64,7 @@ class CardOfferServiceTest {
         assertTrue(response.getOfferPayed());
         assertFalse(response.getOfferFreebie());
         assertTrue(response.getOfferExchange());
-        verify(stickerRepository).existsById(100L);
+        verify(stickerCatalog).exists(100L);
         verify(cardOfferRepository).save(any(CardOffer.class));
     }
 
@@ -69,7 +73,7 @@ class CardOfferServiceTest {
         Long userId = 1L;
         CardOfferRequest request = new CardOfferRequest(999L, true, false, false);
 
-        when(stickerRepository.existsById(999L)).thenReturn(false);
+        when(stickerCatalog.exists(999L)).thenReturn(false);
 
         assertThrows(IllegalArgumentException.class, () -> cardOfferService.addOffer(userId, request));
         verify(cardOfferRepository, never()).save(any());
@@ -79,7 +83,7 @@ class CardOfferServiceTest {
     void deleteOffer_Success() {
         Long userId = 1L;
         Long offerId = 10L;
-        CardOffer offer = CardOffer.builder().id(offerId).userId(userId).build();
+        CardOffer offer = CardOffer.builder().id(offerId).userId(userId).stickerId(100L).build();
 
         when(cardOfferRepository.findById(offerId)).thenReturn(Optional.of(offer));
 
@@ -119,4 +123,19 @@ class CardOfferServiceTest {
 
         verify(cardOfferRepository).deleteAll(anyList());
     }
+
+    @Test
+    void addBulkOffers_UnknownStickers_ReportsAllAtOnce() {
+        Long userId = 1L;
+        BulkCardOfferRequest request = new BulkCardOfferRequest(Arrays.asList(100L, 998L, 999L, 998L), true, false,
+                false);
+
+        when(stickerCatalog.findUnknown(request.getStickerIds())).thenReturn(new TreeSet<>(List.of(998L, 999L)));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> cardOfferService.addBulkOffers(userId, request));
+        assertEquals("Stickers with IDs [998, 999] do not exist", e.getMessage());
+        verify(stickerCatalog, never()).exists(any());
+        verify(cardOfferRepository, never()).saveAll(any());
+    }
 }
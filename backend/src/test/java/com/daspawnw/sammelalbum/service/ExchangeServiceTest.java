@@ -5,14 +5,17 @@ import com.daspawnw.sammelalbum.model.ExchangeStatus;
 import com.daspawnw.sammelalbum.model.ExchangeType;
 import com.daspawnw.sammelalbum.repository.CardOfferRepository;
 import com.daspawnw.sammelalbum.repository.ExchangeRequestRepository;
-import com.daspawnw.sammelalbum.repository.StickerRepository;
 import com.daspawnw.sammelalbum.repository.UserRepository;
 import com.daspawnw.sammelalbum.service.notification.NotificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 
@@ -33,7 +36,7 @@ class ExchangeServiceTest {
         private com.daspawnw.sammelalbum.repository.CardSearchRepository cardSearchRepository;
 
         @Mock
-        private StickerRepository stickerRepository;
+        private StickerCatalog stickerCatalog;
 
         @Mock
         private NotificationService notificationService;
@@ -41,6 +44,12 @@ class ExchangeServiceTest {
         @Mock
         private UserRepository userRepository;
 
+        @Mock
+        private ApplicationEventPublisher eventPublisher;
+
+        @Spy
+        private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
         @InjectMocks
         private ExchangeService exchangeService;
 
@@ -93,16 +102,9 @@ class ExchangeServiceTest {
                                 .status(ExchangeStatus.INITIAL)
                                 .build();
 
-                com.daspawnw.sammelalbum.model.Sticker requestedSticker = new com.daspawnw.sammelalbum.model.Sticker();
-                requestedSticker.setId(requestedStickerId);
-                requestedSticker.setName("Charizard");
-
-                com.daspawnw.sammelalbum.model.Sticker offeredSticker = new com.daspawnw.sammelalbum.model.Sticker();
-                offeredSticker.setId(offeredStickerId);
-                offeredSticker.setName("Pikachu");
-
                 when(exchangeRequestRepository.findByRequesterId(requesterId)).thenReturn(List.of(request));
-                when(stickerRepository.findAllById(anySet())).thenReturn(List.of(requestedSticker, offeredSticker));
+                when(stickerCatalog.getNames(anySet())).thenReturn(
+                                java.util.Map.of(requestedStickerId, "Charizard", offeredStickerId, "Pikachu"));
 
                 // Act
                 List<com.daspawnw.sammelalbum.dto.ExchangeRequestDto> result = exchangeService
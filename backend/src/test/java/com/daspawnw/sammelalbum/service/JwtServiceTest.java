@@ -0,0 +1,119 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.repository.UserRepository;
+import com.daspawnw.sammelalbum.security.CustomUserDetails;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+    private static final String TEST_SECRET = "K7gNU3kef8297wnsJvbdw/Ba49bmGW76NFh70fE0ZeM=";
+
+    private AppProperties.JwtProperties jwtProperties;
+    private UserRepository userRepository;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new AppProperties.JwtProperties();
+        jwtProperties.setSecret(TEST_SECRET);
+        jwtProperties.setExpiration(3600000L);
+        userRepository = mock(UserRepository.class);
+        when(userRepository.existsById(any())).thenReturn(true);
+        jwtService = new JwtService(appProperties(), userRepository);
+    }
+
+    @Test
+    void verifyToken_shouldBuildPrincipalFromClaims() {
+        String token = jwtService.generateToken(user("alice"), 7L);
+
+        CustomUserDetails principal = jwtService.verifyToken(token);
+
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getUserId()).isEqualTo(7L);
+    }
+
+    @Test
+    void verifyToken_shouldReturnCachedPrincipal_ForSameToken() {
+        String token = jwtService.generateToken(user("alice"), 7L);
+
+        assertThat(jwtService.verifyToken(token)).isSameAs(jwtService.verifyToken(token));
+        verify(userRepository, times(1)).existsById(7L);
+    }
+
+    @Test
+    void verifyToken_shouldThrow_WhenUserNoLongerExists() {
+        when(userRepository.existsById(7L)).thenReturn(false);
+        String token = jwtService.generateToken(user("alice"), 7L);
+
+        assertThatThrownBy(() -> jwtService.verifyToken(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void verifyToken_shouldThrow_AfterCachedUserIsDeleted() {
+        String token = jwtService.generateToken(user("alice"), 7L);
+        jwtService.verifyToken(token);
+
+        when(userRepository.existsById(7L)).thenReturn(false);
+        jwtService.onUserDeleted(new UserDeletedEvent(7L));
+
+        assertThatThrownBy(() -> jwtService.verifyToken(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void verifyToken_shouldNotCache_WhenCacheIsDisabled() {
+        jwtProperties.setPrincipalCacheSize(0);
+        jwtService = new JwtService(appProperties(), userRepository);
+        String token = jwtService.generateToken(user("alice"), 7L);
+
+        assertThat(jwtService.verifyToken(token)).isNotSameAs(jwtService.verifyToken(token));
+    }
+
+    @Test
+    void verifyToken_shouldReturnNullUserId_WhenClaimIsMissing() {
+        String token = jwtService.generateToken(Map.of(), user("alice"));
+
+        assertThat(jwtService.verifyToken(token).getUserId()).isNull();
+    }
+
+    @Test
+    void verifyToken_shouldThrow_WhenTokenIsExpired() {
+        jwtProperties.setExpiration(-1000L);
+        String token = jwtService.generateToken(user("alice"), 7L);
+
+        assertThatThrownBy(() -> jwtService.verifyToken(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void verifyToken_shouldThrow_WhenSignatureDoesNotMatch() {
+        String token = jwtService.generateToken(user("alice"), 7L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.verifyToken(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    private AppProperties appProperties() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setJwt(jwtProperties);
+        return appProperties;
+    }
+
+    private static User user(String username) {
+        return new User(username, "password", Collections.emptyList());
+    }
+}
@@ -1,19 +1,27 @@
 package com.daspawnw.sammelalbum.service;
 
+import com.daspawnw.sammelalbum.config.AppProperties;
 import com.daspawnw.sammelalbum.dto.MatchDtos.MatchResponse;
 import com.daspawnw.sammelalbum.model.CardOffer;
+import com.daspawnw.sammelalbum.model.CardSearch;
 import com.daspawnw.sammelalbum.model.ExchangeRequest;
 import com.daspawnw.sammelalbum.model.ExchangeStatus;
 import com.daspawnw.sammelalbum.model.ExchangeType;
-import com.daspawnw.sammelalbum.model.Sticker;
 import com.daspawnw.sammelalbum.repository.CardOfferRepository;
 import com.daspawnw.sammelalbum.repository.CardSearchRepository;
 import com.daspawnw.sammelalbum.repository.ExchangeRequestRepository;
 import com.daspawnw.sammelalbum.repository.MatchProjection;
+import com.daspawnw.sammelalbum.repository.UserPairMatchRepository;
+import com.daspawnw.sammelalbum.service.match.MatchExclusions;
+import com.daspawnw.sammelalbum.service.match.MatchIndex;
+import com.daspawnw.sammelalbum.service.match.MatchType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -21,14 +29,19 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class MatchServiceFilteringTest {
 
+        private static final Long USER_ID = 1L;
+        private static final Long PARTNER_ID = 2L;
+
         @Mock
         private CardOfferRepository cardOfferRepository;
 
@@ -38,51 +51,147 @@ class MatchServiceFilteringTest {
         @Mock
         private ExchangeRequestRepository exchangeRequestRepository;
 
+        @Mock
+        private MatchIndex matchIndex;
+
+        @Mock
+        private StickerCatalog stickerCatalog;
+
+        @Mock
+        private UserPairMatchRepository userPairMatchRepository;
+
+        @Spy
+        private AppProperties appProperties = new AppProperties();
+
+        @Spy
+        private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
         @InjectMocks
         private MatchService matchService;
 
         @Test
-        void getFreebieMatches_ShouldFilterOutActiveRequests() {
-                // Arrange
-                Long userId = 1L;
-                Long partnerId = 2L;
-                Long stickerId = 100L;
+        void getFreebieMatches_ShouldExcludeActivelyRequestedItemsWithoutDroppingMatch() {
+                // Partner offers 100 and 101; 100 was already requested
+                Page<MatchProjection> matches = new PageImpl<>(List.of(projection(PARTNER_ID, 1L)));
+                when(cardOfferRepository.findFreebieMatches(eq(USER_ID), any(Pageable.class))).thenReturn(matches);
+                when(cardOfferRepository.findMatchingOffers(eq(USER_ID), anyList(), eq(true), eq(false), eq(false)))
+                                .thenReturn(List.of(offer(PARTNER_ID, 100L), offer(PARTNER_ID, 101L)));
+                when(exchangeRequestRepository.findByRequesterIdAndStatusIn(USER_ID, MatchExclusions.ACTIVE_STATUSES))
+                                .thenReturn(List.of(request(ExchangeType.FREEBIE, 100L, null)));
+
+                Page<MatchResponse> result = matchService.getFreebieMatches(USER_ID, Pageable.unpaged());
+
+                assertEquals(1, result.getContent().size());
+                MatchResponse response = result.getContent().get(0);
+                assertEquals(1, response.getItemsRequested().size());
+                assertEquals(101L, response.getItemsRequested().get(0).getId());
+                assertEquals(1L, response.getExchangeableCount());
+        }
+
+        @Test
+        void getExchangeMatches_ShouldExcludeItemsAlreadyOfferedInExchange() {
+                Page<MatchProjection> matches = new PageImpl<>(List.of(projection(PARTNER_ID, 1L)));
+                when(cardOfferRepository.findExchangeMatches(eq(USER_ID), any(Pageable.class))).thenReturn(matches);
+                when(cardOfferRepository.findMatchingOffers(eq(USER_ID), anyList(), eq(false), eq(false), eq(true)))
+                                .thenReturn(List.of(offer(PARTNER_ID, 100L), offer(PARTNER_ID, 101L)));
+                when(cardSearchRepository.findMatchingSearches(anyList(), eq(USER_ID), eq(false), eq(false), eq(true)))
+                                .thenReturn(List.of(search(PARTNER_ID, 200L), search(PARTNER_ID, 201L)));
+                // Already asked for 100 in exchange for 200
+                when(exchangeRequestRepository.findByRequesterIdAndStatusIn(USER_ID, MatchExclusions.ACTIVE_STATUSES))
+                                .thenReturn(List.of(request(ExchangeType.EXCHANGE, 100L, 200L)));
+
+                Page<MatchResponse> result = matchService.getExchangeMatches(USER_ID, Pageable.unpaged());
+
+                MatchResponse response = result.getContent().get(0);
+                assertEquals(List.of(101L), response.getItemsRequested().stream().map(i -> i.getId()).toList());
+                assertEquals(List.of(201L), response.getItemsOffered().stream().map(i -> i.getId()).toList());
+                assertEquals(1L, response.getExchangeableCount());
+        }
+
+        @Test
+        void getExchangeMatches_ShouldListEachStickerOnceForDuplicateCopies() {
+                // Partner holds three copies of 100 and wants 200 twice; the match count is per sticker
+                Page<MatchProjection> matches = new PageImpl<>(List.of(projection(PARTNER_ID, 2L)));
+                when(cardOfferRepository.findExchangeMatches(eq(USER_ID), any(Pageable.class))).thenReturn(matches);
+                when(cardOfferRepository.findMatchingOffers(eq(USER_ID), anyList(), eq(false), eq(false), eq(true)))
+                                .thenReturn(List.of(offer(PARTNER_ID, 100L), offer(PARTNER_ID, 100L),
+                                                offer(PARTNER_ID, 101L), offer(PARTNER_ID, 100L)));
+                when(cardSearchRepository.findMatchingSearches(anyList(), eq(USER_ID), eq(false), eq(false), eq(true)))
+                                .thenReturn(List.of(search(PARTNER_ID, 200L), search(PARTNER_ID, 200L),
+                                                search(PARTNER_ID, 201L)));
+                when(exchangeRequestRepository.findByRequesterIdAndStatusIn(USER_ID, MatchExclusions.ACTIVE_STATUSES))
+                                .thenReturn(List.of());
+
+                Page<MatchResponse> result = matchService.getExchangeMatches(USER_ID, Pageable.unpaged());
+
+                MatchResponse response = result.getContent().get(0);
+                assertEquals(List.of(100L, 101L), response.getItemsRequested().stream().map(i -> i.getId()).toList());
+                assertEquals(List.of(200L, 201L), response.getItemsOffered().stream().map(i -> i.getId()).toList());
+                assertEquals(2L, response.getExchangeableCount());
+        }
+
+        @Test
+        void getPayedMatches_FromIndex_ShouldPassExclusionsToIndex() {
+                when(matchIndex.isReady()).thenReturn(true);
+                when(matchIndex.findMatches(eq(USER_ID), eq(MatchType.PAYED), any(MatchExclusions.class)))
+                                .thenReturn(List.of());
+                when(exchangeRequestRepository.findByRequesterIdAndStatusIn(USER_ID, MatchExclusions.ACTIVE_STATUSES))
+                                .thenReturn(List.of());
+
+                Page<MatchResponse> result = matchService.getPayedMatches(USER_ID, Pageable.unpaged());
 
-                // Mock MatchProjection
+                assertEquals(0, result.getTotalElements());
+                verify(cardOfferRepository, never()).findPayedMatches(any(), any());
+        }
+
+        @Test
+        void getPayedMatches_FromPairTable_ShouldNotRunNativeQueries() {
+                appProperties.getMatching().getPairTable().setEnabled(true);
+                Page<MatchProjection> matches = new PageImpl<>(List.of(projection(PARTNER_ID, 1L)));
+                when(userPairMatchRepository.findPayedMatches(eq(USER_ID), any(Pageable.class))).thenReturn(matches);
+                when(cardOfferRepository.findMatchingOffers(eq(USER_ID), anyList(), eq(false), eq(true), eq(false)))
+                                .thenReturn(List.of(offer(PARTNER_ID, 100L)));
+                when(exchangeRequestRepository.findByRequesterIdAndStatusIn(USER_ID, MatchExclusions.ACTIVE_STATUSES))
+                                .thenReturn(List.of());
+
+                Page<MatchResponse> result = matchService.getPayedMatches(USER_ID, Pageable.unpaged());
+
+                assertEquals(1, result.getContent().size());
+                assertEquals(PARTNER_ID, result.getContent().get(0).getUserId());
+                verify(cardOfferRepository, never()).findPayedMatches(any(), any());
+                assertEquals(1, meterRegistry.get("sammelalbum.matches.lookup")
+                                .tags("type", "payed", "source", "pair-table").timer().count());
+        }
+
+        private static MatchProjection projection(Long userId, Long matchCount) {
                 MatchProjection projection = mock(MatchProjection.class);
-                when(projection.getUserId()).thenReturn(partnerId);
-                when(projection.getMatchCount()).thenReturn(1L);
-                Page<MatchProjection> matches = new PageImpl<>(List.of(projection));
-
-                when(cardOfferRepository.findFreebieMatches(eq(userId), any(Pageable.class))).thenReturn(matches);
-
-                // Mock CardOffer (Partner has sticker 100)
-                CardOffer offer = new CardOffer();
-                offer.setUserId(partnerId);
-                Sticker sticker = new Sticker();
-                sticker.setId(stickerId);
-                sticker.setName("Sticker 100");
-                offer.setSticker(sticker);
-
-                when(cardOfferRepository.findMatchingOffers(eq(userId), anyList(), eq(true), eq(false), eq(false)))
-                                .thenReturn(List.of(offer));
-
-                // Mock Active Request for sticker 100
-                ExchangeRequest activeRequest = new ExchangeRequest();
-                activeRequest.setRequesterId(userId);
-                activeRequest.setOffererId(partnerId);
-                activeRequest.setRequestedStickerId(stickerId);
-                activeRequest.setExchangeType(ExchangeType.FREEBIE);
-                activeRequest.setStatus(ExchangeStatus.INITIAL);
-
-                when(exchangeRequestRepository.findByRequesterIdAndOffererIdIn(eq(userId), anyList()))
-                                .thenReturn(List.of(activeRequest));
-
-                // Act
-                Page<MatchResponse> result = matchService.getFreebieMatches(userId, Pageable.unpaged());
-
-                // Assert
-                assertTrue(result.getContent().isEmpty(),
-                                "Match should be removed because all requested items were filtered out");
+                when(projection.getUserId()).thenReturn(userId);
+                when(projection.getMatchCount()).thenReturn(matchCount);
+                return projection;
+        }
+
+        private static CardOffer offer(Long userId, Long stickerId) {
+                return CardOffer.builder()
+                                .userId(userId)
+                                .stickerId(stickerId)
+                                .build();
+        }
+
+        private static CardSearch search(Long userId, Long stickerId) {
+                return CardSearch.builder()
+                                .userId(userId)
+                                .stickerId(stickerId)
+                                .build();
+        }
+
+        private static ExchangeRequest request(ExchangeType type, Long requestedStickerId, Long offeredStickerId) {
+                return ExchangeRequest.builder()
+                                .requesterId(USER_ID)
+                                .offererId(PARTNER_ID)
+                                .requestedStickerId(requestedStickerId)
+                                .offeredStickerId(offeredStickerId)
+                                .exchangeType(type)
+                                .status(ExchangeStatus.INITIAL)
+                                .build();
         }
 }
@@ -0,0 +1,73 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.dto.MatchDtos.RingMatchResponse;
+import com.daspawnw.sammelalbum.service.match.MatchIndex;
+import com.daspawnw.sammelalbum.service.match.RingTrade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RingTradeServiceTest {
+
+    @Mock
+    private MatchIndex matchIndex;
+
+    @Mock
+    private StickerCatalog stickerCatalog;
+
+    @Spy
+    private AppProperties appProperties = new AppProperties();
+
+    @InjectMocks
+    private RingTradeService ringTradeService;
+
+    @Test
+    void getRingMatches_IndexNotReady_ReturnsEmpty() {
+        when(matchIndex.isReady()).thenReturn(false);
+
+        assertTrue(ringTradeService.getRingMatches(1L, 10).isEmpty());
+        verify(matchIndex, never()).findRings(anyLong(), anyInt(), anyInt(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getRingMatches_MapsHopsWithStickerNames() {
+        when(matchIndex.isReady()).thenReturn(true);
+        when(matchIndex.findRings(eq(1L), eq(4), eq(20), anyLong(), eq(10)))
+                .thenReturn(List.of(new RingTrade(List.of(1L, 2L, 3L),
+                        List.of(List.of(10L), List.of(20L), List.of(30L)), 3L)));
+        when(stickerCatalog.getNames(List.of(10L, 20L, 30L))).thenReturn(Map.of(
+                10L, "Sticker 10", 20L, "Sticker 20", 30L, "Sticker 30"));
+
+        List<RingMatchResponse> result = ringTradeService.getRingMatches(1L, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(3L, result.get(0).getStickersSatisfied());
+        assertEquals(3, result.get(0).getHops().size());
+        assertEquals(3L, result.get(0).getHops().get(2).getFromUserId());
+        assertEquals(1L, result.get(0).getHops().get(2).getToUserId());
+        assertEquals("Sticker 30", result.get(0).getHops().get(2).getStickers().get(0).getName());
+    }
+
+    @Test
+    void getRingMatches_InvalidLimit_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> ringTradeService.getRingMatches(1L, 0));
+    }
+}
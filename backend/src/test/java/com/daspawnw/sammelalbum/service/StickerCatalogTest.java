@@ -0,0 +1,88 @@
+package com.daspawnw.sammelalbum.service;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.model.Sticker;
+import com.daspawnw.sammelalbum.repository.StickerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StickerCatalogTest {
+
+    @Mock
+    private StickerRepository stickerRepository;
+
+    @Spy
+    private AppProperties appProperties = new AppProperties();
+
+    @InjectMocks
+    private StickerCatalog stickerCatalog;
+
+    @Test
+    void enabled_ServesLookupsFromSnapshot() {
+        appProperties.getStickerCatalog().setEnabled(true);
+        when(stickerRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                Sticker.builder().id(1L).name("Sticker 1").build(),
+                Sticker.builder().id(5L).name("Sticker 5").build(),
+                Sticker.builder().id(9L).name("Sticker 9").build()));
+
+        stickerCatalog.reload();
+
+        assertTrue(stickerCatalog.exists(5L));
+        assertFalse(stickerCatalog.exists(4L));
+        assertFalse(stickerCatalog.exists(null));
+        assertEquals("Sticker 9", stickerCatalog.getName(9L));
+        assertNull(stickerCatalog.getName(10L));
+        assertEquals(Map.of(1L, "Sticker 1", 5L, "Sticker 5"), stickerCatalog.getNames(List.of(1L, 5L, 7L)));
+        verify(stickerRepository).findAll(any(Sort.class));
+        verifyNoMoreInteractions(stickerRepository);
+    }
+
+    @Test
+    void enabled_ReloadReplacesSnapshot() {
+        appProperties.getStickerCatalog().setEnabled(true);
+        when(stickerRepository.findAll(any(Sort.class)))
+                .thenReturn(List.of(Sticker.builder().id(1L).name("Old").build()))
+                .thenReturn(List.of(Sticker.builder().id(1L).name("New").build(),
+                        Sticker.builder().id(2L).name("Added").build()));
+
+        stickerCatalog.reload();
+        assertFalse(stickerCatalog.exists(2L));
+
+        stickerCatalog.reload();
+        assertEquals("New", stickerCatalog.getName(1L));
+        assertTrue(stickerCatalog.exists(2L));
+        verify(stickerRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void disabled_FallsBackToRepository() {
+        when(stickerRepository.existsById(5L)).thenReturn(true);
+        when(stickerRepository.findById(5L)).thenReturn(Optional.of(Sticker.builder().id(5L).name("Sticker 5").build()));
+
+        stickerCatalog.onApplicationReady();
+
+        assertTrue(stickerCatalog.exists(5L));
+        assertEquals("Sticker 5", stickerCatalog.getName(5L));
+        verify(stickerRepository, times(0)).findAll(any(Sort.class));
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -40,6 +41,9 @@ class UserDeletionServiceTest {
         @Mock
         private UserRepository userRepository;
 
+        @Mock
+        private ApplicationEventPublisher eventPublisher;
+
         @InjectMocks
         private UserDeletionService userDeletionService;
 
@@ -82,6 +86,7 @@ class UserDeletionServiceTest {
                 verify(cardOfferRepository).findAllByUserId(1L);
                 verify(cardSearchRepository).findAllByUserId(1L);
                 verify(credentialsRepository).delete(testCredentials);
+                verify(eventPublisher).publishEvent(new UserDeletedEvent(1L));
         }
 
         @Test
@@ -0,0 +1,284 @@
+package com.daspawnw.sammelalbum.service.match;
+
+import com.daspawnw.sammelalbum.model.ExchangeRequest;
+import com.daspawnw.sammelalbum.model.ExchangeStatus;
+import com.daspawnw.sammelalbum.model.ExchangeType;
+import com.daspawnw.sammelalbum.repository.MatchProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchIndexTest {
+
+    private static final Long ALICE = 1L;
+    private static final Long BOB = 2L;
+    private static final Long CHARLIE = 3L;
+
+    private MatchIndex matchIndex;
+
+    @BeforeEach
+    void setUp() {
+        matchIndex = new MatchIndex();
+    }
+
+    @Test
+    void notReadyUntilInstalled() {
+        assertFalse(matchIndex.isReady());
+        matchIndex.install(matchIndex.builder());
+        assertTrue(matchIndex.isReady());
+    }
+
+    @Test
+    void freebieMatches_CountBothDirections() {
+        MatchIndex.Builder builder = matchIndex.builder()
+                // Alice searches 1, 2 and offers 5 as freebie
+                .addSearch(ALICE, 1L)
+                .addSearch(ALICE, 2L)
+                .addOffer(ALICE, 5L, true, false, false)
+                // Bob offers 1 as freebie and searches 5
+                .addOffer(BOB, 1L, true, false, false)
+                .addSearch(BOB, 5L)
+                // Charlie offers 2 as freebie
+                .addOffer(CHARLIE, 2L, true, false, false);
+        matchIndex.install(builder);
+
+        List<MatchProjection> matches = matchIndex.findMatches(ALICE, MatchType.FREEBIE);
+
+        assertEquals(2, matches.size());
+        assertEquals(BOB, matches.get(0).getUserId());
+        assertEquals(2L, matches.get(0).getMatchCount());
+        assertEquals(CHARLIE, matches.get(1).getUserId());
+        assertEquals(1L, matches.get(1).getMatchCount());
+    }
+
+    @Test
+    void payedMatches_OnlyCountIncoming() {
+        MatchIndex.Builder builder = matchIndex.builder()
+                .addSearch(ALICE, 1L)
+                .addOffer(ALICE, 5L, false, true, false)
+                .addOffer(BOB, 1L, false, true, false)
+                .addSearch(BOB, 5L)
+                .addSearch(CHARLIE, 5L);
+        matchIndex.install(builder);
+
+        List<MatchProjection> matches = matchIndex.findMatches(ALICE, MatchType.PAYED);
+
+        assertEquals(1, matches.size());
+        assertEquals(BOB, matches.get(0).getUserId());
+        assertEquals(1L, matches.get(0).getMatchCount());
+    }
+
+    @Test
+    void exchangeMatches_RequireBothDirectionsAndUseMinimum() {
+        MatchIndex.Builder builder = matchIndex.builder()
+                .addSearch(ALICE, 1L)
+                .addSearch(ALICE, 2L)
+                .addOffer(ALICE, 5L, false, false, true)
+                // Bob: gives 1, 2 and wants 5 -> min(2, 1) = 1
+                .addOffer(BOB, 1L, false, false, true)
+                .addOffer(BOB, 2L, false, false, true)
+                .addSearch(BOB, 5L)
+                // Charlie: gives 1 but wants nothing from Alice
+                .addOffer(CHARLIE, 1L, false, false, true);
+        matchIndex.install(builder);
+
+        List<MatchProjection> matches = matchIndex.findMatches(ALICE, MatchType.EXCHANGE);
+
+        assertEquals(1, matches.size());
+        assertEquals(BOB, matches.get(0).getUserId());
+        assertEquals(1L, matches.get(0).getMatchCount());
+    }
+
+    @Test
+    void matches_OrderedByCountThenUserId() {
+        MatchIndex.Builder builder = matchIndex.builder()
+                .addSearch(ALICE, 1L)
+                .addSearch(ALICE, 2L)
+                .addOffer(CHARLIE, 1L, true, false, false)
+                .addOffer(BOB, 2L, true, false, false)
+                .addOffer(4L, 1L, true, false, false)
+                .addOffer(4L, 2L, true, false, false);
+        matchIndex.install(builder);
+
+        List<MatchProjection> matches = matchIndex.findMatches(ALICE, MatchType.FREEBIE);
+
+        assertEquals(List.of(4L, BOB, CHARLIE), matches.stream().map(MatchProjection::getUserId).toList());
+    }
+
+    @Test
+    void unknownUser_ReturnsEmpty() {
+        matchIndex.install(matchIndex.builder().addOffer(BOB, 1L, true, true, true));
+
+        assertTrue(matchIndex.findMatches(ALICE, MatchType.FREEBIE).isEmpty());
+    }
+
+    @Test
+    void apply_UpdatesOnlyStickersInScope() {
+        matchIndex.install(matchIndex.builder()
+                .addSearch(ALICE, 1L)
+                .addSearch(ALICE, 2L)
+                .addOffer(BOB, 1L, true, false, false)
+                .addOffer(BOB, 2L, true, false, false));
+
+        // Bob no longer offers 1 as freebie, only payed; sticker 2 is untouched
+        matchIndex.apply(matchIndex.userUpdate(BOB, List.of(1L), List.of())
+                .addOffer(1L, false, true, false));
+
+        assertEquals(1L, matchIndex.findMatches(ALICE, MatchType.FREEBIE).get(0).getMatchCount());
+        assertEquals(1L, matchIndex.findMatches(ALICE, MatchType.PAYED).get(0).getMatchCount());
+
+        // Alice removes her search for 2 -> no freebie match left
+        matchIndex.apply(matchIndex.userUpdate(ALICE, List.of(), List.of(2L)));
+
+        assertTrue(matchIndex.findMatches(ALICE, MatchType.FREEBIE).isEmpty());
+    }
+
+    @Test
+    void apply_AddsNewUsers() {
+        matchIndex.install(matchIndex.builder().addSearch(ALICE, 1L));
+
+        matchIndex.apply(matchIndex.userUpdate(CHARLIE, List.of(1L), List.of())
+                .addOffer(1L, true, false, false));
+
+        List<MatchProjection> matches = matchIndex.findMatches(ALICE, MatchType.FREEBIE);
+        assertEquals(1, matches.size());
+        assertEquals(CHARLIE, matches.get(0).getUserId());
+    }
+
+    @Test
+    void apply_DuringRebuildIsReplayedOnInstall() {
+        MatchIndex.Builder builder = matchIndex.builder().addSearch(ALICE, 1L);
+
+        // Committed after the rebuild read Bob's cards
+        matchIndex.apply(matchIndex.userUpdate(BOB, List.of(1L), List.of())
+                .addOffer(1L, true, false, false));
+        assertFalse(matchIndex.isReady());
+
+        matchIndex.install(builder);
+
+        assertEquals(1, matchIndex.findMatches(ALICE, MatchType.FREEBIE).size());
+    }
+
+    @Test
+    void apply_ReadBeforeRebuildIsIgnored() {
+        // Bob's offer was read before the rebuild, which no longer sees it
+        long readStamp = matchIndex.readStamp();
+        MatchIndex.Builder builder = matchIndex.builder().addSearch(ALICE, 1L);
+
+        matchIndex.apply(matchIndex.userUpdate(BOB, List.of(1L), List.of())
+                .addOffer(1L, true, false, false), readStamp);
+        matchIndex.install(builder);
+
+        assertTrue(matchIndex.findMatches(ALICE, MatchType.FREEBIE).isEmpty());
+
+        // Arriving after the install does not resurrect it either
+        matchIndex.apply(matchIndex.userUpdate(BOB, List.of(1L), List.of())
+                .addOffer(1L, true, false, false), readStamp);
+
+        assertTrue(matchIndex.findMatches(ALICE, MatchType.FREEBIE).isEmpty());
+    }
+
+    @Test
+    void findMatches_WithExclusions_SkipsRequestedStickers() {
+        matchIndex.install(matchIndex.builder()
+                .addSearch(ALICE, 1L)
+                .addSearch(ALICE, 2L)
+                .addOffer(ALICE, 5L, false, false, true)
+                .addOffer(BOB, 1L, false, false, true)
+                .addOffer(BOB, 2L, false, false, true)
+                .addSearch(BOB, 5L));
+
+        MatchExclusions exclusions = MatchExclusions.of(List.of(ExchangeRequest.builder()
+                .requesterId(ALICE)
+                .offererId(BOB)
+                .requestedStickerId(1L)
+                .offeredStickerId(5L)
+                .exchangeType(ExchangeType.EXCHANGE)
+                .status(ExchangeStatus.MAIL_SEND)
+                .build()));
+
+        // Alice would still get 2 from Bob, but has nothing left to give him
+        assertTrue(matchIndex.findMatches(ALICE, MatchType.EXCHANGE, exclusions).isEmpty());
+        assertEquals(1, matchIndex.findMatches(ALICE, MatchType.EXCHANGE).size());
+    }
+
+    @Test
+    void findRings_FindsThreeWayCycleButNotDirectSwap() {
+        matchIndex.install(matchIndex.builder()
+                // Alice -> Bob -> Charlie -> Alice
+                .addOffer(ALICE, 1L, false, false, true)
+                .addSearch(BOB, 1L)
+                .addOffer(BOB, 2L, false, false, true)
+                .addSearch(CHARLIE, 2L)
+                .addOffer(CHARLIE, 3L, false, false, true)
+                .addSearch(ALICE, 3L)
+                // Direct swap Alice <-> 4 is a normal exchange match, not a ring
+                .addSearch(4L, 1L)
+                .addOffer(4L, 3L, false, false, true));
+
+        List<RingTrade> rings = matchIndex.findRings(ALICE, 4, 20, Long.MAX_VALUE, 10);
+
+        assertEquals(1, rings.size());
+        RingTrade ring = rings.get(0);
+        assertEquals(List.of(ALICE, BOB, CHARLIE), ring.userIds());
+        assertEquals(List.of(List.of(1L), List.of(2L), List.of(3L)), ring.hopStickerIds());
+        assertEquals(3L, ring.stickersSatisfied());
+    }
+
+    @Test
+    void findRings_RanksByStickersSatisfied() {
+        matchIndex.install(matchIndex.builder()
+                // Three-way ring with one sticker per hop: 3 satisfied
+                .addOffer(ALICE, 1L, false, false, true)
+                .addSearch(BOB, 1L)
+                .addOffer(BOB, 2L, false, false, true)
+                .addSearch(CHARLIE, 2L)
+                .addOffer(CHARLIE, 3L, false, false, true)
+                .addSearch(ALICE, 3L)
+                // Four-way ring with two stickers per hop: 8 satisfied
+                .addOffer(ALICE, 10L, false, false, true)
+                .addOffer(ALICE, 11L, false, false, true)
+                .addSearch(4L, 10L)
+                .addSearch(4L, 11L)
+                .addOffer(4L, 12L, false, false, true)
+                .addOffer(4L, 13L, false, false, true)
+                .addSearch(5L, 12L)
+                .addSearch(5L, 13L)
+                .addOffer(5L, 14L, false, false, true)
+                .addOffer(5L, 15L, false, false, true)
+                .addSearch(6L, 14L)
+                .addSearch(6L, 15L)
+                .addOffer(6L, 16L, false, false, true)
+                .addOffer(6L, 17L, false, false, true)
+                .addSearch(ALICE, 16L)
+                .addSearch(ALICE, 17L));
+
+        List<RingTrade> rings = matchIndex.findRings(ALICE, 4, 20, Long.MAX_VALUE, 10);
+
+        assertEquals(2, rings.size());
+        assertEquals(List.of(ALICE, 4L, 5L, 6L), rings.get(0).userIds());
+        assertEquals(8L, rings.get(0).stickersSatisfied());
+        assertEquals(3L, rings.get(1).stickersSatisfied());
+
+        // Three hops only
+        assertEquals(1, matchIndex.findRings(ALICE, 3, 20, Long.MAX_VALUE, 10).size());
+    }
+
+    @Test
+    void findRings_StopsAtDeadline() {
+        matchIndex.install(matchIndex.builder()
+                .addOffer(ALICE, 1L, false, false, true)
+                .addSearch(BOB, 1L)
+                .addOffer(BOB, 2L, false, false, true)
+                .addSearch(CHARLIE, 2L)
+                .addOffer(CHARLIE, 3L, false, false, true)
+                .addSearch(ALICE, 3L));
+
+        assertTrue(matchIndex.findRings(ALICE, 4, 20, System.nanoTime() - 1, 10).isEmpty());
+    }
+}
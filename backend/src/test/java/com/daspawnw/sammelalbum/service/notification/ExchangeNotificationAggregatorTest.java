@@ -0,0 +1,79 @@
+package com.daspawnw.sammelalbum.service.notification;
+
+import com.daspawnw.sammelalbum.config.AppProperties;
+import com.daspawnw.sammelalbum.service.ExchangeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeNotificationAggregatorTest {
+
+    @Mock
+    private ExchangeService exchangeService;
+
+    private ExchangeNotificationAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getExchangeNotification().setQuietPeriodMs(60_000);
+        appProperties.getExchangeNotification().setMaxDelayMs(300_000);
+        aggregator = new ExchangeNotificationAggregator(exchangeService, appProperties);
+    }
+
+    @Test
+    void flushDue_ShouldNotifyOnce_AfterQuietPeriod() {
+        aggregator.record(4L, 0);
+        aggregator.record(4L, 30_000);
+
+        aggregator.flushDue(60_000);
+        verify(exchangeService, never()).processInitialRequestsForOfferer(anyLong());
+
+        aggregator.flushDue(90_000);
+        aggregator.flushDue(200_000);
+
+        verify(exchangeService, times(1)).processInitialRequestsForOfferer(4L);
+        assertEquals(0, aggregator.pendingOfferers());
+    }
+
+    @Test
+    void flushDue_ShouldNotify_WhenMaxDelayIsReachedDespiteNewRequests() {
+        for (long now = 0; now <= 300_000; now += 50_000) {
+            aggregator.record(4L, now);
+        }
+
+        aggregator.flushDue(300_000);
+
+        verify(exchangeService).processInitialRequestsForOfferer(4L);
+    }
+
+    @Test
+    void flushDue_ShouldOnlyNotifyDueOfferers() {
+        aggregator.record(4L, 0);
+        aggregator.record(5L, 50_000);
+
+        aggregator.flushDue(60_000);
+
+        verify(exchangeService).processInitialRequestsForOfferer(4L);
+        verify(exchangeService, never()).processInitialRequestsForOfferer(5L);
+        assertEquals(1, aggregator.pendingOfferers());
+    }
+
+    @Test
+    void flushDue_ShouldDropOfferer_WhenNotificationFails() {
+        doThrow(new IllegalArgumentException("User not found")).when(exchangeService)
+                .processInitialRequestsForOfferer(4L);
+        aggregator.record(4L, 0);
+
+        aggregator.flushDue(60_000);
+
+        assertEquals(0, aggregator.pendingOfferers());
+    }
+}
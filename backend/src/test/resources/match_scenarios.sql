@@ -1,5 +1,6 @@
 -- Clean up existing data
 DELETE FROM email_outbox;
+DELETE FROM match_index_changes;
 DELETE FROM exchange_requests;
 DELETE FROM card_searches;
 DELETE FROM card_offers;
@@ -134,3 +135,22 @@ INSERT INTO card_offers (user_id, sticker_id, offer_freebie) VALUES (7, 2, true)
 
 -- Offer 3 as EXCHANGE
 INSERT INTO card_offers (user_id, sticker_id, offer_exchange) VALUES (7, 3, true);
+
+-- Stock tables read by the match queries (maintained by the services at runtime)
+INSERT INTO card_offer_stock (user_id, sticker_id, quantity, reserved_quantity,
+                              freebie_available, payed_available, exchange_available)
+SELECT user_id, sticker_id,
+       COUNT(*),
+       SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_freebie = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_payed = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_reserved = FALSE AND offer_exchange = TRUE THEN 1 ELSE 0 END)
+FROM card_offers
+GROUP BY user_id, sticker_id;
+
+INSERT INTO card_search_stock (user_id, sticker_id, quantity, reserved_quantity)
+SELECT user_id, sticker_id,
+       COUNT(*),
+       SUM(CASE WHEN is_reserved = TRUE THEN 1 ELSE 0 END)
+FROM card_searches
+GROUP BY user_id, sticker_id;